@@ -0,0 +1,47 @@
+package citu.jisaz.brightminds_backend.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GamificationConfig#calculateXpForNextLevel(int)}, the {@code Math.pow} per level that the leveling table
+ * is built from, at a low, a typical and a high level.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GamificationConfigBenchmark {
+
+    @Param({"1", "25", "150"})
+    public int level;
+
+    private GamificationConfig gamificationConfig;
+
+    @Setup(Level.Trial)
+    public void createConfig() {
+        gamificationConfig = new GamificationConfig();
+        ReflectionTestUtils.setField(gamificationConfig, "baseXpForLevel2", 100L);
+        ReflectionTestUtils.setField(gamificationConfig, "levelXpMultiplier", 1.25);
+    }
+
+    @Benchmark
+    public long calculateXpForNextLevel() {
+        return gamificationConfig.calculateXpForNextLevel(level);
+    }
+}
@@ -0,0 +1,103 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import citu.jisaz.brightminds_backend.model.Classroom;
+import citu.jisaz.brightminds_backend.model.StudentGameAttempt;
+import citu.jisaz.brightminds_backend.model.User;
+import com.google.cloud.NoCredentials;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreOptions;
+import com.google.cloud.firestore.encoding.CustomClassMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping Firestore document data onto {@link User}, {@link Classroom} and {@link StudentGameAttempt}, the
+ * {@link CustomClassMapper#convertToCustomClass} call that {@code DocumentSnapshot.toObject} and
+ * {@link FirestoreUnitOfWork} make for every document read. The data holds the types Firestore returns (Long
+ * numbers, Timestamp dates) and the document references come from a client that never connects.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentDeserializationBenchmark {
+
+    private Firestore firestore;
+    private DocumentReference userRef;
+    private DocumentReference classroomRef;
+    private DocumentReference attemptRef;
+    private Map<String, Object> userData;
+    private Map<String, Object> classroomData;
+    private Map<String, Object> attemptData;
+
+    @Setup(Level.Trial)
+    public void createDocuments() {
+        firestore = FirestoreOptions.newBuilder()
+                .setProjectId("benchmark")
+                .setCredentials(NoCredentials.getInstance())
+                .build()
+                .getService();
+        userRef = firestore.collection("users").document("student-1");
+        classroomRef = firestore.collection("classrooms").document("classroom-1");
+        attemptRef = firestore.collection("studentGameAttempts").document("attempt-1");
+
+        Timestamp now = Timestamp.now();
+        userData = Map.ofEntries(
+                Map.entry("displayName", "Juan Dela Cruz"), Map.entry("email", "juan@example.com"),
+                Map.entry("role", "STUDENT"), Map.entry("avatarUrl", "https://example.com/avatars/juan.png"),
+                Map.entry("themePreference", "dark"), Map.entry("createdAt", now), Map.entry("updatedAt", now),
+                Map.entry("level", 7L), Map.entry("currentXp", 120L), Map.entry("xpToNextLevel", 381L),
+                Map.entry("studentOfClassrooms", List.of("classroom-1", "classroom-2")),
+                Map.entry("teacherOfClassrooms", List.of()));
+        classroomData = Map.ofEntries(
+                Map.entry("name", "Grade 3 Mathematics"), Map.entry("teacherId", "teacher-1"),
+                Map.entry("teacherName", "Ms. Reyes"), Map.entry("uniqueCode", "A1B2C3D4"),
+                Map.entry("description", "Fractions and decimals"),
+                Map.entry("iconUrl", "https://example.com/icons/math.png"),
+                Map.entry("createdAt", now), Map.entry("updatedAt", now),
+                Map.entry("studentCount", 32L), Map.entry("activityCount", 12L));
+        attemptData = Map.ofEntries(
+                Map.entry("studentId", "student-1"), Map.entry("classroomId", "classroom-1"),
+                Map.entry("assignedGameId", "assigned-1"), Map.entry("libraryGameId", "game-1"),
+                Map.entry("score", 8L), Map.entry("totalPointsPossible", 10L), Map.entry("xpEarned", 80L),
+                Map.entry("status", "COMPLETED"), Map.entry("startedAt", now), Map.entry("completedAt", now));
+    }
+
+    @TearDown(Level.Trial)
+    public void closeFirestore() throws Exception {
+        firestore.close();
+    }
+
+    @Benchmark
+    public User user() {
+        return CustomClassMapper.convertToCustomClass(userData, User.class, userRef);
+    }
+
+    @Benchmark
+    public Classroom classroom() {
+        return CustomClassMapper.convertToCustomClass(classroomData, Classroom.class, classroomRef);
+    }
+
+    @Benchmark
+    public StudentGameAttempt studentGameAttempt() {
+        return CustomClassMapper.convertToCustomClass(attemptData, StudentGameAttempt.class, attemptRef);
+    }
+}
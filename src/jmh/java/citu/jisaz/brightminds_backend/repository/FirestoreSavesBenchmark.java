@@ -0,0 +1,139 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import citu.jisaz.brightminds_backend.model.Classroom;
+import citu.jisaz.brightminds_backend.model.User;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Updating a stored user and a stored classroom through {@link FirestoreSaves}, against the saves it replaced: a
+ * user save read the document first to copy its creation timestamp over, and a classroom save also read the
+ * document back after writing it. Firestore is a mocked document whose RPCs each complete after
+ * {@code rpcLatencyMicros}, standing in for the round trip; at 0 what is left is the client-side cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FirestoreSavesBenchmark {
+
+    @Param({"0", "1000"})
+    public long rpcLatencyMicros;
+
+    private ScheduledExecutorService network;
+    private DocumentReference userRef;
+    private DocumentReference classroomRef;
+    private User user;
+    private Classroom classroom;
+
+    @Setup(Level.Trial)
+    public void createDocuments() {
+        network = Executors.newSingleThreadScheduledExecutor();
+        Date created = new Date(1_700_000_000_000L);
+        user = User.builder()
+                .userId("student-1").displayName("Juan Dela Cruz").email("juan@example.com").role("STUDENT")
+                .avatarUrl("https://example.com/avatars/juan.png").themePreference("dark")
+                .createdAt(created).level(7).currentXp(120L).xpToNextLevel(381L)
+                .studentOfClassrooms(List.of("classroom-1", "classroom-2"))
+                .build();
+        classroom = Classroom.builder()
+                .classroomId("classroom-1").name("Grade 3 Mathematics").teacherId("teacher-1")
+                .teacherName("Ms. Reyes").uniqueCode("A1B2C3D4").description("Fractions and decimals")
+                .iconUrl("https://example.com/icons/math.png").createdAt(created)
+                .studentCount(32).activityCount(12)
+                .build();
+        userRef = storedDocument(user, User.class);
+        classroomRef = storedDocument(classroom, Classroom.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopNetwork() {
+        network.shutdownNow();
+    }
+
+    private <T> DocumentReference storedDocument(T model, Class<T> type) {
+        WriteResult writeResult = mock(WriteResult.class);
+        when(writeResult.getUpdateTime()).thenReturn(Timestamp.now());
+        DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+        when(snapshot.exists()).thenReturn(true);
+        when(snapshot.toObject(type)).thenReturn(model);
+
+        DocumentReference docRef = mock(DocumentReference.class);
+        when(docRef.get()).thenAnswer(invocation -> roundTrip(snapshot));
+        when(docRef.set(any(Object.class))).thenAnswer(invocation -> roundTrip(writeResult));
+        when(docRef.set(anyMap())).thenAnswer(invocation -> roundTrip(writeResult));
+        when(docRef.set(anyMap(), any(SetOptions.class))).thenAnswer(invocation -> roundTrip(writeResult));
+        when(docRef.create(anyMap())).thenAnswer(invocation -> roundTrip(writeResult));
+        return docRef;
+    }
+
+    private <T> ApiFuture<T> roundTrip(T response) {
+        if (rpcLatencyMicros == 0) {
+            return ApiFutures.immediateFuture(response);
+        }
+        SettableApiFuture<T> future = SettableApiFuture.create();
+        network.schedule(() -> future.set(response), rpcLatencyMicros, TimeUnit.MICROSECONDS);
+        return future;
+    }
+
+    @Benchmark
+    public User userGetThenSet() {
+        return FirestoreFutures.toCompletableFuture(userRef.get())
+                .thenCompose(existing -> {
+                    user.setCreatedAt(existing.toObject(User.class).getCreatedAt());
+                    return FirestoreFutures.toCompletableFuture(userRef.set(user));
+                })
+                .thenApply(writeResult -> user)
+                .join();
+    }
+
+    @Benchmark
+    public FirestoreSaves.Result userSingleWrite() {
+        return FirestoreSaves.save(userRef, user, "createdAt", "updatedAt").join();
+    }
+
+    @Benchmark
+    public Classroom classroomSetThenGet() {
+        return FirestoreFutures.toCompletableFuture(classroomRef.set(classroom))
+                .thenCompose(writeResult -> FirestoreFutures.toCompletableFuture(classroomRef.get()))
+                .thenApply(persisted -> persisted.toObject(Classroom.class))
+                .join();
+    }
+
+    @Benchmark
+    public FirestoreSaves.Result classroomSingleWrite() {
+        return FirestoreSaves.save(classroomRef, classroom, "createdAt", "updatedAt").join();
+    }
+}
@@ -0,0 +1,59 @@
+package citu.jisaz.brightminds_backend.security;
+
+import citu.jisaz.brightminds_backend.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Reading the bearer token out of the Authorization header in {@link FirebaseIdTokenAuthenticationFilter}, which
+ * runs on every request, for a request with a token and one without.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenExtractionBenchmark {
+
+    // Shaped like a Firebase ID token: a JWT of about 1 KB.
+    private static final String ID_TOKEN = "eyJhbGciOiJSUzI1NiIsImtpZCI6ImJlbmNobWFyayIsInR5cCI6IkpXVCJ9."
+            + "x".repeat(800) + "." + "s".repeat(342);
+
+    private FirebaseIdTokenAuthenticationFilter filter;
+    private MockHttpServletRequest authenticatedRequest;
+    private MockHttpServletRequest anonymousRequest;
+
+    @Setup(Level.Trial)
+    public void createFilter() {
+        filter = new FirebaseIdTokenAuthenticationFilter(mock(FirebaseIdTokenCache.class),
+                mock(PrincipalUserCache.class), mock(UserRepository.class));
+        authenticatedRequest = new MockHttpServletRequest("GET", "/api/v1/classrooms");
+        authenticatedRequest.addHeader("Authorization", "Bearer " + ID_TOKEN);
+        anonymousRequest = new MockHttpServletRequest("GET", "/api/v1/games");
+    }
+
+    @Benchmark
+    public String bearerToken() {
+        return filter.extractTokenFromRequest(authenticatedRequest);
+    }
+
+    @Benchmark
+    public String noAuthorizationHeader() {
+        return filter.extractTokenFromRequest(anonymousRequest);
+    }
+}
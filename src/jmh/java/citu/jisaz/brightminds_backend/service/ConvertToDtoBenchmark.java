@@ -0,0 +1,111 @@
+package citu.jisaz.brightminds_backend.service;
+
+import citu.jisaz.brightminds_backend.config.PaginationConfig;
+import citu.jisaz.brightminds_backend.dto.ClassroomDTO;
+import citu.jisaz.brightminds_backend.dto.StudentGameAttemptDTO;
+import citu.jisaz.brightminds_backend.dto.UserDTO;
+import citu.jisaz.brightminds_backend.model.Classroom;
+import citu.jisaz.brightminds_backend.model.StudentGameAttempt;
+import citu.jisaz.brightminds_backend.model.User;
+import citu.jisaz.brightminds_backend.repository.AssignedGameRepository;
+import citu.jisaz.brightminds_backend.repository.AsyncAssignedGameRepository;
+import citu.jisaz.brightminds_backend.repository.AsyncStudentGameAttemptRepository;
+import citu.jisaz.brightminds_backend.repository.AsyncUserRepository;
+import citu.jisaz.brightminds_backend.repository.ClassroomRepository;
+import citu.jisaz.brightminds_backend.repository.GameRepository;
+import citu.jisaz.brightminds_backend.repository.StudentGameAttemptRepository;
+import citu.jisaz.brightminds_backend.repository.TransactionRunner;
+import citu.jisaz.brightminds_backend.repository.UserRepository;
+import citu.jisaz.brightminds_backend.security.ClassroomAccessCache;
+import citu.jisaz.brightminds_backend.security.PrincipalUserCache;
+import com.google.firebase.auth.FirebaseAuth;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * The {@code convertToDTO} mappers of {@link ClassroomService}, {@link UserService} and
+ * {@link StudentGameAttemptService}, run once per item of every list endpoint. The services are built on mocked
+ * repositories, which the mappers never touch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertToDtoBenchmark {
+
+    private ClassroomService classroomService;
+    private UserService userService;
+    private StudentGameAttemptService attemptService;
+
+    private Classroom classroom;
+    private User student;
+    private StudentGameAttempt attempt;
+
+    @Setup(Level.Trial)
+    public void createServices() {
+        classroomService = new ClassroomService(mock(TransactionRunner.class), mock(ClassroomRepository.class),
+                mock(UserRepository.class), mock(AssignedGameRepository.class), mock(GameRepository.class),
+                mock(PrincipalUserCache.class), mock(ClassroomAccessCache.class),
+                mock(AsyncAssignedGameRepository.class), mock(PaginationConfig.class),
+                mock(ClassroomCounterService.class), mock(ClassroomCache.class), Duration.ofSeconds(5), Duration.ofMinutes(5));
+        userService = new UserService(mock(FirebaseAuth.class), mock(UserRepository.class),
+                mock(LevelingEngine.class), mock(PrincipalUserCache.class), "benchmark");
+        attemptService = new StudentGameAttemptService(mock(TransactionRunner.class),
+                mock(StudentGameAttemptRepository.class), userService, mock(LevelingEngine.class),
+                mock(PrincipalUserCache.class), mock(AsyncUserRepository.class),
+                mock(AsyncStudentGameAttemptRepository.class), mock(PaginationConfig.class),
+                mock(AttemptIdempotencyCache.class));
+
+        Date now = new Date();
+        classroom = Classroom.builder()
+                .classroomId("classroom-1").name("Grade 3 Mathematics").teacherId("teacher-1")
+                .teacherName("Ms. Reyes").uniqueCode("A1B2C3D4").description("Fractions and decimals")
+                .iconUrl("https://example.com/icons/math.png").createdAt(now).updatedAt(now)
+                .studentCount(32).activityCount(12)
+                .build();
+        student = User.builder()
+                .userId("student-1").displayName("Juan Dela Cruz").email("juan@example.com").role("STUDENT")
+                .avatarUrl("https://example.com/avatars/juan.png").themePreference("dark")
+                .createdAt(now).updatedAt(now).level(7).currentXp(120L).xpToNextLevel(381L)
+                .studentOfClassrooms(List.of("classroom-1", "classroom-2"))
+                .build();
+        attempt = StudentGameAttempt.builder()
+                .attemptId("attempt-1").studentId("student-1").classroomId("classroom-1")
+                .assignedGameId("assigned-1").libraryGameId("game-1").score(8).totalPointsPossible(10)
+                .xpEarned(80L).status("COMPLETED").startedAt(now).completedAt(now)
+                .build();
+    }
+
+    @Benchmark
+    public ClassroomDTO classroomToDto() {
+        return classroomService.convertToDTO(classroom);
+    }
+
+    @Benchmark
+    public UserDTO userToDto() {
+        return userService.convertToDTO(student);
+    }
+
+    @Benchmark
+    public StudentGameAttemptDTO attemptToDto() {
+        return attemptService.convertToDTO(attempt);
+    }
+}
@@ -0,0 +1,70 @@
+package citu.jisaz.brightminds_backend.service;
+
+import citu.jisaz.brightminds_backend.config.GamificationConfig;
+import citu.jisaz.brightminds_backend.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LevelingEngine#applyXp(User, long)} against the per-level {@code Math.pow} loop it replaced, for an award
+ * that stays within the level, one that crosses a few levels, and one that crosses dozens.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelingEngineBenchmark {
+
+    @Param({"50", "1000", "1000000000"})
+    public long xpEarned;
+
+    private GamificationConfig gamificationConfig;
+    private LevelingEngine levelingEngine;
+    private User student;
+
+    @Setup(Level.Trial)
+    public void createEngine() {
+        gamificationConfig = new GamificationConfig();
+        ReflectionTestUtils.setField(gamificationConfig, "baseXpForLevel2", 100L);
+        ReflectionTestUtils.setField(gamificationConfig, "levelXpMultiplier", 1.25);
+        levelingEngine = new LevelingEngine(gamificationConfig);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetStudent() {
+        student = User.builder().level(3).currentXp(40L).xpToNextLevel(156L).build();
+    }
+
+    @Benchmark
+    public User levelingEngine() {
+        levelingEngine.applyXp(student, xpEarned);
+        return student;
+    }
+
+    @Benchmark
+    public User perLevelLoop() {
+        student.setCurrentXp(student.getCurrentXp() + xpEarned);
+        while (student.getCurrentXp() >= student.getXpToNextLevel()) {
+            long xpOver = student.getCurrentXp() - student.getXpToNextLevel();
+            student.setLevel(student.getLevel() + 1);
+            student.setCurrentXp(xpOver);
+            student.setXpToNextLevel(gamificationConfig.calculateXpForNextLevel(student.getLevel()));
+        }
+        return student;
+    }
+}
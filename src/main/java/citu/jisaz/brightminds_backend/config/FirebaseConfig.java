@@ -1,5 +1,6 @@
 package citu.jisaz.brightminds_backend.config;
 
+import com.google.auth.oauth2.AccessToken;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.firestore.Firestore;
 import com.google.firebase.FirebaseApp;
@@ -9,7 +10,11 @@ import com.google.firebase.cloud.FirestoreClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StringUtils;
 
 import javax.annotation.PostConstruct;
 import java.io.IOException;
@@ -21,14 +26,32 @@ public class FirebaseConfig {
     @Value("${app.firebase.service-account-key-path}")
     private String serviceAccountKeyPath;
 
+    @Value("${app.firebase.project-id:}")
+    private String projectId;
+
+    private final Environment environment;
+
+    public FirebaseConfig(Environment environment) {
+        this.environment = environment;
+    }
+
     @PostConstruct
     public void initializeFirebase() {
         try {
-            InputStream serviceAccountStream = new ClassPathResource(serviceAccountKeyPath).getInputStream();
-
-            FirebaseOptions options = FirebaseOptions.builder()
-                    .setCredentials(GoogleCredentials.fromStream(serviceAccountStream))
-                    .build();
+            ClassPathResource serviceAccountKey = new ClassPathResource(serviceAccountKeyPath);
+            FirebaseOptions options;
+            if (environment.acceptsProfiles(Profiles.of("in-memory")) && !serviceAccountKey.exists()) {
+                // No Firestore in this profile; Firebase Auth only needs a project ID to verify tokens against.
+                options = FirebaseOptions.builder()
+                        .setCredentials(GoogleCredentials.create(new AccessToken("in-memory", null)))
+                        .setProjectId(StringUtils.hasText(projectId) ? projectId : "brightminds-in-memory")
+                        .build();
+            } else {
+                InputStream serviceAccountStream = serviceAccountKey.getInputStream();
+                options = FirebaseOptions.builder()
+                        .setCredentials(GoogleCredentials.fromStream(serviceAccountStream))
+                        .build();
+            }
 
             if (FirebaseApp.getApps().isEmpty()) {
                 FirebaseApp.initializeApp(options);
@@ -40,6 +63,7 @@ public class FirebaseConfig {
     }
 
     @Bean
+    @Profile("!in-memory")
     public Firestore firestore() {
         return FirestoreClient.getFirestore();
     }
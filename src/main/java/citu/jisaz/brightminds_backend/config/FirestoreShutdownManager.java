@@ -5,9 +5,11 @@ import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 @Component
+@Profile("!in-memory")
 public class FirestoreShutdownManager {
 
     private static final Logger logger = LoggerFactory.getLogger(FirestoreShutdownManager.class);
@@ -0,0 +1,139 @@
+package citu.jisaz.brightminds_backend.config;
+
+import citu.jisaz.brightminds_backend.repository.FirestoreMetrics;
+import citu.jisaz.brightminds_backend.repository.FirestoreUnitOfWork;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds a {@link FirestoreUnitOfWork} to each request, ahead of the security filter chain so the authentication
+ * filter's user lookup shares it, and reports how many Firestore documents the request read and wrote: in the
+ * {@value #READS_HEADER} and {@value #WRITES_HEADER} response headers, in the log, and per endpoint in
+ * {@link FirestoreMetrics}.
+ * <p>
+ * The headers carry the counts at the moment the response is committed; a streamed response commits with its first
+ * flush, so reads made while streaming the rest of it are only in the log and the metrics. The stream runs on an
+ * async thread with this request's unit of work bound to it ({@code NdjsonResponses}), and the request is logged
+ * and recorded when its async processing completes.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FirestoreUnitOfWorkFilter extends OncePerRequestFilter {
+
+    public static final String READS_HEADER = "X-Firestore-Document-Reads";
+    public static final String WRITES_HEADER = "X-Firestore-Document-Writes";
+
+    private static final Logger logger = LoggerFactory.getLogger(FirestoreUnitOfWorkFilter.class);
+
+    private final FirestoreMetrics firestoreMetrics;
+    private final boolean countHeaders;
+
+    public FirestoreUnitOfWorkFilter(FirestoreMetrics firestoreMetrics,
+                                     @Value("${app.firestore.document-count-headers:true}") boolean countHeaders) {
+        this.firestoreMetrics = firestoreMetrics;
+        this.countHeaders = countHeaders;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        try (FirestoreUnitOfWork unitOfWork = FirestoreUnitOfWork.begin()) {
+            try {
+                filterChain.doFilter(request, countHeaders ? new DocumentCountHeaders(response, unitOfWork) : response);
+            } finally {
+                if (countHeaders && !response.isCommitted()) {
+                    setCountHeaders(response, unitOfWork);
+                }
+                String endpoint = FirestoreMetrics.endpoint(request);
+                if (request.isAsyncStarted()) {
+                    request.getAsyncContext().addListener(new RecordOnCompletion(endpoint, request, response, unitOfWork));
+                } else {
+                    record(endpoint, request, response, unitOfWork);
+                }
+            }
+        }
+    }
+
+    private void record(String endpoint, HttpServletRequest request, HttpServletResponse response, FirestoreUnitOfWork unitOfWork) {
+        firestoreMetrics.recordRequest(endpoint, unitOfWork.getDocumentReads(), unitOfWork.getDocumentWrites());
+        logger.info("{} {} -> {}: {} Firestore document reads, {} writes, {} served from the request identity map.",
+                request.getMethod(), request.getRequestURI(), response.getStatus(),
+                unitOfWork.getDocumentReads(), unitOfWork.getDocumentWrites(), unitOfWork.getIdentityMapHits());
+    }
+
+    private static void setCountHeaders(HttpServletResponse response, FirestoreUnitOfWork unitOfWork) {
+        response.setIntHeader(READS_HEADER, unitOfWork.getDocumentReads());
+        response.setIntHeader(WRITES_HEADER, unitOfWork.getDocumentWrites());
+    }
+
+    /**
+     * Records an async request, such as a streamed response, once everything it read is counted.
+     */
+    private final class RecordOnCompletion implements AsyncListener {
+
+        private final String endpoint;
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final FirestoreUnitOfWork unitOfWork;
+
+        RecordOnCompletion(String endpoint, HttpServletRequest request, HttpServletResponse response, FirestoreUnitOfWork unitOfWork) {
+            this.endpoint = endpoint;
+            this.request = request;
+            this.response = response;
+            this.unitOfWork = unitOfWork;
+        }
+
+        // Called after a timeout or error as well.
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(endpoint, request, response, unitOfWork);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    /**
+     * Sets the count headers just before the body starts going out, when they can still be added.
+     */
+    private static final class DocumentCountHeaders extends OnCommittedResponseWrapper {
+
+        private final FirestoreUnitOfWork unitOfWork;
+
+        DocumentCountHeaders(HttpServletResponse response, FirestoreUnitOfWork unitOfWork) {
+            super(response);
+            this.unitOfWork = unitOfWork;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            setCountHeaders((HttpServletResponse) getResponse(), unitOfWork);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package citu.jisaz.brightminds_backend.config;
+
+import citu.jisaz.brightminds_backend.exception.BadRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PaginationConfig {
+    @Value("${app.pagination.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.pagination.max-page-size:200}")
+    private int maxPageSize;
+
+    /**
+     * The page size to use for a request: the default when none was asked for, and never more than the maximum.
+     */
+    public int resolvePageSize(Integer requestedPageSize) {
+        if (requestedPageSize == null) {
+            return defaultPageSize;
+        }
+        if (requestedPageSize < 1) {
+            throw new BadRequestException("pageSize must be at least 1.");
+        }
+        return Math.min(requestedPageSize, maxPageSize);
+    }
+}
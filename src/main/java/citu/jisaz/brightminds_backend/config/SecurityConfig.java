@@ -2,7 +2,9 @@ package citu.jisaz.brightminds_backend.config;
 
 import citu.jisaz.brightminds_backend.repository.UserRepository;
 import citu.jisaz.brightminds_backend.security.FirebaseIdTokenAuthenticationFilter;
-import com.google.firebase.auth.FirebaseAuth;
+import citu.jisaz.brightminds_backend.security.FirebaseIdTokenCache;
+import citu.jisaz.brightminds_backend.security.PrincipalUserCache;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -28,17 +30,19 @@ import java.util.List;
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
-    private final FirebaseAuth firebaseAuth;
+    private final FirebaseIdTokenCache idTokenCache;
+    private final PrincipalUserCache principalUserCache;
     private final UserRepository userRepository;
 
-    public SecurityConfig(FirebaseAuth firebaseAuth, UserRepository userRepository) {
-        this.firebaseAuth = firebaseAuth;
+    public SecurityConfig(FirebaseIdTokenCache idTokenCache, PrincipalUserCache principalUserCache, UserRepository userRepository) {
+        this.idTokenCache = idTokenCache;
+        this.principalUserCache = principalUserCache;
         this.userRepository = userRepository;
     }
 
     @Bean
     public FirebaseIdTokenAuthenticationFilter firebaseIdTokenAuthenticationFilter() {
-        return new FirebaseIdTokenAuthenticationFilter(firebaseAuth, userRepository);
+        return new FirebaseIdTokenAuthenticationFilter(idTokenCache, principalUserCache, userRepository);
     }
 
     @Bean
@@ -49,8 +53,14 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .addFilterBefore(firebaseIdTokenAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(authz -> authz
+                        // The dispatch that completes a streamed (NDJSON) response, after the request itself was
+                        // authorized; the token filter does not run on it.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/v1/users/register").permitAll()
                         .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                        // JVM, cache and request internals, and per-endpoint Firestore volumes: operators only, i.e.
+                        // users whose role is ADMIN. A Prometheus scraper authenticates as one.
+                        .requestMatchers("/actuator/metrics", "/actuator/metrics/**", "/actuator/prometheus").hasRole("ADMIN")
                         // Swagger/OpenAPI documentation (if you add it later)
                         // .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                         .requestMatchers("/api/v1/**").authenticated()
@@ -75,11 +85,14 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList(
                 "Authorization", "Content-Type", "X-Requested-With", "Accept",
-                "Origin", "Access-Control-Request-Method", "Access-Control-Request-Headers"
+                "Origin", "Access-Control-Request-Method", "Access-Control-Request-Headers",
+                "Idempotency-Key"
         ));
         configuration.setExposedHeaders(Arrays.asList(
                 "Origin", "Content-Type", "Accept", "Authorization",
-                "Access-Control-Allow-Origin", "Access-Control-Allow-Credentials"
+                "Access-Control-Allow-Origin", "Access-Control-Allow-Credentials",
+                "X-Next-Page-Token",
+                FirestoreUnitOfWorkFilter.READS_HEADER, FirestoreUnitOfWorkFilter.WRITES_HEADER
         ));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
@@ -3,14 +3,18 @@ package citu.jisaz.brightminds_backend.controller;
 import citu.jisaz.brightminds_backend.dto.*;
 import citu.jisaz.brightminds_backend.model.User;
 import citu.jisaz.brightminds_backend.service.ClassroomService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -21,9 +25,11 @@ public class ClassroomController {
 
     private static final Logger logger = LoggerFactory.getLogger(ClassroomController.class);
     private final ClassroomService classroomService;
+    private final ObjectMapper objectMapper;
 
-    public ClassroomController(ClassroomService classroomService) {
+    public ClassroomController(ClassroomService classroomService, ObjectMapper objectMapper) {
         this.classroomService = classroomService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -43,12 +49,18 @@ public class ClassroomController {
     @PreAuthorize("isAuthenticated() and (@classroomService.isTeacherOwnerOfClassroom(authentication.principal.userId, #classroomId) or @classroomService.isStudentEnrolled(authentication.principal.userId, #classroomId))")
     public ResponseEntity<ClassroomDTO> getClassroomById(
             @PathVariable String classroomId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             Authentication authentication)
             throws ExecutionException, InterruptedException {
         User principal = (User) authentication.getPrincipal();
         logger.info("User {} fetching classroom by ID: {}", principal.getUserId(), classroomId);
         ClassroomDTO classroom = classroomService.getClassroomById(classroomId);
-        return ResponseEntity.ok(classroom);
+        // The counts live in counter shards, so they are part of the version next to the document's update time,
+        // which every edit of the classroom moves.
+        String etag = ConditionalResponses.etag(classroom.getClassroomId(),
+                classroom.getUpdatedAt() != null ? classroom.getUpdatedAt().getTime() : null,
+                classroom.getStudentCount(), classroom.getActivityCount());
+        return ConditionalResponses.ok(classroom, etag, ifNoneMatch);
     }
 
     @PutMapping("/{classroomId}")
@@ -69,13 +81,14 @@ public class ClassroomController {
     @GetMapping("/my-teaching")
     @PreAuthorize("hasRole('ROLE_TEACHER')") // Only teachers can see the classrooms they teach
     public ResponseEntity<List<ClassroomDTO>> getMyTeachingClassrooms(
+            @RequestParam(required = false) Integer pageSize,
+            @RequestParam(required = false) String pageToken,
             Authentication authentication)
             throws ExecutionException, InterruptedException {
         User principal = (User) authentication.getPrincipal();
         String teacherId = principal.getUserId();
         logger.info("Teacher {} fetching their classrooms", teacherId);
-        List<ClassroomDTO> classrooms = classroomService.getClassroomsByTeacherId(teacherId);
-        return ResponseEntity.ok(classrooms);
+        return PageResponses.ok(classroomService.getClassroomsByTeacherId(teacherId, pageSize, pageToken));
     }
 
     @GetMapping("/my-enrolled")
@@ -151,6 +164,21 @@ public class ClassroomController {
         return ResponseEntity.ok(students);
     }
 
+    @GetMapping(value = "/{classroomId}/students", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ROLE_TEACHER') and @classroomService.isTeacherOwnerOfClassroom(authentication.principal.userId, #classroomId)")
+    public ResponseEntity<StreamingResponseBody> streamEnrolledStudents(
+            @PathVariable String classroomId,
+            Authentication authentication)
+            throws ExecutionException, InterruptedException {
+        User principal = (User) authentication.getPrincipal();
+        String teacherId = principal.getUserId();
+        logger.info("Teacher {} streaming students for classroom {}", teacherId, classroomId);
+        // Checked here, as once streaming starts the 200 is already sent.
+        classroomService.verifyTeacherCanViewStudents(classroomId, teacherId);
+        return NdjsonResponses.stream(objectMapper,
+                consumer -> classroomService.streamEnrolledStudents(classroomId, consumer));
+    }
+
     @PostMapping("/{classroomId}/games")
     // Only the teacher who owns the classroom can assign games.
     @PreAuthorize("hasRole('ROLE_TEACHER') and @classroomService.isTeacherOwnerOfClassroom(authentication.principal.userId, #classroomId)")
@@ -172,12 +200,20 @@ public class ClassroomController {
     @PreAuthorize("isAuthenticated() and (@classroomService.isTeacherOwnerOfClassroom(authentication.principal.userId, #classroomId) or @classroomService.isStudentEnrolled(authentication.principal.userId, #classroomId))")
     public ResponseEntity<List<AssignedGameDTO>> getAssignedGames(
             @PathVariable String classroomId,
+            @RequestParam(required = false) Integer pageSize,
+            @RequestParam(required = false) String pageToken,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             Authentication authentication)
             throws ExecutionException, InterruptedException {
         User principal = (User) authentication.getPrincipal();
         logger.info("User {} fetching assigned games for classroom: {}", principal.getUserId(), classroomId);
-        List<AssignedGameDTO> assignedGames = classroomService.getAssignedGamesForClassroom(classroomId);
-        return ResponseEntity.ok(assignedGames);
+        // Checked before the page is read, so an unchanged poll reads no assigned games.
+        String etag = ConditionalResponses.etag(classroomId, classroomService.getAssignedGamesVersion(classroomId),
+                pageSize, pageToken);
+        if (ConditionalResponses.matches(ifNoneMatch, etag)) {
+            return ConditionalResponses.notModified(etag).build();
+        }
+        return PageResponses.ok(classroomService.getAssignedGamesForClassroom(classroomId, pageSize, pageToken), etag);
     }
 
     @DeleteMapping("/{classroomId}/games/{assignedGameId}")
@@ -0,0 +1,132 @@
+package citu.jisaz.brightminds_backend.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Responses that carry an entity tag and answer a matching {@code If-None-Match} with 304 Not Modified. They are
+ * marked {@code private, no-cache}: the browser keeps a copy but revalidates it on every use, which also keeps
+ * Spring Security from adding its default {@code no-store}.
+ */
+final class ConditionalResponses {
+
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * Serves pre-rendered JSON, gzipped if the client accepts it. Each encoding has its own strong entity tag.
+     */
+    static ResponseEntity<byte[]> json(byte[] identity, String identityEtag, byte[] gzip, String gzipEtag,
+                                       String ifNoneMatch, String acceptEncoding) {
+        boolean gzipped = acceptsGzip(acceptEncoding);
+        String etag = gzipped ? gzipEtag : identityEtag;
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzipped) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzipped ? gzip : identity);
+    }
+
+    /**
+     * Serves {@code body} unless the client already holds the version tagged {@code etag}.
+     */
+    static <T> ResponseEntity<T> ok(T body, String etag, String ifNoneMatch) {
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body);
+    }
+
+    /**
+     * A strong entity tag for a representation identified by {@code versionParts}, such as an ID and the update
+     * times it was built from.
+     */
+    static String etag(Object... versionParts) {
+        StringBuilder version = new StringBuilder();
+        for (Object part : versionParts) {
+            version.append(part).append('\u0000');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(version.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static ResponseEntity.BodyBuilder notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE);
+    }
+
+    /**
+     * If-None-Match uses weak comparison, so a {@code W/} prefix on the client's tag is ignored.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            boolean acceptable = !isZeroQuality(parts);
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                return acceptable;
+            }
+            if (name.equals("*")) {
+                wildcard = acceptable;
+            }
+        }
+        return wildcard;
+    }
+
+    private static boolean isZeroQuality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim()) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -2,15 +2,16 @@ package citu.jisaz.brightminds_backend.controller;
 
 import citu.jisaz.brightminds_backend.dto.GameDTO;
 import citu.jisaz.brightminds_backend.service.GameService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 // No Authentication object needed in method signature if not directly used for userId and principal is not complexly evaluated by SpEL
 
-import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 @RestController
@@ -24,11 +25,16 @@ public class GameController {
     }
 
     // Library games can be viewed by any authenticated user (teacher or student).
+    // The list is served pre-rendered; it is only mapped, serialized and gzipped again when the catalog changes.
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<GameDTO>> getAllLibraryGames() throws ExecutionException, InterruptedException {
-        List<GameDTO> games = gameService.getAllLibraryGames();
-        return ResponseEntity.ok(games);
+    public ResponseEntity<byte[]> getAllLibraryGames(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding)
+            throws ExecutionException, InterruptedException {
+        GameService.RenderedGameCatalog games = gameService.getRenderedLibraryGames();
+        return ConditionalResponses.json(games.identity(), games.identityEtag(), games.gzip(), games.gzipEtag(),
+                ifNoneMatch, acceptEncoding);
     }
 
     @GetMapping("/{libraryGameId}")
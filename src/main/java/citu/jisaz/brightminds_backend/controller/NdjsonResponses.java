@@ -0,0 +1,55 @@
+package citu.jisaz.brightminds_backend.controller;
+
+import citu.jisaz.brightminds_backend.repository.DocumentConsumer;
+import citu.jisaz.brightminds_backend.repository.FirestoreUnitOfWork;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Opt-in newline-delimited JSON for large listings: each DTO is written to the response as soon as it is read,
+ * instead of the whole list being built and serialized at the end. The streaming variant of an endpoint is its own
+ * handler method mapped with {@code produces = application/x-ndjson}, declared to return
+ * {@code ResponseEntity<StreamingResponseBody>} so Spring streams it; only a client that names that type in its
+ * Accept header is routed there, everyone else keeps the JSON array.
+ * <p>
+ * The producer runs on an async thread after the 200 is sent, so it must only iterate: existence and access checks
+ * go before {@link #stream}, where their exceptions still become the usual error responses.
+ */
+final class NdjsonResponses {
+
+    @FunctionalInterface
+    interface Producer<T> {
+        void produce(DocumentConsumer<T> consumer) throws ExecutionException, InterruptedException;
+    }
+
+    private NdjsonResponses() {
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> stream(ObjectMapper objectMapper, Producer<T> producer) {
+        // The body runs on an async thread; its reads still belong to this request.
+        FirestoreUnitOfWork unitOfWork = FirestoreUnitOfWork.capture();
+        StreamingResponseBody body = outputStream -> {
+            try (FirestoreUnitOfWork.Scope ignored = unitOfWork.bind()) {
+                producer.produce(item -> {
+                    outputStream.write(objectMapper.writeValueAsBytes(item));
+                    outputStream.write('\n');
+                });
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException ioException) {
+                    throw ioException;
+                }
+                throw new IOException("Streaming response failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Streaming response interrupted");
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
@@ -0,0 +1,38 @@
+package citu.jisaz.brightminds_backend.controller;
+
+import citu.jisaz.brightminds_backend.repository.CursorPage;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Paged listings keep returning a JSON array; the token for the next page, if any, goes in a response header.
+ */
+final class PageResponses {
+
+    static final String NEXT_PAGE_TOKEN_HEADER = "X-Next-Page-Token";
+
+    private PageResponses() {
+    }
+
+    static <T> ResponseEntity<List<T>> ok(CursorPage<T> page) {
+        return withNextPageToken(ResponseEntity.ok(), page).body(page.items());
+    }
+
+    /**
+     * A page tagged with the version it was read at; see {@link ConditionalResponses}.
+     */
+    static <T> ResponseEntity<List<T>> ok(CursorPage<T> page, String etag) {
+        return withNextPageToken(ResponseEntity.ok(), page)
+                .eTag(etag)
+                .cacheControl(ConditionalResponses.REVALIDATE)
+                .body(page.items());
+    }
+
+    private static ResponseEntity.BodyBuilder withNextPageToken(ResponseEntity.BodyBuilder response, CursorPage<?> page) {
+        if (page.nextPageToken() != null) {
+            response.header(NEXT_PAGE_TOKEN_HEADER, page.nextPageToken());
+        }
+        return response;
+    }
+}
@@ -1,20 +1,25 @@
 package citu.jisaz.brightminds_backend.controller;
 
+import citu.jisaz.brightminds_backend.dto.BatchGameAttemptRequestDTO;
+import citu.jisaz.brightminds_backend.dto.BatchGameAttemptResponseDTO;
 import citu.jisaz.brightminds_backend.dto.StudentGameAttemptDTO;
 import citu.jisaz.brightminds_backend.dto.UserDTO;
 import citu.jisaz.brightminds_backend.exception.BadRequestException;
 import citu.jisaz.brightminds_backend.model.User;
 import citu.jisaz.brightminds_backend.service.ClassroomService;
 import citu.jisaz.brightminds_backend.service.StudentGameAttemptService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.slf4j.Logger; // Added Logger
 import org.slf4j.LoggerFactory; // Added Logger
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-// import org.springframework.security.access.AccessDeniedException; // Can be removed if @PreAuthorize handles all cases
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -26,9 +31,12 @@ public class StudentGameAttemptController {
     private static final Logger logger = LoggerFactory.getLogger(StudentGameAttemptController.class); // Added Logger
 
     private final StudentGameAttemptService studentGameAttemptService;
+    private final ObjectMapper objectMapper;
 
-    public StudentGameAttemptController(StudentGameAttemptService studentGameAttemptService, ClassroomService classroomService) {
+    public StudentGameAttemptController(StudentGameAttemptService studentGameAttemptService, ClassroomService classroomService,
+                                        ObjectMapper objectMapper) {
         this.studentGameAttemptService = studentGameAttemptService;
+        this.objectMapper = objectMapper;
     }
 
     // Endpoint: POST /api/v1/game-attempts
@@ -37,13 +45,31 @@ public class StudentGameAttemptController {
     @PreAuthorize("hasRole('ROLE_STUDENT') and #attemptDTO.studentId == authentication.principal.userId")
     public ResponseEntity<UserDTO> submitGameAttempt(
             @Valid @RequestBody StudentGameAttemptDTO attemptDTO,
+            // Sent again unchanged by a client retrying the same submission, which then isn't recorded twice.
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication) throws ExecutionException, InterruptedException {
         // User principal = (User) authentication.getPrincipal(); // For logging if needed
         // logger.info("Student {} submitting game attempt for assignedGameId: {}", principal.getUserId(), attemptDTO.getAssignedGameId());
-        UserDTO updatedStudent = studentGameAttemptService.processGameAttempt(attemptDTO);
+        UserDTO updatedStudent = studentGameAttemptService.processGameAttempt(attemptDTO, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(updatedStudent);
     }
 
+    // Endpoint: POST /api/v1/game-attempts/batch
+    // Syncs attempts played offline: each student's attempts are applied in one transaction, with a result per attempt.
+    @PostMapping("/game-attempts/batch")
+    @PreAuthorize("hasRole('ROLE_STUDENT')")
+    public ResponseEntity<BatchGameAttemptResponseDTO> submitGameAttemptBatch(
+            @Valid @RequestBody BatchGameAttemptRequestDTO batchRequest,
+            Authentication authentication) throws ExecutionException, InterruptedException {
+        User principal = (User) authentication.getPrincipal();
+        // As for single submissions, every attempt must be the authenticated student's own.
+        if (batchRequest.getAttempts().stream().anyMatch(attempt -> !principal.getUserId().equals(attempt.getStudentId()))) {
+            throw new AccessDeniedException("Attempts can only be submitted for the authenticated student.");
+        }
+        BatchGameAttemptResponseDTO response = studentGameAttemptService.processGameAttempts(batchRequest.getAttempts());
+        return ResponseEntity.ok(response);
+    }
+
     // Endpoint: GET /api/v1/game-attempts/my-attempts
     @GetMapping("/game-attempts/my-attempts")
     // Only a student can view their own attempts.
@@ -86,6 +112,8 @@ public class StudentGameAttemptController {
     public ResponseEntity<List<StudentGameAttemptDTO>> getAttemptsForAssignedGameInClassroom(
             @PathVariable String classroomId,
             @PathVariable String assignedGameId,
+            @RequestParam(required = false) Integer pageSize,
+            @RequestParam(required = false) String pageToken,
             Authentication authentication) throws ExecutionException, InterruptedException {
 
         User authenticatedTeacher = (User) authentication.getPrincipal();
@@ -98,7 +126,22 @@ public class StudentGameAttemptController {
         //             " or classroom does not exist.");
         // }
 
-        List<StudentGameAttemptDTO> attempts = studentGameAttemptService.getAttemptsByClassroomIdAndAssignedGameId(classroomId, assignedGameId);
-        return ResponseEntity.ok(attempts);
+        return PageResponses.ok(studentGameAttemptService.getAttemptsByClassroomIdAndAssignedGameId(
+                classroomId, assignedGameId, pageSize, pageToken));
+    }
+
+    // Streaming sends every attempt, so there is no paging. The @PreAuthorize ownership check also settles that the
+    // classroom exists, before anything is streamed.
+    @GetMapping(value = "/classrooms/{classroomId}/assigned-games/{assignedGameId}/attempts", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ROLE_TEACHER') and @classroomService.isTeacherOwnerOfClassroom(authentication.principal.userId, #classroomId)")
+    public ResponseEntity<StreamingResponseBody> streamAttemptsForAssignedGameInClassroom(
+            @PathVariable String classroomId,
+            @PathVariable String assignedGameId,
+            Authentication authentication) {
+        User authenticatedTeacher = (User) authentication.getPrincipal();
+        logger.info("Teacher {} streaming attempts for assignedGameId {} in classroom {}",
+                authenticatedTeacher.getUserId(), assignedGameId, classroomId);
+        return NdjsonResponses.stream(objectMapper,
+                consumer -> studentGameAttemptService.streamAttemptsByClassroomIdAndAssignedGameId(classroomId, assignedGameId, consumer));
     }
 }
\ No newline at end of file
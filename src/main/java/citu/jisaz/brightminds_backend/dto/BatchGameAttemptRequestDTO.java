@@ -0,0 +1,14 @@
+package citu.jisaz.brightminds_backend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BatchGameAttemptRequestDTO {
+    @NotEmpty(message = "At least one attempt is required")
+    @Size(max = 100, message = "At most 100 attempts can be submitted in one batch")
+    private List<@Valid StudentGameAttemptDTO> attempts;
+}
@@ -0,0 +1,14 @@
+package citu.jisaz.brightminds_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGameAttemptResponseDTO {
+    private List<GameAttemptResultDTO> results; // One per submitted attempt, in submission order
+    private List<UserDTO> students; // Each student's state after their attempts were applied
+}
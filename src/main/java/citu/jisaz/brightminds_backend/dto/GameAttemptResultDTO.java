@@ -0,0 +1,18 @@
+package citu.jisaz.brightminds_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameAttemptResultDTO {
+    public enum Status { RECORDED, DUPLICATE, REJECTED }
+
+    private int index; // Position of the attempt in the submitted batch
+    private Status status;
+    private String attemptId; // The recorded attempt, also for DUPLICATE
+    private Long xpEarned;
+    private String message; // Why the attempt was REJECTED
+}
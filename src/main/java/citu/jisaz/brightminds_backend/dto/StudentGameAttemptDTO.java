@@ -21,6 +21,8 @@ public class StudentGameAttemptDTO {
     @Min(value = 1, message = "Total points possible must be at least 1")
     private Integer totalPointsPossible;
     // private Integer timeTakenSeconds; // Optional: if the game provides this
+    // Per-attempt idempotency key for batch submissions; single submissions use the Idempotency-Key header.
+    private String idempotencyKey;
     private String attemptId;
     private String libraryGameId;
     private Long xpEarned;
@@ -0,0 +1,22 @@
+package citu.jisaz.brightminds_backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The student's leveling state right after a keyed attempt was recorded, stored on the attempt so a retry of the
+ * submission is answered with the same result.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttemptSubmissionResult {
+
+    private Integer level;
+    private Long currentXp;
+    private Long xpToNextLevel;
+    private Boolean leveledUp;
+}
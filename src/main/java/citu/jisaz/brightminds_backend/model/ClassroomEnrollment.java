@@ -0,0 +1,29 @@
+package citu.jisaz.brightminds_backend.model;
+
+import com.google.cloud.firestore.annotation.DocumentId;
+import com.google.cloud.firestore.annotation.ServerTimestamp;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * A student's enrollment record at classrooms/{classroomId}/enrolledStudents/{studentId}, written in the same
+ * transaction that adds the classroom to the student's studentOfClassrooms.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClassroomEnrollment {
+
+    @DocumentId
+    private String studentId; // Document ID
+    private String studentName;
+    private String studentEmail;
+
+    @ServerTimestamp
+    private Date dateEnrolled;
+}
@@ -0,0 +1,33 @@
+package citu.jisaz.brightminds_backend.model;
+
+import com.google.cloud.firestore.annotation.DocumentId;
+import com.google.cloud.firestore.annotation.ServerTimestamp;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Running totals of one student's attempts at one assigned game, kept at
+ * users/{studentId}/attemptSummaries/{assignedGameId} and updated in the same transaction that records each attempt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StudentAttemptSummary {
+
+    @DocumentId
+    private String assignedGameId; // Document ID, the assigned game the attempts are for
+    private String studentId;
+    private String classroomId;
+    private Integer attemptCount;
+    private Integer bestScore; // Null until an attempt with a score is recorded
+    private Long totalXpEarned;
+    private String lastAttemptId;
+
+    @ServerTimestamp
+    private Date updatedAt;
+}
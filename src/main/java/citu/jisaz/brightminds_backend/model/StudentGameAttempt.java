@@ -25,6 +25,8 @@ public class StudentGameAttempt {
     private Integer totalPointsPossible;
     private Long xpEarned;
     private String status; // e.g., "COMPLETED", "IN_PROGRESS"
+    private String idempotencyKey; // Client Idempotency-Key of the submission that recorded this attempt, if any
+    private AttemptSubmissionResult submissionResult; // Result of that submission, returned again for its retries
     // private Integer timeTakenSeconds; // Example: if external game provides this
 
     @ServerTimestamp
@@ -0,0 +1,14 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import citu.jisaz.brightminds_backend.model.AssignedGame;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncAssignedGameRepository {
+    CompletableFuture<AssignedGame> saveAsync(String classroomId, AssignedGame assignedGame);
+    CompletableFuture<Optional<AssignedGame>> findByIdAsync(String classroomId, String assignedGameId);
+    CompletableFuture<CursorPage<AssignedGame>> findPageByClassroomIdAsync(String classroomId, int pageSize, String pageToken);
+    CompletableFuture<Optional<Date>> findLatestDateAssignedAsync(String classroomId);
+    CompletableFuture<Void> deleteByIdAsync(String classroomId, String assignedGameId);
+}
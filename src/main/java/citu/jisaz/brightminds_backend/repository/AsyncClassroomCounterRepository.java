@@ -0,0 +1,7 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncClassroomCounterRepository {
+    CompletableFuture<ClassroomCounts> sumShardsAsync(String classroomId);
+}
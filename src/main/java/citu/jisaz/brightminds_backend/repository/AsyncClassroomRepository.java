@@ -0,0 +1,18 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import citu.jisaz.brightminds_backend.model.Classroom;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncClassroomRepository {
+    CompletableFuture<Classroom> saveAsync(Classroom classroom);
+    CompletableFuture<Optional<Classroom>> findByIdAsync(String classroomId);
+    CompletableFuture<Optional<Classroom>> findFieldsByIdAsync(String classroomId, String... fieldPaths);
+    CompletableFuture<List<Classroom>> findAllByIdAsync(Collection<String> classroomIds);
+    CompletableFuture<CursorPage<Classroom>> findPageByTeacherIdAsync(String teacherId, int pageSize, String pageToken);
+    CompletableFuture<Optional<Classroom>> findByUniqueCodeAsync(String uniqueCode);
+    CompletableFuture<List<String>> findEnrolledStudentIdsAsync(String classroomId);
+    CompletableFuture<Void> deleteByIdAsync(String classroomId);
+}
@@ -0,0 +1,11 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import citu.jisaz.brightminds_backend.model.Game;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncGameRepository {
+    CompletableFuture<Optional<Game>> findByIdAsync(String libraryGameId);
+    CompletableFuture<List<Game>> findAllAsync();
+}
@@ -0,0 +1,14 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import citu.jisaz.brightminds_backend.model.StudentGameAttempt;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncStudentGameAttemptRepository {
+    CompletableFuture<StudentGameAttempt> saveAsync(StudentGameAttempt attempt);
+    CompletableFuture<Optional<StudentGameAttempt>> findByIdAsync(String attemptId);
+    CompletableFuture<List<StudentGameAttempt>> findAllByStudentIdAndClassroomIdAsync(String studentId, String classroomId);
+    CompletableFuture<List<StudentGameAttempt>> findAllByStudentIdAndAssignedGameIdAsync(String studentId, String assignedGameId);
+    CompletableFuture<CursorPage<StudentGameAttempt>> findPageByClassroomIdAndAssignedGameIdAsync(String classroomId, String assignedGameId, int pageSize, String pageToken);
+}
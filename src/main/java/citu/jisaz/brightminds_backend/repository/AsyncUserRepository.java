@@ -0,0 +1,15 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import citu.jisaz.brightminds_backend.model.User;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncUserRepository {
+    CompletableFuture<User> saveAsync(User user);
+    CompletableFuture<Optional<User>> findByIdAsync(String userId);
+    CompletableFuture<Optional<User>> findFieldsByIdAsync(String userId, String... fieldPaths);
+    CompletableFuture<List<User>> findAllByIdAsync(Collection<String> userIds);
+    CompletableFuture<Optional<User>> findByEmailAsync(String email);
+}
@@ -0,0 +1,12 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import java.util.concurrent.ExecutionException;
+
+public interface ClassroomCounterRepository {
+    // Shard documents live at classrooms/{classroomId}/counterShards/{shardIndex}.
+    String SHARDS_SUBCOLLECTION = "counterShards";
+    String STUDENT_COUNT_FIELD = "studentCount";
+    String ACTIVITY_COUNT_FIELD = "activityCount";
+
+    ClassroomCounts sumShards(String classroomId) throws ExecutionException, InterruptedException;
+}
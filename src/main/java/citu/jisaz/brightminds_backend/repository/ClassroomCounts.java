@@ -0,0 +1,9 @@
+package citu.jisaz.brightminds_backend.repository;
+
+/**
+ * The sums of a classroom's counter shards.
+ */
+public record ClassroomCounts(long studentCount, long activityCount) {
+
+    public static final ClassroomCounts ZERO = new ClassroomCounts(0, 0);
+}
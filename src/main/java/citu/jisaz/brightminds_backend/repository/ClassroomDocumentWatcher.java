@@ -0,0 +1,20 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import citu.jisaz.brightminds_backend.model.Classroom;
+import com.google.cloud.firestore.ListenerRegistration;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Follows one classroom document as it changes. Only the Firestore backend has one; the in-memory backend is a
+ * single instance whose writes all go through the application.
+ */
+public interface ClassroomDocumentWatcher {
+
+    /**
+     * Calls {@code onChange} with the current classroom, then again after every change; empty once it is deleted.
+     * If the listener fails, {@code onError} is called and nothing after it.
+     */
+    ListenerRegistration watch(String classroomId, Consumer<Optional<Classroom>> onChange, Consumer<Throwable> onError);
+}
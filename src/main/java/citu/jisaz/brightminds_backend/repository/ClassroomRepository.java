@@ -1,6 +1,7 @@
 package citu.jisaz.brightminds_backend.repository;
 
 import citu.jisaz.brightminds_backend.model.Classroom;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
@@ -8,7 +9,13 @@ import java.util.concurrent.ExecutionException;
 public interface ClassroomRepository {
     Classroom save(Classroom classroom) throws ExecutionException, InterruptedException;
     Optional<Classroom> findById(String classroomId) throws ExecutionException, InterruptedException;
-    List<Classroom> findAllByTeacherId(String teacherId) throws ExecutionException, InterruptedException;
+    // Only the named fields (and classroomId) are populated; for checks that don't need the whole document.
+    Optional<Classroom> findFieldsById(String classroomId, String... fieldPaths) throws ExecutionException, InterruptedException;
+    List<Classroom> findAllById(Collection<String> classroomIds) throws ExecutionException, InterruptedException;
+    CursorPage<Classroom> findPageByTeacherId(String teacherId, int pageSize, String pageToken) throws ExecutionException, InterruptedException;
     Optional<Classroom> findByUniqueCode(String uniqueCode) throws ExecutionException, InterruptedException;
+    List<String> findEnrolledStudentIds(String classroomId) throws ExecutionException, InterruptedException;
+    // Hands each ID to the consumer as it is read, without collecting them; returns once all have been handed over.
+    void streamEnrolledStudentIds(String classroomId, DocumentConsumer<String> consumer) throws ExecutionException, InterruptedException;
     void deleteById(String classroomId) throws ExecutionException, InterruptedException;
 }
\ No newline at end of file
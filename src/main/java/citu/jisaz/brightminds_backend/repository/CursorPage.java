@@ -0,0 +1,16 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * @param nextPageToken opaque token for the page after this one, or null if this is the last page
+ */
+public record CursorPage<T>(List<T> items, String nextPageToken) {
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(items.stream().<R>map(mapper).toList(), nextPageToken);
+    }
+}
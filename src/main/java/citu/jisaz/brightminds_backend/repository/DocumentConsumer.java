@@ -0,0 +1,29 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Receives the documents of a streamed read one at a time. Unlike {@link java.util.function.Consumer} it may throw,
+ * for instance when writing each document on to a response fails; the stream then stops and the exception is
+ * rethrown, wrapped in an {@link ExecutionException} if it is a checked one.
+ */
+@FunctionalInterface
+public interface DocumentConsumer<T> {
+    void accept(T document) throws Exception;
+
+    /**
+     * Hands documents that are already loaded to {@code consumer}, failing the same way a stream does.
+     */
+    static <T> void acceptAll(Iterable<? extends T> documents, DocumentConsumer<? super T> consumer)
+            throws ExecutionException, InterruptedException {
+        try {
+            for (T document : documents) {
+                consumer.accept(document);
+            }
+        } catch (ExecutionException | InterruptedException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ExecutionException(e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package citu.jisaz.brightminds_backend.repository;
+
+/**
+ * Builds slash-separated document and collection paths, e.g. {@code of("classrooms", id, "assignedGames")}.
+ */
+public final class DocumentPaths {
+
+    private DocumentPaths() {
+    }
+
+    public static String of(String... segments) {
+        return String.join("/", segments);
+    }
+}
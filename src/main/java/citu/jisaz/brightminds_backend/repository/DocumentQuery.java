@@ -0,0 +1,56 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An equality-filter query over one collection, as used inside a {@link DocumentTransaction}. Instances are
+ * immutable; each builder call returns a new query.
+ */
+public final class DocumentQuery {
+
+    private final String collectionPath;
+    private final Map<String, Object> equalityFilters;
+    private final int limit;
+
+    private DocumentQuery(String collectionPath, Map<String, Object> equalityFilters, int limit) {
+        this.collectionPath = collectionPath;
+        this.equalityFilters = equalityFilters;
+        this.limit = limit;
+    }
+
+    public static DocumentQuery collection(String collectionPath) {
+        return new DocumentQuery(collectionPath, Collections.emptyMap(), 0);
+    }
+
+    public DocumentQuery whereEqualTo(String field, Object value) {
+        Map<String, Object> filters = new LinkedHashMap<>(equalityFilters);
+        filters.put(field, value);
+        return new DocumentQuery(collectionPath, Collections.unmodifiableMap(filters), limit);
+    }
+
+    public DocumentQuery limit(int limit) {
+        return new DocumentQuery(collectionPath, equalityFilters, limit);
+    }
+
+    public String getCollectionPath() {
+        return collectionPath;
+    }
+
+    public Map<String, Object> getEqualityFilters() {
+        return equalityFilters;
+    }
+
+    /**
+     * The maximum number of documents to return, or 0 for no limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return collectionPath + equalityFilters + (limit > 0 ? " limit " + limit : "");
+    }
+}
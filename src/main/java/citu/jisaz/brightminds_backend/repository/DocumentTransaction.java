@@ -0,0 +1,26 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The operations a service may perform inside {@link TransactionRunner#run(TransactionRunner.Callback)}. As with
+ * Firestore transactions, all reads must happen before the first write.
+ */
+public interface DocumentTransaction {
+    <T> Optional<T> get(String documentPath, Class<T> type) throws ExecutionException, InterruptedException;
+    <T> List<T> query(DocumentQuery query, Class<T> type) throws ExecutionException, InterruptedException;
+    void set(String documentPath, Object data);
+    /**
+     * Writes only the fields named in {@code update}. The document must exist when the transaction commits.
+     */
+    void update(String documentPath, DocumentUpdate update);
+    /**
+     * Adds {@code delta} to a numeric field without reading the document, creating the document or field if needed.
+     * Increments of the same document by concurrent transactions are applied one after the other rather than making
+     * either transaction retry.
+     */
+    void increment(String documentPath, String field, long delta);
+    void delete(String documentPath);
+}
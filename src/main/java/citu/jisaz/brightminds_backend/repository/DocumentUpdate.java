@@ -0,0 +1,72 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Changes to individual fields of one document, as written by {@link DocumentTransaction#update(String, DocumentUpdate)}.
+ * Fields not named are left as stored, and increments and array changes are applied to the stored value by the
+ * server, so they need no read of the document. Instances are immutable; each builder call returns a new update.
+ */
+public final class DocumentUpdate {
+
+    public enum Operation { SET, INCREMENT, ARRAY_UNION, ARRAY_REMOVE, SERVER_TIMESTAMP }
+
+    /**
+     * One field change. {@code value} is the new value for SET, the Long delta for INCREMENT, the List of elements
+     * for ARRAY_UNION and ARRAY_REMOVE, and null for SERVER_TIMESTAMP.
+     */
+    public record FieldUpdate(String field, Operation operation, Object value) {}
+
+    private static final DocumentUpdate EMPTY = new DocumentUpdate(Collections.emptyList());
+
+    private final List<FieldUpdate> fieldUpdates;
+
+    private DocumentUpdate(List<FieldUpdate> fieldUpdates) {
+        this.fieldUpdates = fieldUpdates;
+    }
+
+    public static DocumentUpdate fields() {
+        return EMPTY;
+    }
+
+    public DocumentUpdate set(String field, Object value) {
+        return with(field, Operation.SET, value);
+    }
+
+    public DocumentUpdate increment(String field, long delta) {
+        return with(field, Operation.INCREMENT, delta);
+    }
+
+    public DocumentUpdate arrayUnion(String field, Object... elements) {
+        return with(field, Operation.ARRAY_UNION, List.of(elements));
+    }
+
+    public DocumentUpdate arrayRemove(String field, Object... elements) {
+        return with(field, Operation.ARRAY_REMOVE, List.of(elements));
+    }
+
+    public DocumentUpdate serverTimestamp(String field) {
+        return with(field, Operation.SERVER_TIMESTAMP, null);
+    }
+
+    private DocumentUpdate with(String field, Operation operation, Object value) {
+        List<FieldUpdate> updates = new ArrayList<>(fieldUpdates);
+        updates.add(new FieldUpdate(field, operation, value));
+        return new DocumentUpdate(Collections.unmodifiableList(updates));
+    }
+
+    public List<FieldUpdate> getFieldUpdates() {
+        return fieldUpdates;
+    }
+
+    public boolean isEmpty() {
+        return fieldUpdates.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return fieldUpdates.toString();
+    }
+}
@@ -1,30 +1,28 @@
 package citu.jisaz.brightminds_backend.repository;
 
 import citu.jisaz.brightminds_backend.model.AssignedGame;
-import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.CollectionReference;
 import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.Query;
-import com.google.cloud.firestore.QueryDocumentSnapshot;
-import com.google.cloud.firestore.QuerySnapshot;
-import com.google.cloud.firestore.WriteResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
+import java.util.Date;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
 
 @Repository("firestoreAssignedGameRepository")
-public class FirestoreAssignedGameRepositoryImpl implements AssignedGameRepository {
+@Profile("!in-memory")
+public class FirestoreAssignedGameRepositoryImpl implements AssignedGameRepository, AsyncAssignedGameRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(FirestoreAssignedGameRepositoryImpl.class);
     private static final String PARENT_COLLECTION_NAME = "classrooms";
     private static final String SUBCOLLECTION_NAME = "assignedGames";
+    private static final String DATE_ASSIGNED_FIELD = "dateAssigned";
     private final Firestore db;
 
     public FirestoreAssignedGameRepositoryImpl(Firestore db) {
@@ -37,6 +35,32 @@ public class FirestoreAssignedGameRepositoryImpl implements AssignedGameReposito
 
     @Override
     public AssignedGame save(String classroomId, AssignedGame assignedGame) throws ExecutionException, InterruptedException {
+        return saveAsync(classroomId, assignedGame).get();
+    }
+
+    @Override
+    public Optional<AssignedGame> findById(String classroomId, String assignedGameId) throws ExecutionException, InterruptedException {
+        return findByIdAsync(classroomId, assignedGameId).get();
+    }
+
+    @Override
+    public CursorPage<AssignedGame> findPageByClassroomId(String classroomId, int pageSize, String pageToken) throws ExecutionException, InterruptedException {
+        return findPageByClassroomIdAsync(classroomId, pageSize, pageToken).get();
+    }
+
+    @Override
+    public Optional<Date> findLatestDateAssigned(String classroomId) throws ExecutionException, InterruptedException {
+        return findLatestDateAssignedAsync(classroomId).get();
+    }
+
+    @Override
+    public void deleteById(String classroomId, String assignedGameId) throws ExecutionException, InterruptedException {
+        deleteByIdAsync(classroomId, assignedGameId).get();
+    }
+
+    @Override
+    public CompletableFuture<AssignedGame> saveAsync(String classroomId, AssignedGame assignedGame) {
+        FirestoreUnitOfWork unitOfWork = FirestoreUnitOfWork.capture();
         CollectionReference assignedGamesCollection = getAssignedGamesCollection(classroomId);
 
         if (assignedGame.getAssignedGameId() == null || assignedGame.getAssignedGameId().isEmpty()) {
@@ -48,56 +72,49 @@ public class FirestoreAssignedGameRepositoryImpl implements AssignedGameReposito
         }
 
         DocumentReference assignedGameDocRef = assignedGamesCollection.document(assignedGame.getAssignedGameId());
-        DocumentSnapshot currentSnapshot = assignedGameDocRef.get().get();
-
-        if (!currentSnapshot.exists()) {
-            assignedGame.setDateAssigned(null);
-        } else {
-            AssignedGame existingAssignment = currentSnapshot.toObject(AssignedGame.class);
-            if (existingAssignment != null && existingAssignment.getDateAssigned() != null) {
-                assignedGame.setDateAssigned(existingAssignment.getDateAssigned());
-            } else if (existingAssignment == null){
-                logger.error("Existing assigned game {}/{} could not be mapped. Proceeding with potential new dateAssigned.", classroomId, assignedGame.getAssignedGameId());
-                assignedGame.setDateAssigned(null);
+        return FirestoreSaves.save(assignedGameDocRef, assignedGame, DATE_ASSIGNED_FIELD, null).thenApply(result -> {
+            if (result.creationTimestampWritten()) {
+                assignedGame.setDateAssigned(result.updateTime().toDate());
             }
-        }
-
-        ApiFuture<WriteResult> writeFuture = assignedGameDocRef.set(assignedGame);
-        WriteResult writeResult = writeFuture.get();
+            unitOfWork.written(assignedGameDocRef, assignedGame);
+            unitOfWork.countWrites(1);
+            return assignedGame;
+        });
+    }
 
-        if (assignedGame.getDateAssigned() == null) {
-            assignedGame.setDateAssigned(writeResult.getUpdateTime().toDate());
-        }
-        return assignedGame;
+    @Override
+    public CompletableFuture<Optional<AssignedGame>> findByIdAsync(String classroomId, String assignedGameId) {
+        return FirestoreUnitOfWork.getAsync(getAssignedGamesCollection(classroomId).document(assignedGameId), AssignedGame.class);
     }
 
     @Override
-    public Optional<AssignedGame> findById(String classroomId, String assignedGameId) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = getAssignedGamesCollection(classroomId).document(assignedGameId);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot document = future.get();
-        if (document.exists()) {
-            return Optional.ofNullable(document.toObject(AssignedGame.class));
-        }
-        return Optional.empty();
+    public CompletableFuture<CursorPage<AssignedGame>> findPageByClassroomIdAsync(String classroomId, int pageSize, String pageToken) {
+        // Newest first, as before; the document ID tie-break keeps games assigned in the same instant in a stable order.
+        return FirestorePages.byTimestamp(getAssignedGamesCollection(classroomId), DATE_ASSIGNED_FIELD, Query.Direction.DESCENDING,
+                pageSize, pageToken, AssignedGame.class);
     }
 
     @Override
-    public List<AssignedGame> findAllByClassroomId(String classroomId) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> future = getAssignedGamesCollection(classroomId)
-                .orderBy("dateAssigned", Query.Direction.DESCENDING) // Query.Direction.DESCENDING
-                .get();
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-        return documents.stream()
-                .map(doc -> doc.toObject(AssignedGame.class))
-                .collect(Collectors.toList());
+    public CompletableFuture<Optional<Date>> findLatestDateAssignedAsync(String classroomId) {
+        // One document, and only its dateAssigned field.
+        Query latest = getAssignedGamesCollection(classroomId)
+                .orderBy(DATE_ASSIGNED_FIELD, Query.Direction.DESCENDING)
+                .limit(1)
+                .select(DATE_ASSIGNED_FIELD);
+        return FirestoreUnitOfWork.queryFieldsAsync(latest).thenApply(querySnapshot -> querySnapshot.isEmpty()
+                ? Optional.empty()
+                : Optional.ofNullable(querySnapshot.getDocuments().get(0).getDate(DATE_ASSIGNED_FIELD)));
     }
 
     @Override
-    public void deleteById(String classroomId, String assignedGameId) throws ExecutionException, InterruptedException {
+    public CompletableFuture<Void> deleteByIdAsync(String classroomId, String assignedGameId) {
         logger.info("Attempting to delete assigned game {} from classroom {}", assignedGameId, classroomId);
-        ApiFuture<WriteResult> writeResult = getAssignedGamesCollection(classroomId).document(assignedGameId).delete();
-        writeResult.get();
-        logger.info("Successfully deleted assigned game {} from classroom {}", assignedGameId, classroomId);
+        FirestoreUnitOfWork unitOfWork = FirestoreUnitOfWork.capture();
+        DocumentReference docRef = getAssignedGamesCollection(classroomId).document(assignedGameId);
+        return FirestoreFutures.toCompletableFuture(docRef.delete()).thenAccept(writeResult -> {
+            unitOfWork.deleted(docRef);
+            unitOfWork.countWrites(1);
+            logger.info("Successfully deleted assigned game {} from classroom {}", assignedGameId, classroomId);
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,43 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import com.google.cloud.firestore.AggregateField;
+import com.google.cloud.firestore.AggregateQuerySnapshot;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.Firestore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+@Repository
+@Profile("!in-memory")
+public class FirestoreClassroomCounterRepositoryImpl implements ClassroomCounterRepository, AsyncClassroomCounterRepository {
+
+    private static final String PARENT_COLLECTION_NAME = "classrooms";
+    private static final AggregateField STUDENT_COUNT_SUM = AggregateField.sum(STUDENT_COUNT_FIELD);
+    private static final AggregateField ACTIVITY_COUNT_SUM = AggregateField.sum(ACTIVITY_COUNT_FIELD);
+    private final CollectionReference classroomsCollection;
+
+    public FirestoreClassroomCounterRepositoryImpl(Firestore db) {
+        this.classroomsCollection = db.collection(PARENT_COLLECTION_NAME);
+    }
+
+    @Override
+    public ClassroomCounts sumShards(String classroomId) throws ExecutionException, InterruptedException {
+        return sumShardsAsync(classroomId).get();
+    }
+
+    @Override
+    public CompletableFuture<ClassroomCounts> sumShardsAsync(String classroomId) {
+        // Summed server-side in one aggregation rather than by reading every shard.
+        return FirestoreUnitOfWork.aggregateAsync(classroomsCollection.document(classroomId).collection(SHARDS_SUBCOLLECTION)
+                        .aggregate(STUDENT_COUNT_SUM, ACTIVITY_COUNT_SUM))
+                .thenApply(snapshot -> new ClassroomCounts(sum(snapshot, STUDENT_COUNT_SUM), sum(snapshot, ACTIVITY_COUNT_SUM)));
+    }
+
+    private static long sum(AggregateQuerySnapshot snapshot, AggregateField field) {
+        Long value = snapshot.getLong(field);
+        return value != null ? value : 0L;
+    }
+}
@@ -0,0 +1,38 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import citu.jisaz.brightminds_backend.model.Classroom;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * A snapshot listener per watched classroom. Firestore bills one read for the first snapshot and one per change.
+ */
+@Component
+@Profile("!in-memory")
+public class FirestoreClassroomDocumentWatcher implements ClassroomDocumentWatcher {
+
+    private static final String COLLECTION_NAME = "classrooms";
+
+    private final CollectionReference classroomsCollection;
+
+    public FirestoreClassroomDocumentWatcher(Firestore db) {
+        this.classroomsCollection = db.collection(COLLECTION_NAME);
+    }
+
+    @Override
+    public ListenerRegistration watch(String classroomId, Consumer<Optional<Classroom>> onChange, Consumer<Throwable> onError) {
+        return classroomsCollection.document(classroomId).addSnapshotListener((snapshot, error) -> {
+            if (error != null) {
+                onError.accept(error);
+                return;
+            }
+            onChange.accept(snapshot.exists() ? Optional.ofNullable(snapshot.toObject(Classroom.class)) : Optional.empty());
+        });
+    }
+}
@@ -0,0 +1,161 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import citu.jisaz.brightminds_backend.model.Game;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory copy of the {@code libraryGames} collection, kept current by a Firestore snapshot listener. Each
+ * snapshot replaces the whole catalog at once, so a reader sees one consistent version of it, and lookups make no
+ * RPC and bill no reads. Games are mapped from the held snapshot on every lookup, so callers get their own copy.
+ * <p>
+ * Startup waits up to {@code app.game-catalog.initial-load-timeout} for the first snapshot; until it arrives
+ * {@link #isLoaded()} is false and {@link FirestoreGameRepositoryImpl} reads Firestore instead. If the listener
+ * fails, the last snapshot keeps being served and the listener is registered again after
+ * {@code app.game-catalog.relisten-delay}.
+ * <p>
+ * {@code brightminds.game.catalog.staleness} is 0 while the listener is receiving updates and otherwise the seconds
+ * since the snapshot being served was read. Every replacement publishes a {@link GameCatalogChangedEvent}.
+ */
+@Component
+@Profile("!in-memory")
+public class FirestoreGameCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirestoreGameCatalog.class);
+    private static final String COLLECTION_NAME = "libraryGames";
+
+    private record Catalog(Map<String, QueryDocumentSnapshot> games, Timestamp readTime) {}
+
+    private final CollectionReference gamesCollection;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration relistenDelay;
+    private final ScheduledExecutorService relistenExecutor;
+    private final AtomicReference<Catalog> catalog = new AtomicReference<>();
+    private final CountDownLatch firstSnapshot = new CountDownLatch(1);
+    private final Counter updates;
+    private volatile ListenerRegistration registration;
+    private volatile boolean listening;
+
+    public FirestoreGameCatalog(Firestore db,
+                                MeterRegistry meterRegistry,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${app.game-catalog.initial-load-timeout:10s}") Duration initialLoadTimeout,
+                                @Value("${app.game-catalog.relisten-delay:30s}") Duration relistenDelay)
+            throws InterruptedException {
+        this.gamesCollection = db.collection(COLLECTION_NAME);
+        this.eventPublisher = eventPublisher;
+        this.relistenDelay = relistenDelay;
+        this.relistenExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-catalog-relisten");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.updates = Counter.builder("brightminds.game.catalog.updates")
+                .description("Snapshots of the library game catalog received from the listener")
+                .register(meterRegistry);
+        Gauge.builder("brightminds.game.catalog.staleness", this, FirestoreGameCatalog::stalenessSeconds)
+                .description("Seconds the served library game catalog may be behind Firestore; 0 while listening")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("brightminds.game.catalog.games", this, c -> c.isLoaded() ? c.catalog.get().games().size() : Double.NaN)
+                .description("Library games held in the catalog")
+                .register(meterRegistry);
+
+        listen();
+        if (!firstSnapshot.await(initialLoadTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            logger.warn("No library game snapshot within {}; reading games from Firestore until it arrives.", initialLoadTimeout);
+        }
+    }
+
+    public boolean isLoaded() {
+        return catalog.get() != null;
+    }
+
+    /**
+     * Only valid once {@link #isLoaded()}.
+     */
+    public Optional<Game> findById(String libraryGameId) {
+        return Optional.ofNullable(catalog.get().games().get(libraryGameId)).map(snapshot -> snapshot.toObject(Game.class));
+    }
+
+    /**
+     * Only valid once {@link #isLoaded()}.
+     */
+    public List<Game> findAll() {
+        return catalog.get().games().values().stream().map(snapshot -> snapshot.toObject(Game.class)).toList();
+    }
+
+    private void listen() {
+        registration = gamesCollection.addSnapshotListener(this::onSnapshot);
+    }
+
+    void onSnapshot(QuerySnapshot snapshot, FirestoreException error) {
+        if (error != null) {
+            listening = false;
+            logger.error("Library game listener failed; serving the last catalog and listening again in {}.", relistenDelay, error);
+            registration.remove();
+            if (!relistenExecutor.isShutdown()) {
+                relistenExecutor.schedule(this::listen, relistenDelay.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
+        Map<String, QueryDocumentSnapshot> games = new LinkedHashMap<>();
+        for (QueryDocumentSnapshot document : snapshot.getDocuments()) {
+            games.put(document.getId(), document);
+        }
+        catalog.set(new Catalog(Collections.unmodifiableMap(games), snapshot.getReadTime()));
+        listening = true;
+        updates.increment();
+        firstSnapshot.countDown();
+        logger.info("Library game catalog updated: {} games as of {}.", games.size(), snapshot.getReadTime());
+        eventPublisher.publishEvent(new GameCatalogChangedEvent(games.size()));
+    }
+
+    double stalenessSeconds() {
+        Catalog current = catalog.get();
+        if (current == null) {
+            return Double.NaN;
+        }
+        if (listening) {
+            return 0;
+        }
+        long ageMillis = System.currentTimeMillis() - current.readTime().toDate().getTime();
+        return Math.max(0, ageMillis) / 1000.0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relistenExecutor.shutdownNow();
+        ListenerRegistration current = registration;
+        if (current != null) {
+            current.remove();
+        }
+    }
+}
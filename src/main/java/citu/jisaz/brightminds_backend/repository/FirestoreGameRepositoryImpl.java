@@ -1,58 +1,76 @@
 package citu.jisaz.brightminds_backend.repository;
 
 import citu.jisaz.brightminds_backend.model.Game;
-import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.CollectionReference;
-import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QueryDocumentSnapshot;
-import com.google.cloud.firestore.QuerySnapshot;
 // Import WriteResult if you implement save/delete
 // import com.google.cloud.firestore.WriteResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
+/**
+ * Library games are served from {@link FirestoreGameCatalog} once it has loaded, without a Firestore read; before
+ * that, from Firestore.
+ */
 @Repository // This annotation is crucial for Spring to detect it as a bean
-public class FirestoreGameRepositoryImpl implements GameRepository {
+@Profile("!in-memory")
+public class FirestoreGameRepositoryImpl implements GameRepository, AsyncGameRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(FirestoreGameRepositoryImpl.class);
     private static final String COLLECTION_NAME = "libraryGames"; // Or whatever your collection is named
     private final CollectionReference gamesCollection;
+    private final FirestoreGameCatalog catalog;
 
-    public FirestoreGameRepositoryImpl(Firestore db) {
+    public FirestoreGameRepositoryImpl(Firestore db, FirestoreGameCatalog catalog) {
         this.gamesCollection = db.collection(COLLECTION_NAME);
+        this.catalog = catalog;
     }
 
     @Override
     public Optional<Game> findById(String libraryGameId) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = gamesCollection.document(libraryGameId);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot document = future.get();
-        if (document.exists()) {
-            Game game = document.toObject(Game.class);
-            logger.debug("Found game by ID {}: {}", libraryGameId, game);
-            return Optional.ofNullable(game);
-        }
-        logger.debug("No game found with ID: {}", libraryGameId);
-        return Optional.empty();
+        return findByIdAsync(libraryGameId).get();
     }
 
     @Override
     public List<Game> findAll() throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> future = gamesCollection.get();
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-        List<Game> games = documents.stream()
-                .map(doc -> doc.toObject(Game.class))
-                .collect(Collectors.toList());
-        logger.debug("Found {} games in the library.", games.size());
-        return games;
+        return findAllAsync().get();
+    }
+
+    @Override
+    public CompletableFuture<Optional<Game>> findByIdAsync(String libraryGameId) {
+        if (catalog.isLoaded()) {
+            return CompletableFuture.completedFuture(catalog.findById(libraryGameId));
+        }
+        return FirestoreUnitOfWork.getAsync(gamesCollection.document(libraryGameId), Game.class).thenApply(game -> {
+            if (game.isPresent()) {
+                logger.debug("Found game by ID {}: {}", libraryGameId, game.get());
+            } else {
+                logger.debug("No game found with ID: {}", libraryGameId);
+            }
+            return game;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Game>> findAllAsync() {
+        if (catalog.isLoaded()) {
+            return CompletableFuture.completedFuture(catalog.findAll());
+        }
+        return FirestoreUnitOfWork.queryAsync(gamesCollection).thenApply(querySnapshot -> {
+            List<Game> games = querySnapshot.getDocuments().stream()
+                    .map(doc -> doc.toObject(Game.class))
+                    .collect(Collectors.toList());
+            logger.debug("Found {} games in the library.", games.size());
+            return games;
+        });
     }
 
     // Optional: Implement save and delete if needed later
@@ -0,0 +1,136 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Firestore meters, recorded by the repository and transaction decorators of
+ * {@link RepositoryMetricsPostProcessor} and, for whole requests, by {@code FirestoreUnitOfWorkFilter}:
+ * <ul>
+ *     <li>{@code brightminds.firestore.calls}: latency of each repository method, tagged repository, method,
+ *     endpoint, outcome and exception.</li>
+ *     <li>{@code brightminds.firestore.documents}: documents looked up and written through the repositories, tagged
+ *     repository, method, endpoint and operation, including lookups the request identity map answers without a
+ *     Firestore read; transactions are recorded as repository TransactionRunner, method run.</li>
+ *     <li>{@code brightminds.firestore.transactions}: latency of each transaction including its retries, tagged
+ *     endpoint, outcome and exception.</li>
+ *     <li>{@code brightminds.firestore.transactions.retries}: transaction attempts after the first, tagged endpoint.</li>
+ *     <li>{@code brightminds.firestore.request.documents}: documents each HTTP request read from and wrote to
+ *     Firestore, as billed, tagged endpoint and operation.</li>
+ * </ul>
+ * The endpoint is the HTTP method and route pattern of the request that made the call, {@code UNKNOWN} before the
+ * request is mapped to a controller (the authentication filter's lookups) and {@code none} outside a request.
+ * Exceptions are tagged with the simple class name of the failure cause.
+ */
+@Component
+public class FirestoreMetrics {
+
+    static final String CALLS = "brightminds.firestore.calls";
+    static final String DOCUMENTS = "brightminds.firestore.documents";
+    static final String TRANSACTIONS = "brightminds.firestore.transactions";
+    static final String TRANSACTION_RETRIES = "brightminds.firestore.transactions.retries";
+    static final String REQUEST_DOCUMENTS = "brightminds.firestore.request.documents";
+
+    static final String TRANSACTION_REPOSITORY = "TransactionRunner";
+    static final String TRANSACTION_METHOD = "run";
+
+    private final MeterRegistry meterRegistry;
+
+    public FirestoreMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return "none";
+        }
+        return endpoint(servletAttributes.getRequest());
+    }
+
+    public static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+    }
+
+    void recordCall(String repository, String method, String endpoint, long elapsedNanos, Throwable failure) {
+        Timer.builder(CALLS)
+                .description("Latency of Firestore repository calls")
+                .tags(Tags.of("repository", repository, "method", method, "endpoint", endpoint))
+                .tags(outcomeTags(failure))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordDocuments(String repository, String method, String endpoint, String operation, long documents) {
+        if (documents <= 0) {
+            return;
+        }
+        Counter.builder(DOCUMENTS)
+                .description("Documents looked up and written through Firestore repositories, identity map hits included")
+                .tags("repository", repository, "method", method, "endpoint", endpoint, "operation", operation)
+                .register(meterRegistry)
+                .increment(documents);
+    }
+
+    void recordTransaction(String endpoint, long elapsedNanos, int attempts, long reads, long writes, Throwable failure) {
+        Timer.builder(TRANSACTIONS)
+                .description("Latency of Firestore transactions, retries included")
+                .tags(Tags.of("endpoint", endpoint))
+                .tags(outcomeTags(failure))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (attempts > 1) {
+            Counter.builder(TRANSACTION_RETRIES)
+                    .description("Firestore transaction attempts after the first")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry)
+                    .increment(attempts - 1);
+        }
+        recordDocuments(TRANSACTION_REPOSITORY, TRANSACTION_METHOD, endpoint, "read", reads);
+        recordDocuments(TRANSACTION_REPOSITORY, TRANSACTION_METHOD, endpoint, "write", writes);
+    }
+
+    /**
+     * Records the documents one HTTP request read and wrote, as counted by its {@link FirestoreUnitOfWork}.
+     */
+    public void recordRequest(String endpoint, int reads, int writes) {
+        requestDocuments(endpoint, "read").record(reads);
+        requestDocuments(endpoint, "write").record(writes);
+    }
+
+    private DistributionSummary requestDocuments(String endpoint, String operation) {
+        return DistributionSummary.builder(REQUEST_DOCUMENTS)
+                .description("Firestore documents read and written per HTTP request")
+                .baseUnit("documents")
+                .tags("endpoint", endpoint, "operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Tags outcomeTags(Throwable failure) {
+        if (failure == null) {
+            return Tags.of("outcome", "SUCCESS", "exception", "none");
+        }
+        Throwable cause = failure;
+        while ((cause instanceof ExecutionException || cause instanceof CompletionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return Tags.of("outcome", "FAILURE", "exception", cause.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,68 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import citu.jisaz.brightminds_backend.exception.BadRequestException;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination over Firestore queries. Results are ordered by an optional timestamp field and then by document
+ * ID, so the order is total and a page resumes with {@code startAfter} at the last document of the previous one,
+ * without re-reading or skipping the documents before it. One extra document is fetched to tell whether another
+ * page follows.
+ */
+final class FirestorePages {
+
+    private FirestorePages() {
+    }
+
+    /**
+     * Pages {@code query} in document ID order.
+     */
+    static <T> CompletableFuture<CursorPage<T>> byDocumentId(Query query, int pageSize, String pageToken, Class<T> type) {
+        Query ordered = query.orderBy(FieldPath.documentId());
+        List<String> cursor = PageTokens.decode(pageToken, 1);
+        if (cursor != null) {
+            ordered = ordered.startAfter(cursor.getFirst());
+        }
+        return fetch(ordered, pageSize, type, document -> PageTokens.encode(document.getId()));
+    }
+
+    /**
+     * Pages {@code query} by {@code timestampField}, ties broken by document ID, both in {@code direction}.
+     * Documents without the field are not returned. The cursor keeps the stored timestamp at full precision rather
+     * than the millisecond {@code Date} of the model, so no document is skipped at a page boundary.
+     */
+    static <T> CompletableFuture<CursorPage<T>> byTimestamp(Query query, String timestampField, Query.Direction direction,
+                                                            int pageSize, String pageToken, Class<T> type) {
+        Query ordered = query.orderBy(timestampField, direction).orderBy(FieldPath.documentId(), direction);
+        List<String> cursor = PageTokens.decode(pageToken, 2);
+        if (cursor != null) {
+            Timestamp after;
+            try {
+                after = Timestamp.parseTimestamp(cursor.get(0));
+            } catch (RuntimeException e) {
+                throw new BadRequestException("Invalid page token.", e);
+            }
+            ordered = ordered.startAfter(after, cursor.get(1));
+        }
+        return fetch(ordered, pageSize, type,
+                document -> PageTokens.encode(document.getTimestamp(timestampField).toString(), document.getId()));
+    }
+
+    private static <T> CompletableFuture<CursorPage<T>> fetch(Query ordered, int pageSize, Class<T> type,
+                                                              Function<QueryDocumentSnapshot, String> tokenOf) {
+        return FirestoreUnitOfWork.queryAsync(ordered.limit(pageSize + 1)).thenApply(querySnapshot -> {
+            List<QueryDocumentSnapshot> documents = querySnapshot.getDocuments();
+            boolean hasMore = documents.size() > pageSize;
+            List<QueryDocumentSnapshot> page = hasMore ? documents.subList(0, pageSize) : documents;
+            List<T> items = page.stream().map(document -> document.toObject(type)).toList();
+            return new CursorPage<>(items, hasMore ? tokenOf.apply(page.getLast()) : null);
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteResult;
+import com.google.cloud.firestore.encoding.CustomClassMapper;
+import io.grpc.Status;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Saves a model in a single write RPC while keeping its creation timestamp, instead of reading the stored document
+ * first to copy the timestamp over.
+ * <ul>
+ *     <li>A model that carries its creation timestamp (it was read from Firestore) is written with a plain
+ *     {@code set}.</li>
+ *     <li>A model without one is written with {@code create}, so the server stamps the creation field. Only if the
+ *     document turns out to exist already is it written again with a merge that leaves the stored creation field
+ *     alone.</li>
+ * </ul>
+ * Server timestamps in a write resolve to its commit time, so callers fill them from {@link Result#updateTime()}.
+ */
+final class FirestoreSaves {
+
+    /**
+     * @param creationTimestampWritten whether the write stamped the creation field with {@code updateTime}. False
+     *                                 after the merge fallback, where the stored value is not known.
+     */
+    record Result(Timestamp updateTime, boolean creationTimestampWritten) {}
+
+    private FirestoreSaves() {
+    }
+
+    /**
+     * @param creationField the {@code @ServerTimestamp} field set once when the document is created
+     * @param updateField   a field stamped with the server time on every save, or null
+     */
+    static CompletableFuture<Result> save(DocumentReference docRef, Object model, String creationField, String updateField) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = new LinkedHashMap<>((Map<String, Object>) CustomClassMapper.serialize(model));
+        if (updateField != null) {
+            data.put(updateField, FieldValue.serverTimestamp());
+        }
+        if (!(data.get(creationField) instanceof FieldValue)) {
+            return FirestoreFutures.toCompletableFuture(docRef.set(data))
+                    .thenApply(writeResult -> new Result(writeResult.getUpdateTime(), false));
+        }
+        return FirestoreFutures.toCompletableFuture(docRef.create(data))
+                .thenApply(writeResult -> new Result(writeResult.getUpdateTime(), true))
+                .exceptionallyCompose(failure -> {
+                    if (!isAlreadyExists(failure)) {
+                        return CompletableFuture.failedFuture(failure);
+                    }
+                    data.remove(creationField);
+                    CompletableFuture<WriteResult> merged = FirestoreFutures.toCompletableFuture(docRef.set(data, SetOptions.merge()));
+                    return merged.thenApply(writeResult -> new Result(writeResult.getUpdateTime(), false));
+                });
+    }
+
+    private static boolean isAlreadyExists(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CompletionException) {
+                continue;
+            }
+            if (cause instanceof FirestoreException firestoreException && firestoreException.getStatus() != null
+                    && firestoreException.getStatus().getCode() == Status.Code.ALREADY_EXISTS) {
+                return true;
+            }
+            if (cause instanceof ApiException apiException
+                    && apiException.getStatusCode().getCode() == StatusCode.Code.ALREADY_EXISTS) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
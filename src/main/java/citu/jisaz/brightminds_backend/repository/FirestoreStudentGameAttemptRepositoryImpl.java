@@ -1,23 +1,22 @@
 package citu.jisaz.brightminds_backend.repository;
 
 import citu.jisaz.brightminds_backend.model.StudentGameAttempt;
-import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.CollectionReference;
 import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.Query;
-import com.google.cloud.firestore.QuerySnapshot;
-import com.google.cloud.firestore.WriteResult;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 @Repository
-public class FirestoreStudentGameAttemptRepositoryImpl implements StudentGameAttemptRepository {
+@Profile("!in-memory")
+public class FirestoreStudentGameAttemptRepositoryImpl implements StudentGameAttemptRepository, AsyncStudentGameAttemptRepository {
 
     private final CollectionReference attemptsCollection;
     private static final String COLLECTION_NAME = "studentGameAttempts";
@@ -28,62 +27,87 @@ public class FirestoreStudentGameAttemptRepositoryImpl implements StudentGameAtt
 
     @Override
     public StudentGameAttempt save(StudentGameAttempt attempt) throws ExecutionException, InterruptedException {
+        return saveAsync(attempt).get();
+    }
+
+    @Override
+    public Optional<StudentGameAttempt> findById(String attemptId) throws ExecutionException, InterruptedException {
+        return findByIdAsync(attemptId).get();
+    }
+
+    @Override
+    public List<StudentGameAttempt> findAllByStudentIdAndClassroomId(String studentId, String classroomId) throws ExecutionException, InterruptedException {
+        return findAllByStudentIdAndClassroomIdAsync(studentId, classroomId).get();
+    }
+
+    @Override
+    public List<StudentGameAttempt> findAllByStudentIdAndAssignedGameId(String studentId, String assignedGameId) throws ExecutionException, InterruptedException {
+        return findAllByStudentIdAndAssignedGameIdAsync(studentId, assignedGameId).get();
+    }
+
+    @Override
+    public void streamAllByClassroomIdAndAssignedGameId(String classroomId, String assignedGameId, DocumentConsumer<StudentGameAttempt> consumer) throws ExecutionException, InterruptedException {
+        Query query = attemptsCollection
+                .whereEqualTo("classroomId", classroomId)
+                .whereEqualTo("assignedGameId", assignedGameId);
+        FirestoreUnitOfWork.stream(query, StudentGameAttempt.class, consumer);
+    }
+
+    @Override
+    public CursorPage<StudentGameAttempt> findPageByClassroomIdAndAssignedGameId(String classroomId, String assignedGameId, int pageSize, String pageToken) throws ExecutionException, InterruptedException {
+        return findPageByClassroomIdAndAssignedGameIdAsync(classroomId, assignedGameId, pageSize, pageToken).get();
+    }
+
+    @Override
+    public CompletableFuture<StudentGameAttempt> saveAsync(StudentGameAttempt attempt) {
+        FirestoreUnitOfWork unitOfWork = FirestoreUnitOfWork.capture();
+        DocumentReference docRef;
         if (attempt.getAttemptId() == null || attempt.getAttemptId().isEmpty()) {
-            DocumentReference docRef = attemptsCollection.document();
+            docRef = attemptsCollection.document();
             attempt.setAttemptId(docRef.getId());
-            ApiFuture<WriteResult> future = docRef.set(attempt);
-            future.get();
         } else {
-            ApiFuture<WriteResult> future = attemptsCollection.document(attempt.getAttemptId()).set(attempt);
-            future.get();
+            docRef = attemptsCollection.document(attempt.getAttemptId());
         }
-        return attempt;
+        return FirestoreFutures.toCompletableFuture(docRef.set(attempt)).thenApply(writeResult -> {
+            unitOfWork.written(docRef, attempt);
+            unitOfWork.countWrites(1);
+            return attempt;
+        });
     }
 
     @Override
-    public Optional<StudentGameAttempt> findById(String attemptId) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = attemptsCollection.document(attemptId);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot document = future.get();
-        if (document.exists()) {
-            return Optional.ofNullable(document.toObject(StudentGameAttempt.class));
-        }
-        return Optional.empty();
+    public CompletableFuture<Optional<StudentGameAttempt>> findByIdAsync(String attemptId) {
+        return FirestoreUnitOfWork.getAsync(attemptsCollection.document(attemptId), StudentGameAttempt.class);
     }
 
     @Override
-    public List<StudentGameAttempt> findAllByStudentIdAndClassroomId(String studentId, String classroomId) throws ExecutionException, InterruptedException {
+    public CompletableFuture<List<StudentGameAttempt>> findAllByStudentIdAndClassroomIdAsync(String studentId, String classroomId) {
         Query query = attemptsCollection
                 .whereEqualTo("studentId", studentId)
                 .whereEqualTo("classroomId", classroomId);
-        ApiFuture<QuerySnapshot> querySnapshot = query.get();
-        return querySnapshot.get().getDocuments().stream()
-                .map(doc -> doc.toObject(StudentGameAttempt.class))
-                .collect(Collectors.toList());
+        return findAll(query);
     }
 
     @Override
-    public List<StudentGameAttempt> findAllByStudentIdAndAssignedGameId(String studentId, String assignedGameId) throws ExecutionException, InterruptedException {
+    public CompletableFuture<List<StudentGameAttempt>> findAllByStudentIdAndAssignedGameIdAsync(String studentId, String assignedGameId) {
         Query query = attemptsCollection
                 .whereEqualTo("studentId", studentId)
                 .whereEqualTo("assignedGameId", assignedGameId);
-        ApiFuture<QuerySnapshot> querySnapshot = query.get();
-        return querySnapshot.get().getDocuments().stream()
-                .map(doc -> doc.toObject(StudentGameAttempt.class))
-                .collect(Collectors.toList());
+        return findAll(query);
     }
 
-    // Implementation of the new method
     @Override
-    public List<StudentGameAttempt> findAllByClassroomIdAndAssignedGameId(String classroomId, String assignedGameId) throws ExecutionException, InterruptedException {
+    public CompletableFuture<CursorPage<StudentGameAttempt>> findPageByClassroomIdAndAssignedGameIdAsync(String classroomId, String assignedGameId, int pageSize, String pageToken) {
+        // Document ID order needs no composite index next to the two equality filters.
         Query query = attemptsCollection
                 .whereEqualTo("classroomId", classroomId)
                 .whereEqualTo("assignedGameId", assignedGameId);
-        // Add ordering if needed, e.g., by completion date
-        // query = query.orderBy("completedAt", Query.Direction.DESCENDING);
-        ApiFuture<QuerySnapshot> querySnapshot = query.get();
-        return querySnapshot.get().getDocuments().stream()
+        return FirestorePages.byDocumentId(query, pageSize, pageToken, StudentGameAttempt.class);
+    }
+
+    private CompletableFuture<List<StudentGameAttempt>> findAll(Query query) {
+        return FirestoreUnitOfWork.queryAsync(query).thenApply(querySnapshot -> querySnapshot.getDocuments().stream()
                 .map(doc -> doc.toObject(StudentGameAttempt.class))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.Transaction;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+@Component
+@Profile("!in-memory")
+public class FirestoreTransactionRunner implements TransactionRunner {
+
+    private final Firestore db;
+
+    public FirestoreTransactionRunner(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public <T> T run(Callback<T> callback) throws ExecutionException, InterruptedException {
+        return db.runTransaction(transaction -> callback.apply(new FirestoreDocumentTransaction(db, transaction))).get();
+    }
+
+    @Override
+    public String newDocumentId(String collectionPath) {
+        return db.collection(collectionPath).document().getId();
+    }
+
+    private record FirestoreDocumentTransaction(Firestore db, Transaction transaction) implements DocumentTransaction {
+
+        @Override
+        public <T> Optional<T> get(String documentPath, Class<T> type) throws ExecutionException, InterruptedException {
+            DocumentSnapshot snapshot = transaction.get(db.document(documentPath)).get();
+            return snapshot.exists() ? Optional.ofNullable(snapshot.toObject(type)) : Optional.empty();
+        }
+
+        @Override
+        public <T> List<T> query(DocumentQuery query, Class<T> type) throws ExecutionException, InterruptedException {
+            Query firestoreQuery = db.collection(query.getCollectionPath());
+            for (Map.Entry<String, Object> filter : query.getEqualityFilters().entrySet()) {
+                firestoreQuery = firestoreQuery.whereEqualTo(filter.getKey(), filter.getValue());
+            }
+            if (query.getLimit() > 0) {
+                firestoreQuery = firestoreQuery.limit(query.getLimit());
+            }
+            return transaction.get(firestoreQuery).get().getDocuments().stream()
+                    .map(document -> document.toObject(type))
+                    .toList();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void set(String documentPath, Object data) {
+            if (data instanceof Map<?, ?> fields) {
+                transaction.set(db.document(documentPath), (Map<String, Object>) fields);
+            } else {
+                transaction.set(db.document(documentPath), data);
+            }
+        }
+
+        @Override
+        public void update(String documentPath, DocumentUpdate update) {
+            transaction.update(db.document(documentPath), toFirestoreFields(update));
+        }
+
+        @Override
+        public void increment(String documentPath, String field, long delta) {
+            transaction.set(db.document(documentPath), Map.of(field, FieldValue.increment(delta)), SetOptions.merge());
+        }
+
+        @Override
+        public void delete(String documentPath) {
+            transaction.delete(db.document(documentPath));
+        }
+
+        private static Map<String, Object> toFirestoreFields(DocumentUpdate update) {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            for (DocumentUpdate.FieldUpdate fieldUpdate : update.getFieldUpdates()) {
+                fields.put(fieldUpdate.field(), switch (fieldUpdate.operation()) {
+                    case SET -> fieldUpdate.value();
+                    case INCREMENT -> FieldValue.increment((Long) fieldUpdate.value());
+                    case ARRAY_UNION -> FieldValue.arrayUnion(((List<?>) fieldUpdate.value()).toArray());
+                    case ARRAY_REMOVE -> FieldValue.arrayRemove(((List<?>) fieldUpdate.value()).toArray());
+                    case SERVER_TIMESTAMP -> FieldValue.serverTimestamp();
+                });
+            }
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.rpc.ApiStreamObserver;
+import com.google.cloud.firestore.AggregateQuery;
+import com.google.cloud.firestore.AggregateQuerySnapshot;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.encoding.CustomClassMapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Request-scoped identity map of Firestore documents, keyed by document path. The {@code Firestore*RepositoryImpl}
+ * classes read through it, so a document is fetched at most once per request, and record their writes in it so
+ * later reads in the same request see them. Outside a unit of work (no request bound to the thread) every call
+ * goes straight to Firestore.
+ * <p>
+ * Documents are held as Firestore field maps and mapped to a fresh model object on every lookup, so callers
+ * mutating what they got back never change what the next caller sees.
+ * <p>
+ * The async methods bind to the unit of work of the calling thread when they are invoked; their completion
+ * callbacks run on Firestore client threads and update that unit directly.
+ * <p>
+ * It also counts the documents the request reads and writes, as Firestore bills them. Reads made here are counted
+ * as they happen; repository writes, transactions and the in-memory backend report theirs with
+ * {@link #countReads(int)} and {@link #countWrites(int)}.
+ */
+public final class FirestoreUnitOfWork implements AutoCloseable {
+
+    private static final ThreadLocal<FirestoreUnitOfWork> CURRENT = new ThreadLocal<>();
+    private static final FirestoreUnitOfWork DETACHED = new FirestoreUnitOfWork(false);
+    private static final int GET_ALL_CHUNK_SIZE = 100;
+    private static final int STREAM_BUFFER_SIZE = 64;
+
+    // A null data map records that the document does not exist.
+    private record Entry(Map<String, Object> data) {}
+
+    private final boolean attached;
+    private final Map<String, Entry> documents = new ConcurrentHashMap<>();
+    private final AtomicInteger documentReads = new AtomicInteger();
+    private final AtomicInteger documentWrites = new AtomicInteger();
+    private final AtomicInteger identityMapHits = new AtomicInteger();
+
+    private FirestoreUnitOfWork(boolean attached) {
+        this.attached = attached;
+    }
+
+    public static FirestoreUnitOfWork begin() {
+        FirestoreUnitOfWork unitOfWork = new FirestoreUnitOfWork(true);
+        CURRENT.set(unitOfWork);
+        return unitOfWork;
+    }
+
+    public static FirestoreUnitOfWork current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * The unit of work bound to the calling thread, or a stand-in that records nothing. Capture it before handing
+     * work to another thread so completions can still be recorded against the request.
+     */
+    public static FirestoreUnitOfWork capture() {
+        FirestoreUnitOfWork unitOfWork = CURRENT.get();
+        return unitOfWork != null ? unitOfWork : DETACHED;
+    }
+
+    /**
+     * Binds this unit of work to the calling thread until the returned scope is closed, for request work that runs
+     * synchronously on another thread, such as a streamed response body. Binding the stand-in does nothing.
+     */
+    public Scope bind() {
+        if (!attached) {
+            return () -> {};
+        }
+        FirestoreUnitOfWork previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    public int getDocumentReads() {
+        return documentReads.get();
+    }
+
+    public int getDocumentWrites() {
+        return documentWrites.get();
+    }
+
+    public int getIdentityMapHits() {
+        return identityMapHits.get();
+    }
+
+    public void countReads(int documents) {
+        if (attached) {
+            documentReads.addAndGet(documents);
+        }
+    }
+
+    public void countWrites(int documents) {
+        if (attached) {
+            documentWrites.addAndGet(documents);
+        }
+    }
+
+    /**
+     * Reads a single document, from the current unit of work when it has already been read or written in it.
+     */
+    public static <T> Optional<T> get(DocumentReference docRef, Class<T> type) throws ExecutionException, InterruptedException {
+        return getAsync(docRef, type).get();
+    }
+
+    public static <T> CompletableFuture<Optional<T>> getAsync(DocumentReference docRef, Class<T> type) {
+        FirestoreUnitOfWork unitOfWork = capture();
+        Entry entry = unitOfWork.lookup(docRef);
+        if (entry != null) {
+            return CompletableFuture.completedFuture(
+                    Optional.ofNullable(entry.data()).map(data -> CustomClassMapper.convertToCustomClass(data, type, docRef)));
+        }
+        return FirestoreFutures.toCompletableFuture(docRef.get()).thenApply(snapshot -> {
+            unitOfWork.read(snapshot);
+            return snapshot.exists() ? Optional.ofNullable(snapshot.toObject(type)) : Optional.empty();
+        });
+    }
+
+    /**
+     * Reads only {@code fieldPaths} of a document, using a Firestore field mask. A document already in the current
+     * unit of work is served from it in full; a masked read is counted but not added, since it is incomplete.
+     */
+    public static <T> Optional<T> getFields(DocumentReference docRef, Class<T> type, String... fieldPaths)
+            throws ExecutionException, InterruptedException {
+        return getFieldsAsync(docRef, type, fieldPaths).get();
+    }
+
+    public static <T> CompletableFuture<Optional<T>> getFieldsAsync(DocumentReference docRef, Class<T> type, String... fieldPaths) {
+        FirestoreUnitOfWork unitOfWork = capture();
+        Entry entry = unitOfWork.lookup(docRef);
+        if (entry != null) {
+            return CompletableFuture.completedFuture(
+                    Optional.ofNullable(entry.data()).map(data -> CustomClassMapper.convertToCustomClass(data, type, docRef)));
+        }
+        return FirestoreFutures.toCompletableFuture(docRef.get(FieldMask.of(fieldPaths))).thenApply(snapshot -> {
+            unitOfWork.readNotKept();
+            return snapshot.exists() ? Optional.ofNullable(snapshot.toObject(type)) : Optional.empty();
+        });
+    }
+
+    /**
+     * Reads several documents, skipping the ones already in the current unit of work. The rest are fetched with
+     * {@link Firestore#getAll(DocumentReference...)} in chunks of {@value #GET_ALL_CHUNK_SIZE}, all sent at once.
+     * Returns the existing documents in the order of {@code docRefs}.
+     */
+    public static <T> List<T> getAll(Firestore db, Collection<DocumentReference> docRefs, Class<T> type)
+            throws ExecutionException, InterruptedException {
+        return getAllAsync(db, docRefs, type).get();
+    }
+
+    public static <T> CompletableFuture<List<T>> getAllAsync(Firestore db, Collection<DocumentReference> docRefs, Class<T> type) {
+        FirestoreUnitOfWork unitOfWork = capture();
+        Map<String, DocumentReference> refsByPath = new LinkedHashMap<>();
+        Map<String, Map<String, Object>> dataByPath = new ConcurrentHashMap<>();
+        List<DocumentReference> toFetch = new ArrayList<>();
+        for (DocumentReference docRef : docRefs) {
+            if (refsByPath.putIfAbsent(docRef.getPath(), docRef) != null) {
+                continue;
+            }
+            Entry entry = unitOfWork.lookup(docRef);
+            if (entry == null) {
+                toFetch.add(docRef);
+            } else if (entry.data() != null) {
+                dataByPath.put(docRef.getPath(), entry.data());
+            }
+        }
+
+        List<ApiFuture<List<DocumentSnapshot>>> chunks = new ArrayList<>();
+        for (int from = 0; from < toFetch.size(); from += GET_ALL_CHUNK_SIZE) {
+            List<DocumentReference> chunk = toFetch.subList(from, Math.min(from + GET_ALL_CHUNK_SIZE, toFetch.size()));
+            chunks.add(db.getAll(chunk.toArray(new DocumentReference[0])));
+        }
+        return FirestoreFutures.toCompletableFuture(ApiFutures.allAsList(chunks)).thenApply(results -> {
+            for (List<DocumentSnapshot> snapshots : results) {
+                for (DocumentSnapshot snapshot : snapshots) {
+                    unitOfWork.read(snapshot);
+                    if (snapshot.exists()) {
+                        dataByPath.put(snapshot.getReference().getPath(), snapshot.getData());
+                    }
+                }
+            }
+            List<T> found = new ArrayList<>();
+            for (DocumentReference docRef : refsByPath.values()) {
+                Map<String, Object> data = dataByPath.get(docRef.getPath());
+                if (data != null) {
+                    found.add(CustomClassMapper.convertToCustomClass(data, type, docRef));
+                }
+            }
+            return found;
+        });
+    }
+
+    /**
+     * Runs a query against Firestore and adds every returned document to the current unit of work.
+     */
+    public static QuerySnapshot query(Query query) throws ExecutionException, InterruptedException {
+        return queryAsync(query).get();
+    }
+
+    public static CompletableFuture<QuerySnapshot> queryAsync(Query query) {
+        FirestoreUnitOfWork unitOfWork = capture();
+        return FirestoreFutures.toCompletableFuture(query.get()).thenApply(querySnapshot -> {
+            unitOfWork.queried(querySnapshot);
+            return querySnapshot;
+        });
+    }
+
+    /**
+     * Runs a query that selects only some fields. The partial documents are counted as reads but not added to the
+     * identity map, where they would stand in for the whole documents.
+     */
+    public static CompletableFuture<QuerySnapshot> queryFieldsAsync(Query query) {
+        FirestoreUnitOfWork unitOfWork = capture();
+        return FirestoreFutures.toCompletableFuture(query.get()).thenApply(querySnapshot -> {
+            // Firestore bills a query that matches nothing as one read.
+            unitOfWork.streamed(Math.max(1, querySnapshot.size()));
+            return querySnapshot;
+        });
+    }
+
+    /**
+     * Runs an aggregation query. Firestore bills it as one read per batch of up to 1000 index entries it scans,
+     * so it is counted as one read here; nothing is added to the identity map.
+     */
+    public static CompletableFuture<AggregateQuerySnapshot> aggregateAsync(AggregateQuery query) {
+        FirestoreUnitOfWork unitOfWork = capture();
+        return FirestoreFutures.toCompletableFuture(query.get()).thenApply(snapshot -> {
+            unitOfWork.readNotKept();
+            return snapshot;
+        });
+    }
+
+    /**
+     * Streams the results of a query to {@code consumer} on the calling thread, one document at a time, as Firestore
+     * sends them. At most {@value #STREAM_BUFFER_SIZE} documents are held waiting for the consumer; beyond that the
+     * stream is held back. Documents are counted as reads but not added to the current unit of work, which would
+     * keep the whole result in memory. Returns when the stream ends; a failure of the query or of the consumer stops
+     * it and is rethrown.
+     */
+    public static <T> void stream(Query query, Class<T> type, DocumentConsumer<? super T> consumer)
+            throws ExecutionException, InterruptedException {
+        stream(query, snapshot -> snapshot.toObject(type), consumer);
+    }
+
+    public static <T> void stream(Query query, Function<DocumentSnapshot, T> mapper, DocumentConsumer<? super T> consumer)
+            throws ExecutionException, InterruptedException {
+        FirestoreUnitOfWork unitOfWork = capture();
+        QueryStream stream = new QueryStream();
+        query.stream(stream);
+        int streamed = 0;
+        try {
+            for (DocumentSnapshot snapshot = stream.take(); snapshot != null; snapshot = stream.take()) {
+                streamed++;
+                consumer.accept(mapper.apply(snapshot));
+            }
+        } catch (ExecutionException | InterruptedException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ExecutionException(e);
+        } finally {
+            stream.abandon();
+            // Firestore bills a query that matches nothing as one read.
+            unitOfWork.streamed(Math.max(1, streamed));
+        }
+    }
+
+    /**
+     * Records a snapshot fetched outside {@link #get(DocumentReference, Class)}.
+     */
+    public static void recordRead(DocumentSnapshot snapshot) {
+        capture().read(snapshot);
+    }
+
+    /**
+     * Records a committed write of {@code model} to the document at {@code documentPath} in the current unit of work.
+     */
+    public static void recordWrite(String documentPath, Object model) {
+        capture().written(documentPath, model);
+    }
+
+    public static void recordDelete(String documentPath) {
+        capture().deleted(documentPath);
+    }
+
+    /**
+     * Drops documents written by a transaction, so the next read in this request goes back to Firestore.
+     */
+    public static void evict(String... documentPaths) {
+        FirestoreUnitOfWork unitOfWork = capture();
+        for (String documentPath : documentPaths) {
+            unitOfWork.remove(documentPath);
+        }
+    }
+
+    public void read(DocumentSnapshot snapshot) {
+        if (attached) {
+            documentReads.incrementAndGet();
+            documents.put(snapshot.getReference().getPath(), new Entry(snapshot.exists() ? snapshot.getData() : null));
+        }
+    }
+
+    public void written(DocumentReference docRef, Object model) {
+        written(docRef.getPath(), model);
+    }
+
+    /**
+     * If the model still carries a server-assigned value (a null {@code @ServerTimestamp} field), the stored state
+     * is unknown and the document is evicted instead.
+     */
+    public void written(String documentPath, Object model) {
+        if (!attached) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) CustomClassMapper.serialize(model);
+        if (data.values().stream().anyMatch(FieldValue.class::isInstance)) {
+            documents.remove(documentPath);
+        } else {
+            documents.put(documentPath, new Entry(data));
+        }
+    }
+
+    public void deleted(DocumentReference docRef) {
+        deleted(docRef.getPath());
+    }
+
+    public void deleted(String documentPath) {
+        if (attached) {
+            documents.put(documentPath, new Entry(null));
+        }
+    }
+
+    private void readNotKept() {
+        if (attached) {
+            documentReads.incrementAndGet();
+        }
+    }
+
+    private void streamed(int count) {
+        if (attached) {
+            documentReads.addAndGet(count);
+        }
+    }
+
+    private void queried(QuerySnapshot querySnapshot) {
+        if (!attached) {
+            return;
+        }
+        // Firestore bills a query that matches nothing as one read.
+        documentReads.addAndGet(Math.max(1, querySnapshot.size()));
+        for (QueryDocumentSnapshot document : querySnapshot.getDocuments()) {
+            documents.put(document.getReference().getPath(), new Entry(document.getData()));
+        }
+    }
+
+    private void remove(String documentPath) {
+        if (attached) {
+            documents.remove(documentPath);
+        }
+    }
+
+    private Entry lookup(DocumentReference docRef) {
+        if (!attached) {
+            return null;
+        }
+        Entry entry = documents.get(docRef.getPath());
+        if (entry != null) {
+            identityMapHits.incrementAndGet();
+        }
+        return entry;
+    }
+
+    /**
+     * Hands documents from the Firestore client threads to the thread running {@link #stream}. Once that thread
+     * stops consuming, remaining documents are dropped instead of blocking the client thread.
+     */
+    private static final class QueryStream implements ApiStreamObserver<DocumentSnapshot> {
+
+        private static final Object END = new Object();
+
+        private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(STREAM_BUFFER_SIZE);
+        private volatile boolean abandoned;
+
+        @Override
+        public void onNext(DocumentSnapshot snapshot) {
+            put(snapshot);
+        }
+
+        @Override
+        public void onError(Throwable failure) {
+            put(failure);
+        }
+
+        @Override
+        public void onCompleted() {
+            put(END);
+        }
+
+        private void put(Object item) {
+            try {
+                while (!abandoned) {
+                    if (buffer.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * The next document, or null once the stream has ended.
+         */
+        DocumentSnapshot take() throws ExecutionException, InterruptedException {
+            Object item = buffer.take();
+            if (item == END) {
+                return null;
+            }
+            if (item instanceof Throwable failure) {
+                throw new ExecutionException(failure);
+            }
+            return (DocumentSnapshot) item;
+        }
+
+        void abandon() {
+            abandoned = true;
+            buffer.clear();
+        }
+    }
+}
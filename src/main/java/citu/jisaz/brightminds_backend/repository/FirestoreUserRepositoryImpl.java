@@ -1,24 +1,25 @@
 package citu.jisaz.brightminds_backend.repository;
 
 import citu.jisaz.brightminds_backend.model.User;
-import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.CollectionReference;
 import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.QueryDocumentSnapshot;
-import com.google.cloud.firestore.QuerySnapshot;
-import com.google.cloud.firestore.WriteResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 @Repository("firestoreUserRepository")
-public class FirestoreUserRepositoryImpl implements UserRepository {
+@Profile("!in-memory")
+public class FirestoreUserRepositoryImpl implements UserRepository, AsyncUserRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(FirestoreUserRepositoryImpl.class);
     private static final String COLLECTION_NAME = "users";
@@ -30,55 +31,76 @@ public class FirestoreUserRepositoryImpl implements UserRepository {
 
     @Override
     public User save(User user) throws ExecutionException, InterruptedException {
+        return saveAsync(user).get();
+    }
+
+    @Override
+    public Optional<User> findById(String userId) throws ExecutionException, InterruptedException {
+        return findByIdAsync(userId).get();
+    }
+
+    @Override
+    public Optional<User> findFieldsById(String userId, String... fieldPaths) throws ExecutionException, InterruptedException {
+        return findFieldsByIdAsync(userId, fieldPaths).get();
+    }
+
+    @Override
+    public List<User> findAllById(Collection<String> userIds) throws ExecutionException, InterruptedException {
+        return findAllByIdAsync(userIds).get();
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) throws ExecutionException, InterruptedException {
+        return findByEmailAsync(email).get();
+    }
+
+    @Override
+    public CompletableFuture<User> saveAsync(User user) {
         if (user.getUserId() == null || user.getUserId().isEmpty()) {
             throw new IllegalArgumentException("User ID cannot be null or empty when saving.");
         }
+        FirestoreUnitOfWork unitOfWork = FirestoreUnitOfWork.capture();
         DocumentReference userDocRef = usersCollection.document(user.getUserId());
-        DocumentSnapshot currentSnapshot = userDocRef.get().get();
-
-        if (!currentSnapshot.exists()) {
-            user.setCreatedAt(null);
-        } else {
-            User existingUser = currentSnapshot.toObject(User.class);
-            if (existingUser != null && existingUser.getCreatedAt() != null) {
-                user.setCreatedAt(existingUser.getCreatedAt());
-            } else if (existingUser == null) {
-                logger.error("Existing user document {} could not be mapped to User object. Proceeding with potential new createdAt.", user.getUserId());
-                user.setCreatedAt(null);
-            }
-        }
-        user.setUpdatedAt(null);
-
-        ApiFuture<WriteResult> writeFuture = userDocRef.set(user);
-        WriteResult writeResult = writeFuture.get();
 
-        if (user.getCreatedAt() == null) {
-            user.setCreatedAt(writeResult.getUpdateTime().toDate());
-        }
-        user.setUpdatedAt(writeResult.getUpdateTime().toDate());
-        return user;
+        // One write: a user read from Firestore keeps its createdAt, one without it is created (see FirestoreSaves).
+        return FirestoreSaves.save(userDocRef, user, "createdAt", "updatedAt").thenApply(result -> {
+            Date updateTime = result.updateTime().toDate();
+            if (result.creationTimestampWritten()) {
+                user.setCreatedAt(updateTime);
+            } else if (user.getCreatedAt() == null) {
+                logger.debug("User document {} already existed; kept its stored createdAt.", user.getUserId());
+            }
+            user.setUpdatedAt(updateTime);
+            unitOfWork.written(userDocRef, user);
+            unitOfWork.countWrites(1);
+            return user;
+        });
     }
 
     @Override
-    public Optional<User> findById(String userId) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = usersCollection.document(userId);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot document = future.get();
+    public CompletableFuture<Optional<User>> findByIdAsync(String userId) {
+        return FirestoreUnitOfWork.getAsync(usersCollection.document(userId), User.class);
+    }
 
-        if (document.exists()) {
-            return Optional.ofNullable(document.toObject(User.class));
-        }
-        return Optional.empty();
+    @Override
+    public CompletableFuture<Optional<User>> findFieldsByIdAsync(String userId, String... fieldPaths) {
+        return FirestoreUnitOfWork.getFieldsAsync(usersCollection.document(userId), User.class, fieldPaths);
     }
 
     @Override
-    public Optional<User> findByEmail(String email) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> future = usersCollection.whereEqualTo("email", email).limit(1).get();
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
+    public CompletableFuture<List<User>> findAllByIdAsync(Collection<String> userIds) {
+        List<DocumentReference> docRefs = userIds.stream().map(usersCollection::document).toList();
+        return FirestoreUnitOfWork.getAllAsync(usersCollection.getFirestore(), docRefs, User.class);
+    }
 
-        if (!documents.isEmpty()) {
-            return Optional.of(documents.getFirst().toObject(User.class));
-        }
-        return Optional.empty();
+    @Override
+    public CompletableFuture<Optional<User>> findByEmailAsync(String email) {
+        return FirestoreUnitOfWork.queryAsync(usersCollection.whereEqualTo("email", email).limit(1)).thenApply(querySnapshot -> {
+            List<QueryDocumentSnapshot> documents = querySnapshot.getDocuments();
+            if (!documents.isEmpty()) {
+                return Optional.of(documents.getFirst().toObject(User.class));
+            }
+            return Optional.empty();
+        });
     }
-}
\ No newline at end of file
+}
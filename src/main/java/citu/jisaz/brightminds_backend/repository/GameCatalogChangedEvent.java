@@ -0,0 +1,7 @@
+package citu.jisaz.brightminds_backend.repository;
+
+/**
+ * Published by {@link FirestoreGameCatalog} after each snapshot replaces the library game catalog.
+ */
+public record GameCatalogChangedEvent(int games) {
+}
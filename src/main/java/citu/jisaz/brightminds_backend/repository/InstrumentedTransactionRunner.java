@@ -0,0 +1,107 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Records each transaction of the wrapped runner in {@link FirestoreMetrics} and in the calling request's
+ * {@link FirestoreUnitOfWork}. Reads are counted for every attempt, since Firestore bills those of an attempt that
+ * is retried too; writes only for the attempt that committed.
+ */
+class InstrumentedTransactionRunner implements TransactionRunner {
+
+    private final TransactionRunner delegate;
+    private final FirestoreMetrics metrics;
+
+    InstrumentedTransactionRunner(TransactionRunner delegate, FirestoreMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public <T> T run(Callback<T> callback) throws ExecutionException, InterruptedException {
+        String endpoint = FirestoreMetrics.currentEndpoint();
+        FirestoreUnitOfWork unitOfWork = FirestoreUnitOfWork.capture();
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicLong reads = new AtomicLong();
+        AtomicReference<CountingTransaction> lastAttempt = new AtomicReference<>();
+        long start = System.nanoTime();
+        try {
+            T result = delegate.run(transaction -> {
+                attempts.incrementAndGet();
+                CountingTransaction counting = new CountingTransaction(transaction, reads);
+                lastAttempt.set(counting);
+                return callback.apply(counting);
+            });
+            CountingTransaction committed = lastAttempt.get();
+            long writes = committed != null ? committed.writes : 0;
+            metrics.recordTransaction(endpoint, System.nanoTime() - start, attempts.get(), reads.get(), writes, null);
+            unitOfWork.countReads((int) reads.get());
+            unitOfWork.countWrites((int) writes);
+            return result;
+        } catch (ExecutionException | InterruptedException | RuntimeException e) {
+            metrics.recordTransaction(endpoint, System.nanoTime() - start, attempts.get(), reads.get(), 0, e);
+            unitOfWork.countReads((int) reads.get());
+            throw e;
+        }
+    }
+
+    @Override
+    public String newDocumentId(String collectionPath) {
+        return delegate.newDocumentId(collectionPath);
+    }
+
+    private static final class CountingTransaction implements DocumentTransaction {
+
+        private final DocumentTransaction transaction;
+        private final AtomicLong reads;
+        private long writes;
+
+        CountingTransaction(DocumentTransaction transaction, AtomicLong reads) {
+            this.transaction = transaction;
+            this.reads = reads;
+        }
+
+        @Override
+        public <T> Optional<T> get(String documentPath, Class<T> type) throws ExecutionException, InterruptedException {
+            reads.incrementAndGet();
+            return transaction.get(documentPath, type);
+        }
+
+        @Override
+        public <T> List<T> query(DocumentQuery query, Class<T> type) throws ExecutionException, InterruptedException {
+            List<T> results = transaction.query(query, type);
+            // A query that matches nothing is still billed one read.
+            reads.addAndGet(Math.max(1, results.size()));
+            return results;
+        }
+
+        @Override
+        public void set(String documentPath, Object data) {
+            transaction.set(documentPath, data);
+            writes++;
+        }
+
+        @Override
+        public void update(String documentPath, DocumentUpdate update) {
+            transaction.update(documentPath, update);
+            writes++;
+        }
+
+        @Override
+        public void increment(String documentPath, String field, long delta) {
+            transaction.increment(documentPath, field, delta);
+            writes++;
+        }
+
+        @Override
+        public void delete(String documentPath) {
+            transaction.delete(documentPath);
+            writes++;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import citu.jisaz.brightminds_backend.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Encodes the cursor of a page (the sort values of its last document, ending with the document ID) as an opaque
+ * URL-safe token, and decodes it again for the following request.
+ */
+public final class PageTokens {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private PageTokens() {
+    }
+
+    public static String encode(String... cursorValues) {
+        List<String> parts = new ArrayList<>(cursorValues.length);
+        for (String value : cursorValues) {
+            parts.add(ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8)));
+        }
+        return ENCODER.encodeToString(String.join(".", parts).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the cursor values of {@code pageToken}, or null for a missing token (the first page).
+     *
+     * @throws BadRequestException if the token is malformed or does not hold {@code expectedValues} values
+     */
+    public static List<String> decode(String pageToken, int expectedValues) {
+        if (pageToken == null || pageToken.isEmpty()) {
+            return null;
+        }
+        try {
+            String joined = new String(DECODER.decode(pageToken), StandardCharsets.UTF_8);
+            String[] parts = joined.split("\\.", -1);
+            if (parts.length != expectedValues) {
+                throw new BadRequestException("Invalid page token.");
+            }
+            List<String> values = new ArrayList<>(parts.length);
+            for (String part : parts) {
+                values.add(new String(DECODER.decode(part), StandardCharsets.UTF_8));
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid page token.", e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorates every {@link Repository} bean and the {@link TransactionRunner} so their calls are recorded in
+ * {@link FirestoreMetrics}, for both the Firestore and the in-memory backend. Repositories are wrapped in a proxy
+ * implementing their interfaces, which is all the services inject.
+ * <p>
+ * Documents are counted per repository call, from what it returns: a lookup is one document whether or not it
+ * exists, a query or page the documents it returns, a counter sum one aggregation, and a save or delete one write.
+ * That is what the repositories were asked for, not what Firestore billed: lookups the request identity map answers
+ * ({@link FirestoreUnitOfWork}) are counted here but never reach Firestore. Billed reads and writes per request are
+ * in {@code brightminds.firestore.request.documents}.
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<FirestoreMetrics> metrics;
+
+    // Resolved lazily: post-processors are created before the meter registry is ready.
+    public RepositoryMetricsPostProcessor(ObjectProvider<FirestoreMetrics> metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+        if (bean instanceof TransactionRunner transactionRunner) {
+            return new InstrumentedTransactionRunner(transactionRunner, metrics.getObject());
+        }
+        if (AnnotatedElementUtils.hasAnnotation(bean.getClass(), Repository.class)) {
+            return Proxy.newProxyInstance(bean.getClass().getClassLoader(),
+                    ClassUtils.getAllInterfacesForClass(bean.getClass()),
+                    new InstrumentedRepository(bean, metrics.getObject()));
+        }
+        return bean;
+    }
+
+    private record InstrumentedRepository(Object target, FirestoreMetrics metrics) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return invokeTarget(method, args);
+            }
+            String repository = method.getDeclaringClass().getSimpleName().replaceFirst("^Async", "");
+            String name = method.getName();
+            String endpoint = FirestoreMetrics.currentEndpoint();
+            AtomicLong streamed = countStreamedDocuments(args);
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeTarget(method, args);
+            } catch (Throwable e) {
+                metrics.recordCall(repository, name, endpoint, System.nanoTime() - start, e);
+                throw e;
+            }
+            if (result instanceof CompletableFuture<?> future) {
+                future.whenComplete((value, failure) ->
+                        record(repository, name, endpoint, start, value, streamed, failure));
+            } else {
+                record(repository, name, endpoint, start, result, streamed, null);
+            }
+            return result;
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void record(String repository, String method, String endpoint, long start, Object result,
+                            AtomicLong streamed, Throwable failure) {
+            metrics.recordCall(repository, method, endpoint, System.nanoTime() - start, failure);
+            if (failure != null) {
+                return;
+            }
+            if (method.startsWith("save") || method.startsWith("delete")) {
+                metrics.recordDocuments(repository, method, endpoint, "write", 1);
+            } else {
+                metrics.recordDocuments(repository, method, endpoint, "read", documentsRead(result) + streamed.get());
+            }
+        }
+
+        private static long documentsRead(Object result) {
+            if (result instanceof Optional<?> || result instanceof ClassroomCounts) {
+                return 1;
+            }
+            if (result instanceof Collection<?> documents) {
+                return documents.size();
+            }
+            if (result instanceof CursorPage<?> page) {
+                return page.items().size();
+            }
+            return 0;
+        }
+
+        /**
+         * Replaces each {@link DocumentConsumer} argument of a streamed read with one counting what it receives.
+         */
+        @SuppressWarnings("unchecked")
+        private static AtomicLong countStreamedDocuments(Object[] args) {
+            AtomicLong streamed = new AtomicLong();
+            if (args != null) {
+                for (int i = 0; i < args.length; i++) {
+                    if (args[i] instanceof DocumentConsumer<?> consumer) {
+                        DocumentConsumer<Object> delegate = (DocumentConsumer<Object>) consumer;
+                        args[i] = (DocumentConsumer<Object>) document -> {
+                            streamed.incrementAndGet();
+                            delegate.accept(document);
+                        };
+                    }
+                }
+            }
+            return streamed;
+        }
+    }
+}
@@ -11,5 +11,7 @@ public interface StudentGameAttemptRepository {
     List<StudentGameAttempt> findAllByStudentIdAndClassroomId(String studentId, String classroomId) throws ExecutionException, InterruptedException;
     List<StudentGameAttempt> findAllByStudentIdAndAssignedGameId(String studentId, String assignedGameId) throws ExecutionException, InterruptedException;
 
-    List<StudentGameAttempt> findAllByClassroomIdAndAssignedGameId(String classroomId, String assignedGameId) throws ExecutionException, InterruptedException;
+    // Hands each attempt to the consumer as it is read, without collecting them; returns once all have been handed over.
+    void streamAllByClassroomIdAndAssignedGameId(String classroomId, String assignedGameId, DocumentConsumer<StudentGameAttempt> consumer) throws ExecutionException, InterruptedException;
+    CursorPage<StudentGameAttempt> findPageByClassroomIdAndAssignedGameId(String classroomId, String assignedGameId, int pageSize, String pageToken) throws ExecutionException, InterruptedException;
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs read-modify-write transactions for the services, in place of calling {@code Firestore.runTransaction}
+ * directly, so the same service code runs against Firestore and against the in-memory backend.
+ * <p>
+ * The callback may be invoked more than once when the transaction is retried after contention; it must not have
+ * side effects outside the transaction. Exceptions thrown by the callback surface as the cause of an
+ * {@link ExecutionException}, as they do from Firestore.
+ */
+public interface TransactionRunner {
+
+    @FunctionalInterface
+    interface Callback<T> {
+        T apply(DocumentTransaction transaction) throws Exception;
+    }
+
+    <T> T run(Callback<T> callback) throws ExecutionException, InterruptedException;
+
+    /**
+     * A new random document ID for {@code collectionPath}, in the format Firestore generates.
+     */
+    String newDocumentId(String collectionPath);
+}
@@ -1,12 +1,17 @@
 package citu.jisaz.brightminds_backend.repository;
 
 import citu.jisaz.brightminds_backend.model.User;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
 public interface UserRepository {
     User save(User user) throws ExecutionException, InterruptedException;
     Optional<User> findById(String userId) throws ExecutionException, InterruptedException;
+    // Only the named fields (and userId) are populated; for checks that don't need the whole document.
+    Optional<User> findFieldsById(String userId, String... fieldPaths) throws ExecutionException, InterruptedException;
+    List<User> findAllById(Collection<String> userIds) throws ExecutionException, InterruptedException;
     Optional<User> findByEmail(String email) throws ExecutionException, InterruptedException;
     // Potentially: void deleteById(String userId) throws ExecutionException, InterruptedException;
     // Potentially: List<User> findAll();
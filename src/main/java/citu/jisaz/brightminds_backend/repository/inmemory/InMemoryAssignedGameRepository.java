@@ -0,0 +1,124 @@
+package citu.jisaz.brightminds_backend.repository.inmemory;
+
+import citu.jisaz.brightminds_backend.exception.BadRequestException;
+import citu.jisaz.brightminds_backend.model.AssignedGame;
+import citu.jisaz.brightminds_backend.repository.AssignedGameRepository;
+import citu.jisaz.brightminds_backend.repository.AsyncAssignedGameRepository;
+import citu.jisaz.brightminds_backend.repository.CursorPage;
+import citu.jisaz.brightminds_backend.repository.DocumentPaths;
+import citu.jisaz.brightminds_backend.repository.DocumentQuery;
+import citu.jisaz.brightminds_backend.repository.PageTokens;
+import com.google.cloud.Timestamp;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+@Repository("inMemoryAssignedGameRepository")
+@Profile("in-memory")
+public class InMemoryAssignedGameRepository implements AssignedGameRepository, AsyncAssignedGameRepository {
+
+    private static final String PARENT_COLLECTION_NAME = "classrooms";
+    private static final String SUBCOLLECTION_NAME = "assignedGames";
+    private static final Comparator<AssignedGame> NEWEST_FIRST = Comparator
+            .comparing(AssignedGame::getDateAssigned)
+            .thenComparing(AssignedGame::getAssignedGameId)
+            .reversed();
+    private final InMemoryDocumentStore store;
+
+    public InMemoryAssignedGameRepository(InMemoryDocumentStore store) {
+        this.store = store;
+    }
+
+    private static String collectionPath(String classroomId) {
+        return DocumentPaths.of(PARENT_COLLECTION_NAME, classroomId, SUBCOLLECTION_NAME);
+    }
+
+    @Override
+    public AssignedGame save(String classroomId, AssignedGame assignedGame) throws ExecutionException, InterruptedException {
+        return saveAsync(classroomId, assignedGame).get();
+    }
+
+    @Override
+    public Optional<AssignedGame> findById(String classroomId, String assignedGameId) throws ExecutionException, InterruptedException {
+        return findByIdAsync(classroomId, assignedGameId).get();
+    }
+
+    @Override
+    public CursorPage<AssignedGame> findPageByClassroomId(String classroomId, int pageSize, String pageToken) throws ExecutionException, InterruptedException {
+        return findPageByClassroomIdAsync(classroomId, pageSize, pageToken).get();
+    }
+
+    @Override
+    public Optional<Date> findLatestDateAssigned(String classroomId) throws ExecutionException, InterruptedException {
+        return findLatestDateAssignedAsync(classroomId).get();
+    }
+
+    @Override
+    public void deleteById(String classroomId, String assignedGameId) throws ExecutionException, InterruptedException {
+        deleteByIdAsync(classroomId, assignedGameId).get();
+    }
+
+    @Override
+    public CompletableFuture<AssignedGame> saveAsync(String classroomId, AssignedGame assignedGame) {
+        if (assignedGame.getAssignedGameId() == null || assignedGame.getAssignedGameId().isEmpty()) {
+            assignedGame.setAssignedGameId(store.newDocumentId());
+        }
+        assignedGame.setClassroomId(classroomId);
+        String documentPath = DocumentPaths.of(collectionPath(classroomId), assignedGame.getAssignedGameId());
+        return store.save(documentPath, assignedGame, AssignedGame.class, "dateAssigned").thenApply(stored -> {
+            assignedGame.setDateAssigned(stored.getDateAssigned());
+            return assignedGame;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Optional<AssignedGame>> findByIdAsync(String classroomId, String assignedGameId) {
+        return store.get(DocumentPaths.of(collectionPath(classroomId), assignedGameId), AssignedGame.class);
+    }
+
+    @Override
+    public CompletableFuture<CursorPage<AssignedGame>> findPageByClassroomIdAsync(String classroomId, int pageSize, String pageToken) {
+        List<String> cursor = PageTokens.decode(pageToken, 2);
+        AssignedGame after = cursor == null ? null : cursorGame(cursor);
+        // Same order as the Firestore repository: dateAssigned then document ID, both descending, and documents
+        // without the field left out.
+        return store.query(DocumentQuery.collection(collectionPath(classroomId)), AssignedGame.class)
+                .thenApply(assignedGames -> InMemoryPages.page(
+                        assignedGames.stream()
+                                .filter(assignedGame -> assignedGame.getDateAssigned() != null)
+                                .sorted(NEWEST_FIRST)
+                                .toList(),
+                        after == null ? null : assignedGame -> NEWEST_FIRST.compare(assignedGame, after) > 0,
+                        pageSize,
+                        assignedGame -> PageTokens.encode(Timestamp.of(assignedGame.getDateAssigned()).toString(),
+                                assignedGame.getAssignedGameId())));
+    }
+
+    private static AssignedGame cursorGame(List<String> cursor) {
+        AssignedGame after = new AssignedGame();
+        try {
+            after.setDateAssigned(Timestamp.parseTimestamp(cursor.get(0)).toDate());
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid page token.", e);
+        }
+        after.setAssignedGameId(cursor.get(1));
+        return after;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Date>> findLatestDateAssignedAsync(String classroomId) {
+        return store.getLatestFields(collectionPath(classroomId), "dateAssigned", AssignedGame.class, "dateAssigned")
+                .thenApply(latest -> latest.map(AssignedGame::getDateAssigned));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteByIdAsync(String classroomId, String assignedGameId) {
+        return store.delete(DocumentPaths.of(collectionPath(classroomId), assignedGameId));
+    }
+}
@@ -0,0 +1,47 @@
+package citu.jisaz.brightminds_backend.repository.inmemory;
+
+import citu.jisaz.brightminds_backend.repository.AsyncClassroomCounterRepository;
+import citu.jisaz.brightminds_backend.repository.ClassroomCounterRepository;
+import citu.jisaz.brightminds_backend.repository.ClassroomCounts;
+import citu.jisaz.brightminds_backend.repository.DocumentPaths;
+import citu.jisaz.brightminds_backend.repository.DocumentQuery;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+@Repository("inMemoryClassroomCounterRepository")
+@Profile("in-memory")
+public class InMemoryClassroomCounterRepository implements ClassroomCounterRepository, AsyncClassroomCounterRepository {
+
+    private static final String PARENT_COLLECTION_NAME = "classrooms";
+    private final InMemoryDocumentStore store;
+
+    public InMemoryClassroomCounterRepository(InMemoryDocumentStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public ClassroomCounts sumShards(String classroomId) throws ExecutionException, InterruptedException {
+        return sumShardsAsync(classroomId).get();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public CompletableFuture<ClassroomCounts> sumShardsAsync(String classroomId) {
+        return store.query(DocumentQuery.collection(DocumentPaths.of(PARENT_COLLECTION_NAME, classroomId, SHARDS_SUBCOLLECTION)), Map.class)
+                .thenApply(shards -> new ClassroomCounts(sum(shards, STUDENT_COUNT_FIELD), sum(shards, ACTIVITY_COUNT_FIELD)));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static long sum(List<Map> shards, String field) {
+        return shards.stream()
+                .map(shard -> shard.get(field))
+                .filter(Number.class::isInstance)
+                .mapToLong(value -> ((Number) value).longValue())
+                .sum();
+    }
+}
@@ -0,0 +1,131 @@
+package citu.jisaz.brightminds_backend.repository.inmemory;
+
+import citu.jisaz.brightminds_backend.model.Classroom;
+import citu.jisaz.brightminds_backend.repository.AsyncClassroomRepository;
+import citu.jisaz.brightminds_backend.repository.ClassroomRepository;
+import citu.jisaz.brightminds_backend.repository.CursorPage;
+import citu.jisaz.brightminds_backend.repository.DocumentConsumer;
+import citu.jisaz.brightminds_backend.repository.DocumentPaths;
+import citu.jisaz.brightminds_backend.repository.DocumentQuery;
+import citu.jisaz.brightminds_backend.repository.PageTokens;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+@Repository("inMemoryClassroomRepository")
+@Profile("in-memory")
+public class InMemoryClassroomRepository implements ClassroomRepository, AsyncClassroomRepository {
+
+    private static final String COLLECTION_NAME = "classrooms";
+    private static final String ENROLLED_STUDENTS_SUBCOLLECTION = "enrolledStudents";
+    private final InMemoryDocumentStore store;
+
+    public InMemoryClassroomRepository(InMemoryDocumentStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Classroom save(Classroom classroom) throws ExecutionException, InterruptedException {
+        return saveAsync(classroom).get();
+    }
+
+    @Override
+    public Optional<Classroom> findById(String classroomId) throws ExecutionException, InterruptedException {
+        return findByIdAsync(classroomId).get();
+    }
+
+    @Override
+    public Optional<Classroom> findFieldsById(String classroomId, String... fieldPaths) throws ExecutionException, InterruptedException {
+        return findFieldsByIdAsync(classroomId, fieldPaths).get();
+    }
+
+    @Override
+    public List<Classroom> findAllById(Collection<String> classroomIds) throws ExecutionException, InterruptedException {
+        return findAllByIdAsync(classroomIds).get();
+    }
+
+    @Override
+    public CursorPage<Classroom> findPageByTeacherId(String teacherId, int pageSize, String pageToken) throws ExecutionException, InterruptedException {
+        return findPageByTeacherIdAsync(teacherId, pageSize, pageToken).get();
+    }
+
+    @Override
+    public Optional<Classroom> findByUniqueCode(String uniqueCode) throws ExecutionException, InterruptedException {
+        return findByUniqueCodeAsync(uniqueCode).get();
+    }
+
+    @Override
+    public List<String> findEnrolledStudentIds(String classroomId) throws ExecutionException, InterruptedException {
+        return findEnrolledStudentIdsAsync(classroomId).get();
+    }
+
+    @Override
+    public void streamEnrolledStudentIds(String classroomId, DocumentConsumer<String> consumer) throws ExecutionException, InterruptedException {
+        DocumentConsumer.acceptAll(findEnrolledStudentIdsAsync(classroomId).get(), consumer);
+    }
+
+    @Override
+    public void deleteById(String classroomId) throws ExecutionException, InterruptedException {
+        deleteByIdAsync(classroomId).get();
+    }
+
+    @Override
+    public CompletableFuture<Classroom> saveAsync(Classroom classroom) {
+        if (classroom.getClassroomId() == null || classroom.getClassroomId().isEmpty()) {
+            classroom.setClassroomId(store.newDocumentId());
+            classroom.setCreatedAt(null);
+        }
+        classroom.setUpdatedAt(null);
+        return store.save(DocumentPaths.of(COLLECTION_NAME, classroom.getClassroomId()), classroom, Classroom.class, "createdAt");
+    }
+
+    @Override
+    public CompletableFuture<Optional<Classroom>> findByIdAsync(String classroomId) {
+        return store.get(DocumentPaths.of(COLLECTION_NAME, classroomId), Classroom.class);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Classroom>> findFieldsByIdAsync(String classroomId, String... fieldPaths) {
+        return store.getFields(DocumentPaths.of(COLLECTION_NAME, classroomId), Classroom.class, fieldPaths).thenApply(classroom -> {
+            classroom.ifPresent(found -> found.setClassroomId(classroomId));
+            return classroom;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Classroom>> findAllByIdAsync(Collection<String> classroomIds) {
+        return store.getAll(classroomIds.stream().map(classroomId -> DocumentPaths.of(COLLECTION_NAME, classroomId)).toList(),
+                Classroom.class);
+    }
+
+    @Override
+    public CompletableFuture<CursorPage<Classroom>> findPageByTeacherIdAsync(String teacherId, int pageSize, String pageToken) {
+        List<String> cursor = PageTokens.decode(pageToken, 1);
+        // Query results come back in document ID order, as in the Firestore repository.
+        return store.query(DocumentQuery.collection(COLLECTION_NAME).whereEqualTo("teacherId", teacherId), Classroom.class)
+                .thenApply(classrooms -> InMemoryPages.page(classrooms,
+                        cursor == null ? null : classroom -> classroom.getClassroomId().compareTo(cursor.getFirst()) > 0,
+                        pageSize, classroom -> PageTokens.encode(classroom.getClassroomId())));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Classroom>> findByUniqueCodeAsync(String uniqueCode) {
+        return store.query(DocumentQuery.collection(COLLECTION_NAME).whereEqualTo("uniqueCode", uniqueCode).limit(1), Classroom.class)
+                .thenApply(classrooms -> classrooms.stream().findFirst());
+    }
+
+    @Override
+    public CompletableFuture<List<String>> findEnrolledStudentIdsAsync(String classroomId) {
+        return store.listDocumentIds(DocumentPaths.of(COLLECTION_NAME, classroomId, ENROLLED_STUDENTS_SUBCOLLECTION));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteByIdAsync(String classroomId) {
+        return store.delete(DocumentPaths.of(COLLECTION_NAME, classroomId));
+    }
+}
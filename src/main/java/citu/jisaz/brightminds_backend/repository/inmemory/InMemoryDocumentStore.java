@@ -0,0 +1,466 @@
+package citu.jisaz.brightminds_backend.repository.inmemory;
+
+import citu.jisaz.brightminds_backend.repository.DocumentQuery;
+import citu.jisaz.brightminds_backend.repository.DocumentUpdate;
+import citu.jisaz.brightminds_backend.repository.FirestoreUnitOfWork;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.annotation.ServerTimestamp;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-local stand-in for Firestore, active under the {@code in-memory} profile. Documents are kept as
+ * immutable field maps keyed by collection path and document ID, each stamped with the sequence number of the
+ * commit that last wrote it. Models are copied in and out through Jackson, so callers never share instances with
+ * the store, and null {@code @ServerTimestamp} fields or {@link FieldValue#serverTimestamp()} values are filled
+ * with the commit time, as Firestore does.
+ * <p>
+ * Every read, query and commit can be delayed by {@code app.in-memory.latency} plus up to
+ * {@code app.in-memory.latency-jitter}, to approximate a network round trip. With latency configured, async
+ * operations run on virtual threads so concurrent calls overlap the way concurrent RPCs do.
+ * <p>
+ * Reads and writes outside transactions are counted in the calling request's {@link FirestoreUnitOfWork} the way
+ * Firestore bills them; the documents themselves are not kept there.
+ */
+@Component
+@Profile("in-memory")
+public class InMemoryDocumentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryDocumentStore.class);
+    private static final String AUTO_ID_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    private static final int AUTO_ID_LENGTH = 20;
+    private static final TypeReference<Map<String, Object>> FIELD_MAP = new TypeReference<>() {};
+
+    /** A committed document. {@code version} is the sequence number of the commit that wrote it. */
+    record StoredDocument(String id, long version, Map<String, Object> data) {}
+
+    /**
+     * A pending write. Without an {@code update}, {@code data} replaces the document and a null {@code data} deletes
+     * it. With one, the update is applied to the stored fields; a missing document is then created when
+     * {@code createIfMissing} is set and fails the commit otherwise, as a Firestore update does.
+     */
+    record Write(String documentPath, Object data, DocumentUpdate update, boolean createIfMissing) {
+
+        Write(String documentPath, Object data) {
+            this(documentPath, data, null, false);
+        }
+
+        static Write update(String documentPath, DocumentUpdate update) {
+            return new Write(documentPath, null, update, false);
+        }
+
+        static Write merge(String documentPath, DocumentUpdate update) {
+            return new Write(documentPath, null, update, true);
+        }
+    }
+
+    /** The documents a transactional query returned, by path and version, to detect phantoms at commit. */
+    record QueryRead(DocumentQuery query, Map<String, Long> versions) {}
+
+    private final Map<String, ConcurrentSkipListMap<String, StoredDocument>> collections = new ConcurrentHashMap<>();
+    private final Map<Class<?>, List<String>> serverTimestampFields = new ConcurrentHashMap<>();
+    private final AtomicLong commitSequence = new AtomicLong();
+    private final Object commitLock = new Object();
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+    private final SecureRandom random = new SecureRandom();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long latencyNanos;
+    private final long latencyJitterNanos;
+
+    public InMemoryDocumentStore(@Value("${app.in-memory.latency:0ms}") Duration latency,
+                                 @Value("${app.in-memory.latency-jitter:0ms}") Duration latencyJitter,
+                                 @Value("${app.in-memory.seed-file:#{null}}") Resource seedFile) throws IOException {
+        this.latencyNanos = latency.toNanos();
+        this.latencyJitterNanos = latencyJitter.toNanos();
+        if (seedFile != null) {
+            seed(seedFile);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Loads a JSON object of document path to field map, e.g. {@code {"libraryGames/g1": {"title": "..."}}}.
+     */
+    private void seed(Resource seedFile) throws IOException {
+        try (InputStream in = seedFile.getInputStream()) {
+            Map<String, Map<String, Object>> documents = mapper.readValue(in, new TypeReference<>() {});
+            List<Write> writes = new ArrayList<>();
+            documents.forEach((path, data) -> writes.add(new Write(path, data)));
+            commit(Collections.emptyMap(), Collections.emptyList(), writes);
+            logger.info("Seeded the in-memory document store with {} documents from {}.", writes.size(), seedFile);
+        }
+    }
+
+    public String newDocumentId() {
+        StringBuilder id = new StringBuilder(AUTO_ID_LENGTH);
+        for (int i = 0; i < AUTO_ID_LENGTH; i++) {
+            id.append(AUTO_ID_ALPHABET.charAt(random.nextInt(AUTO_ID_ALPHABET.length())));
+        }
+        return id.toString();
+    }
+
+    /**
+     * Runs {@code operation} as one simulated RPC: after the configured latency, on a virtual thread when there is
+     * latency to wait out, inline otherwise.
+     */
+    <T> CompletableFuture<T> submit(Callable<T> operation) {
+        if (latencyNanos == 0 && latencyJitterNanos == 0) {
+            try {
+                return CompletableFuture.completedFuture(operation.call());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                simulateLatency();
+                return operation.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    void simulateLatency() throws InterruptedException {
+        long delay = latencyNanos + (latencyJitterNanos > 0 ? ThreadLocalRandom.current().nextLong(latencyJitterNanos + 1) : 0);
+        if (delay > 0) {
+            Thread.sleep(Duration.ofNanos(delay));
+        }
+    }
+
+    public <T> CompletableFuture<Optional<T>> get(String documentPath, Class<T> type) {
+        FirestoreUnitOfWork.capture().countReads(1);
+        return submit(() -> Optional.ofNullable(lookup(documentPath)).map(document -> toModel(document, type)));
+    }
+
+    /**
+     * Like {@link #get(String, Class)}, but maps only {@code fieldPaths} of the document, as a field-mask read does.
+     */
+    public <T> CompletableFuture<Optional<T>> getFields(String documentPath, Class<T> type, String... fieldPaths) {
+        FirestoreUnitOfWork.capture().countReads(1);
+        return submit(() -> Optional.ofNullable(lookup(documentPath)).map(document -> {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            for (String fieldPath : fieldPaths) {
+                if (document.data().containsKey(fieldPath)) {
+                    fields.put(fieldPath, document.data().get(fieldPath));
+                }
+            }
+            return mapper.convertValue(fields, type);
+        }));
+    }
+
+    /**
+     * The document of a collection with the greatest {@code orderField}, mapped from {@code fieldPaths} only, as an
+     * {@code orderBy(orderField, DESCENDING).limit(1)} query with a field mask reads it: one read, even when the
+     * collection is empty. Documents without the field are left out.
+     */
+    public <T> CompletableFuture<Optional<T>> getLatestFields(String collectionPath, String orderField, Class<T> type,
+                                                              String... fieldPaths) {
+        FirestoreUnitOfWork.capture().countReads(1);
+        return submit(() -> collection(collectionPath).values().stream()
+                .filter(document -> document.data().get(orderField) instanceof Number)
+                .max(Comparator.comparingLong(document -> ((Number) document.data().get(orderField)).longValue()))
+                .map(document -> {
+                    Map<String, Object> fields = new LinkedHashMap<>();
+                    for (String fieldPath : fieldPaths) {
+                        if (document.data().containsKey(fieldPath)) {
+                            fields.put(fieldPath, document.data().get(fieldPath));
+                        }
+                    }
+                    return mapper.convertValue(fields, type);
+                }));
+    }
+
+    public <T> CompletableFuture<List<T>> getAll(List<String> documentPaths, Class<T> type) {
+        List<String> distinctPaths = documentPaths.stream().distinct().toList();
+        FirestoreUnitOfWork.capture().countReads(distinctPaths.size());
+        return submit(() -> {
+            List<T> found = new ArrayList<>();
+            for (String documentPath : distinctPaths) {
+                StoredDocument document = lookup(documentPath);
+                if (document != null) {
+                    found.add(toModel(document, type));
+                }
+            }
+            return found;
+        });
+    }
+
+    public <T> CompletableFuture<List<T>> query(DocumentQuery query, Class<T> type) {
+        FirestoreUnitOfWork unitOfWork = FirestoreUnitOfWork.capture();
+        return submit(() -> {
+            List<StoredDocument> matches = run(query);
+            unitOfWork.countReads(Math.max(1, matches.size()));
+            return matches.stream().map(document -> toModel(document, type)).toList();
+        });
+    }
+
+    public CompletableFuture<List<String>> listDocumentIds(String collectionPath) {
+        FirestoreUnitOfWork unitOfWork = FirestoreUnitOfWork.capture();
+        return submit(() -> {
+            List<String> ids = List.copyOf(collection(collectionPath).keySet());
+            unitOfWork.countReads(Math.max(1, ids.size()));
+            return ids;
+        });
+    }
+
+    /**
+     * Writes one document outside a transaction, returning the model as stored.
+     */
+    public <T> CompletableFuture<T> set(String documentPath, T model, Class<T> type) {
+        FirestoreUnitOfWork.capture().countWrites(1);
+        return submit(() -> {
+            commit(Collections.emptyMap(), Collections.emptyList(), List.of(new Write(documentPath, model)));
+            return toModel(lookup(documentPath), type);
+        });
+    }
+
+    /**
+     * Writes one document in one simulated RPC, keeping the stored {@code creationField} when the model has none,
+     * as {@code FirestoreSaves} does against Firestore.
+     */
+    public <T> CompletableFuture<T> save(String documentPath, T model, Class<T> type, String creationField) {
+        FirestoreUnitOfWork.capture().countWrites(1);
+        return submit(() -> {
+            synchronized (commitLock) {
+                StoredDocument existing = lookup(documentPath);
+                Object data = model;
+                if (existing != null && existing.data().get(creationField) != null) {
+                    Map<String, Object> fields = new LinkedHashMap<>(mapper.convertValue(model, FIELD_MAP));
+                    if (fields.get(creationField) == null) {
+                        fields.put(creationField, existing.data().get(creationField));
+                    }
+                    for (String field : serverTimestampFields.computeIfAbsent(model.getClass(), InMemoryDocumentStore::findServerTimestampFields)) {
+                        if (fields.get(field) == null) {
+                            fields.put(field, FieldValue.serverTimestamp());
+                        }
+                    }
+                    data = fields;
+                }
+                commit(Collections.emptyMap(), Collections.emptyList(), List.of(new Write(documentPath, data)));
+                return toModel(lookup(documentPath), type);
+            }
+        });
+    }
+
+    public CompletableFuture<Void> delete(String documentPath) {
+        FirestoreUnitOfWork.capture().countWrites(1);
+        return submit(() -> {
+            commit(Collections.emptyMap(), Collections.emptyList(), List.of(new Write(documentPath, null)));
+            return null;
+        });
+    }
+
+    StoredDocument lookup(String documentPath) {
+        int split = documentPath.lastIndexOf('/');
+        if (split <= 0) {
+            throw new IllegalArgumentException("Not a document path: " + documentPath);
+        }
+        return collection(documentPath.substring(0, split)).get(documentPath.substring(split + 1));
+    }
+
+    List<StoredDocument> run(DocumentQuery query) {
+        List<StoredDocument> matches = new ArrayList<>();
+        for (StoredDocument document : collection(query.getCollectionPath()).values()) {
+            if (matches(document, query.getEqualityFilters())) {
+                matches.add(document);
+                if (query.getLimit() > 0 && matches.size() == query.getLimit()) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Applies {@code writes} atomically if none of the documents or query results read by the transaction changed
+     * since they were read. Returns false, writing nothing, on conflict, and throws {@link IllegalStateException},
+     * also writing nothing, if an update targets a document that does not exist.
+     */
+    boolean commit(Map<String, Long> readVersions, List<QueryRead> queryReads, List<Write> writes) {
+        synchronized (commitLock) {
+            for (Map.Entry<String, Long> read : readVersions.entrySet()) {
+                if (versionOf(read.getKey()) != read.getValue()) {
+                    return false;
+                }
+            }
+            for (QueryRead queryRead : queryReads) {
+                if (!queryRead.versions().equals(versionsOf(queryRead.query().getCollectionPath(), run(queryRead.query())))) {
+                    return false;
+                }
+            }
+            if (writes.isEmpty()) {
+                return true;
+            }
+            checkUpdatedDocumentsExist(writes);
+            long version = commitSequence.incrementAndGet();
+            long commitTime = System.currentTimeMillis();
+            for (Write write : writes) {
+                int split = write.documentPath().lastIndexOf('/');
+                String collectionPath = write.documentPath().substring(0, split);
+                String id = write.documentPath().substring(split + 1);
+                if (write.update() != null) {
+                    StoredDocument current = collection(collectionPath).get(id);
+                    Map<String, Object> data = new LinkedHashMap<>(current != null ? current.data() : Map.of());
+                    apply(write.update(), data, commitTime);
+                    collection(collectionPath).put(id, new StoredDocument(id, version, Collections.unmodifiableMap(data)));
+                } else if (write.data() == null) {
+                    collection(collectionPath).remove(id);
+                } else {
+                    collection(collectionPath).put(id, new StoredDocument(id, version, toData(write.data(), commitTime)));
+                }
+            }
+            return true;
+        }
+    }
+
+    private void checkUpdatedDocumentsExist(List<Write> writes) {
+        Map<String, Boolean> existsAfterEarlierWrites = new LinkedHashMap<>();
+        for (Write write : writes) {
+            boolean exists = existsAfterEarlierWrites.computeIfAbsent(write.documentPath(), path -> lookup(path) != null);
+            if (write.update() != null && !write.createIfMissing() && !exists) {
+                throw new IllegalStateException("No document to update: " + write.documentPath());
+            }
+            existsAfterEarlierWrites.put(write.documentPath(), write.update() != null || write.data() != null);
+        }
+    }
+
+    private void apply(DocumentUpdate update, Map<String, Object> data, long commitTime) {
+        for (DocumentUpdate.FieldUpdate fieldUpdate : update.getFieldUpdates()) {
+            String field = fieldUpdate.field();
+            switch (fieldUpdate.operation()) {
+                case SET -> data.put(field, mapper.convertValue(fieldUpdate.value(), Object.class));
+                case INCREMENT -> {
+                    long base = data.get(field) instanceof Number number ? number.longValue() : 0L;
+                    data.put(field, base + (Long) fieldUpdate.value());
+                }
+                case ARRAY_UNION, ARRAY_REMOVE -> {
+                    List<Object> elements = new ArrayList<>(data.get(field) instanceof List<?> list ? list : List.of());
+                    for (Object element : (List<?>) fieldUpdate.value()) {
+                        Object stored = mapper.convertValue(element, Object.class);
+                        if (fieldUpdate.operation() == DocumentUpdate.Operation.ARRAY_REMOVE) {
+                            elements.removeIf(existing -> Objects.equals(existing, stored));
+                        } else if (!elements.contains(stored)) {
+                            elements.add(stored);
+                        }
+                    }
+                    data.put(field, Collections.unmodifiableList(elements));
+                }
+                case SERVER_TIMESTAMP -> data.put(field, commitTime);
+            }
+        }
+    }
+
+    /** The version of the document at {@code documentPath}, or 0 when it does not exist. */
+    long versionOf(String documentPath) {
+        StoredDocument document = lookup(documentPath);
+        return document != null ? document.version() : 0;
+    }
+
+    Map<String, Long> versionsOf(String collectionPath, List<StoredDocument> documents) {
+        Map<String, Long> versions = new LinkedHashMap<>();
+        for (StoredDocument document : documents) {
+            versions.put(collectionPath + "/" + document.id(), document.version());
+        }
+        return versions;
+    }
+
+    <T> T toModel(StoredDocument document, Class<T> type) {
+        return mapper.convertValue(document.data(), type);
+    }
+
+    private Map<String, Object> toData(Object model, long commitTime) {
+        Map<String, Object> data = new LinkedHashMap<>(mapper.convertValue(
+                model instanceof Map<?, ?> ? withoutFieldValues((Map<?, ?>) model, commitTime) : model, FIELD_MAP));
+        for (String field : serverTimestampFields.computeIfAbsent(model.getClass(), InMemoryDocumentStore::findServerTimestampFields)) {
+            if (data.get(field) == null) {
+                data.put(field, commitTime);
+            }
+        }
+        return Collections.unmodifiableMap(data);
+    }
+
+    private static Map<Object, Object> withoutFieldValues(Map<?, ?> fields, long commitTime) {
+        Map<Object, Object> resolved = new LinkedHashMap<>();
+        fields.forEach((key, value) -> {
+            if (value instanceof FieldValue) {
+                if (!FieldValue.serverTimestamp().equals(value)) {
+                    throw new UnsupportedOperationException("Unsupported field transform for " + key + ": " + value);
+                }
+                resolved.put(key, commitTime);
+            } else {
+                resolved.put(key, value);
+            }
+        });
+        return resolved;
+    }
+
+    private static List<String> findServerTimestampFields(Class<?> type) {
+        List<String> fields = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (field.isAnnotationPresent(ServerTimestamp.class)) {
+                    fields.add(field.getName());
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static boolean matches(StoredDocument document, Map<String, Object> equalityFilters) {
+        for (Map.Entry<String, Object> filter : equalityFilters.entrySet()) {
+            Object value = document.data().get(filter.getKey());
+            Object expected = filter.getValue();
+            if (value instanceof Number number && expected instanceof Number expectedNumber) {
+                if (number.doubleValue() != expectedNumber.doubleValue()) {
+                    return false;
+                }
+            } else if (value == null || !Objects.equals(value, expected)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ConcurrentSkipListMap<String, StoredDocument> collection(String collectionPath) {
+        return collections.computeIfAbsent(collectionPath, path -> new ConcurrentSkipListMap<>());
+    }
+}
@@ -0,0 +1,49 @@
+package citu.jisaz.brightminds_backend.repository.inmemory;
+
+import citu.jisaz.brightminds_backend.model.Game;
+import citu.jisaz.brightminds_backend.repository.AsyncGameRepository;
+import citu.jisaz.brightminds_backend.repository.DocumentPaths;
+import citu.jisaz.brightminds_backend.repository.DocumentQuery;
+import citu.jisaz.brightminds_backend.repository.GameRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Read-only, like the Firestore implementation; library games come from {@code app.in-memory.seed-file}.
+ */
+@Repository("inMemoryGameRepository")
+@Profile("in-memory")
+public class InMemoryGameRepository implements GameRepository, AsyncGameRepository {
+
+    private static final String COLLECTION_NAME = "libraryGames";
+    private final InMemoryDocumentStore store;
+
+    public InMemoryGameRepository(InMemoryDocumentStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Optional<Game> findById(String libraryGameId) throws ExecutionException, InterruptedException {
+        return findByIdAsync(libraryGameId).get();
+    }
+
+    @Override
+    public List<Game> findAll() throws ExecutionException, InterruptedException {
+        return findAllAsync().get();
+    }
+
+    @Override
+    public CompletableFuture<Optional<Game>> findByIdAsync(String libraryGameId) {
+        return store.get(DocumentPaths.of(COLLECTION_NAME, libraryGameId), Game.class);
+    }
+
+    @Override
+    public CompletableFuture<List<Game>> findAllAsync() {
+        return store.query(DocumentQuery.collection(COLLECTION_NAME), Game.class);
+    }
+}
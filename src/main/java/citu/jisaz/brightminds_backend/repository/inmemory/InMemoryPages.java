@@ -0,0 +1,33 @@
+package citu.jisaz.brightminds_backend.repository.inmemory;
+
+import citu.jisaz.brightminds_backend.repository.CursorPage;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cuts a page out of a fully sorted result, mirroring the keyset pagination of the Firestore repositories: the page
+ * starts after the cursor of the previous one rather than at an offset.
+ */
+final class InMemoryPages {
+
+    private InMemoryPages() {
+    }
+
+    /**
+     * @param afterCursor matches the documents that sort after the decoded page token, or null for the first page
+     * @param tokenOf     encodes the cursor of a document as a page token
+     */
+    static <T> CursorPage<T> page(List<T> sorted, Predicate<T> afterCursor, int pageSize, Function<T, String> tokenOf) {
+        List<T> candidates = sorted.stream()
+                .filter(afterCursor != null ? afterCursor : item -> true)
+                .limit(pageSize + 1L)
+                .toList();
+        if (candidates.size() <= pageSize) {
+            return new CursorPage<>(candidates, null);
+        }
+        List<T> items = candidates.subList(0, pageSize);
+        return new CursorPage<>(items, tokenOf.apply(items.getLast()));
+    }
+}
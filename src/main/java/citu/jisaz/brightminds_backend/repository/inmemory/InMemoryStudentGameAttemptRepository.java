@@ -0,0 +1,100 @@
+package citu.jisaz.brightminds_backend.repository.inmemory;
+
+import citu.jisaz.brightminds_backend.model.StudentGameAttempt;
+import citu.jisaz.brightminds_backend.repository.AsyncStudentGameAttemptRepository;
+import citu.jisaz.brightminds_backend.repository.CursorPage;
+import citu.jisaz.brightminds_backend.repository.DocumentConsumer;
+import citu.jisaz.brightminds_backend.repository.DocumentPaths;
+import citu.jisaz.brightminds_backend.repository.DocumentQuery;
+import citu.jisaz.brightminds_backend.repository.PageTokens;
+import citu.jisaz.brightminds_backend.repository.StudentGameAttemptRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+@Repository("inMemoryStudentGameAttemptRepository")
+@Profile("in-memory")
+public class InMemoryStudentGameAttemptRepository implements StudentGameAttemptRepository, AsyncStudentGameAttemptRepository {
+
+    private static final String COLLECTION_NAME = "studentGameAttempts";
+    private final InMemoryDocumentStore store;
+
+    public InMemoryStudentGameAttemptRepository(InMemoryDocumentStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public StudentGameAttempt save(StudentGameAttempt attempt) throws ExecutionException, InterruptedException {
+        return saveAsync(attempt).get();
+    }
+
+    @Override
+    public Optional<StudentGameAttempt> findById(String attemptId) throws ExecutionException, InterruptedException {
+        return findByIdAsync(attemptId).get();
+    }
+
+    @Override
+    public List<StudentGameAttempt> findAllByStudentIdAndClassroomId(String studentId, String classroomId) throws ExecutionException, InterruptedException {
+        return findAllByStudentIdAndClassroomIdAsync(studentId, classroomId).get();
+    }
+
+    @Override
+    public List<StudentGameAttempt> findAllByStudentIdAndAssignedGameId(String studentId, String assignedGameId) throws ExecutionException, InterruptedException {
+        return findAllByStudentIdAndAssignedGameIdAsync(studentId, assignedGameId).get();
+    }
+
+    @Override
+    public void streamAllByClassroomIdAndAssignedGameId(String classroomId, String assignedGameId, DocumentConsumer<StudentGameAttempt> consumer) throws ExecutionException, InterruptedException {
+        DocumentConsumer.acceptAll(store.query(DocumentQuery.collection(COLLECTION_NAME)
+                .whereEqualTo("classroomId", classroomId)
+                .whereEqualTo("assignedGameId", assignedGameId), StudentGameAttempt.class).get(), consumer);
+    }
+
+    @Override
+    public CursorPage<StudentGameAttempt> findPageByClassroomIdAndAssignedGameId(String classroomId, String assignedGameId, int pageSize, String pageToken) throws ExecutionException, InterruptedException {
+        return findPageByClassroomIdAndAssignedGameIdAsync(classroomId, assignedGameId, pageSize, pageToken).get();
+    }
+
+    @Override
+    public CompletableFuture<StudentGameAttempt> saveAsync(StudentGameAttempt attempt) {
+        if (attempt.getAttemptId() == null || attempt.getAttemptId().isEmpty()) {
+            attempt.setAttemptId(store.newDocumentId());
+        }
+        return store.set(DocumentPaths.of(COLLECTION_NAME, attempt.getAttemptId()), attempt, StudentGameAttempt.class)
+                .thenApply(stored -> attempt);
+    }
+
+    @Override
+    public CompletableFuture<Optional<StudentGameAttempt>> findByIdAsync(String attemptId) {
+        return store.get(DocumentPaths.of(COLLECTION_NAME, attemptId), StudentGameAttempt.class);
+    }
+
+    @Override
+    public CompletableFuture<List<StudentGameAttempt>> findAllByStudentIdAndClassroomIdAsync(String studentId, String classroomId) {
+        return store.query(DocumentQuery.collection(COLLECTION_NAME)
+                .whereEqualTo("studentId", studentId)
+                .whereEqualTo("classroomId", classroomId), StudentGameAttempt.class);
+    }
+
+    @Override
+    public CompletableFuture<List<StudentGameAttempt>> findAllByStudentIdAndAssignedGameIdAsync(String studentId, String assignedGameId) {
+        return store.query(DocumentQuery.collection(COLLECTION_NAME)
+                .whereEqualTo("studentId", studentId)
+                .whereEqualTo("assignedGameId", assignedGameId), StudentGameAttempt.class);
+    }
+
+    @Override
+    public CompletableFuture<CursorPage<StudentGameAttempt>> findPageByClassroomIdAndAssignedGameIdAsync(String classroomId, String assignedGameId, int pageSize, String pageToken) {
+        List<String> cursor = PageTokens.decode(pageToken, 1);
+        return store.query(DocumentQuery.collection(COLLECTION_NAME)
+                        .whereEqualTo("classroomId", classroomId)
+                        .whereEqualTo("assignedGameId", assignedGameId), StudentGameAttempt.class)
+                .thenApply(attempts -> InMemoryPages.page(attempts,
+                        cursor == null ? null : attempt -> attempt.getAttemptId().compareTo(cursor.getFirst()) > 0,
+                        pageSize, attempt -> PageTokens.encode(attempt.getAttemptId())));
+    }
+}
@@ -0,0 +1,162 @@
+package citu.jisaz.brightminds_backend.repository.inmemory;
+
+import citu.jisaz.brightminds_backend.repository.DocumentQuery;
+import citu.jisaz.brightminds_backend.repository.DocumentTransaction;
+import citu.jisaz.brightminds_backend.repository.DocumentUpdate;
+import citu.jisaz.brightminds_backend.repository.TransactionRunner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Optimistic transactions over {@link InMemoryDocumentStore}. The callback runs against committed state while the
+ * versions of everything it reads, including the result sets of its queries, are recorded. At commit the store
+ * re-checks those versions under its commit lock; if another commit changed any of them, the writes are dropped
+ * and the callback is run again after a short randomized backoff, up to {@code max-attempts} times, after which the
+ * transaction fails with a {@link ConcurrentModificationException} cause.
+ * <p>
+ * Outcomes are counted in {@code brightminds.inmemory.transactions}, tagged committed, retried or aborted.
+ */
+@Component
+@Profile("in-memory")
+public class InMemoryTransactionRunner implements TransactionRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryTransactionRunner.class);
+
+    private final InMemoryDocumentStore store;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final Counter committed;
+    private final Counter retried;
+    private final Counter aborted;
+
+    public InMemoryTransactionRunner(InMemoryDocumentStore store,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.in-memory.transaction.max-attempts:5}") int maxAttempts,
+                                     @Value("${app.in-memory.transaction.initial-backoff:1ms}") Duration initialBackoff) {
+        this.store = store;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.committed = outcomeCounter(meterRegistry, "committed");
+        this.retried = outcomeCounter(meterRegistry, "retried");
+        this.aborted = outcomeCounter(meterRegistry, "aborted");
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("brightminds.inmemory.transactions")
+                .description("In-memory transaction attempts by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public <T> T run(Callback<T> callback) throws ExecutionException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            InMemoryTransaction transaction = new InMemoryTransaction();
+            T result;
+            try {
+                result = callback.apply(transaction);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ExecutionException(e);
+            }
+            store.simulateLatency();
+            boolean committedWrites;
+            try {
+                committedWrites = store.commit(transaction.readVersions, transaction.queryReads, transaction.writes);
+            } catch (IllegalStateException e) {
+                throw new ExecutionException(e);
+            }
+            if (committedWrites) {
+                committed.increment();
+                return result;
+            }
+            if (attempt >= maxAttempts) {
+                aborted.increment();
+                throw new ExecutionException(new ConcurrentModificationException(
+                        "Transaction aborted after " + attempt + " attempts due to contention"));
+            }
+            retried.increment();
+            logger.debug("In-memory transaction conflicted on attempt {}; retrying.", attempt);
+            backoff(attempt);
+        }
+    }
+
+    private void backoff(int attempt) throws InterruptedException {
+        long ceiling = initialBackoffNanos << Math.min(attempt - 1, 10);
+        if (ceiling > 0) {
+            Thread.sleep(Duration.ofNanos(ThreadLocalRandom.current().nextLong(ceiling + 1)));
+        }
+    }
+
+    @Override
+    public String newDocumentId(String collectionPath) {
+        return store.newDocumentId();
+    }
+
+    private class InMemoryTransaction implements DocumentTransaction {
+
+        private final Map<String, Long> readVersions = new LinkedHashMap<>();
+        private final List<InMemoryDocumentStore.QueryRead> queryReads = new ArrayList<>();
+        private final List<InMemoryDocumentStore.Write> writes = new ArrayList<>();
+
+        @Override
+        public <T> Optional<T> get(String documentPath, Class<T> type) throws InterruptedException {
+            checkNoWrites();
+            store.simulateLatency();
+            InMemoryDocumentStore.StoredDocument document = store.lookup(documentPath);
+            readVersions.putIfAbsent(documentPath, document != null ? document.version() : 0L);
+            return Optional.ofNullable(document).map(found -> store.toModel(found, type));
+        }
+
+        @Override
+        public <T> List<T> query(DocumentQuery query, Class<T> type) throws InterruptedException {
+            checkNoWrites();
+            store.simulateLatency();
+            List<InMemoryDocumentStore.StoredDocument> documents = store.run(query);
+            queryReads.add(new InMemoryDocumentStore.QueryRead(query, store.versionsOf(query.getCollectionPath(), documents)));
+            return documents.stream().map(document -> store.toModel(document, type)).toList();
+        }
+
+        @Override
+        public void set(String documentPath, Object data) {
+            writes.add(new InMemoryDocumentStore.Write(documentPath, data));
+        }
+
+        @Override
+        public void update(String documentPath, DocumentUpdate update) {
+            writes.add(InMemoryDocumentStore.Write.update(documentPath, update));
+        }
+
+        @Override
+        public void increment(String documentPath, String field, long delta) {
+            writes.add(InMemoryDocumentStore.Write.merge(documentPath, DocumentUpdate.fields().increment(field, delta)));
+        }
+
+        @Override
+        public void delete(String documentPath) {
+            writes.add(new InMemoryDocumentStore.Write(documentPath, null));
+        }
+
+        private void checkNoWrites() {
+            if (!writes.isEmpty()) {
+                throw new IllegalStateException("Transactions require all reads to be executed before all writes.");
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package citu.jisaz.brightminds_backend.repository.inmemory;
+
+import citu.jisaz.brightminds_backend.model.User;
+import citu.jisaz.brightminds_backend.repository.AsyncUserRepository;
+import citu.jisaz.brightminds_backend.repository.DocumentPaths;
+import citu.jisaz.brightminds_backend.repository.DocumentQuery;
+import citu.jisaz.brightminds_backend.repository.UserRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+@Repository("inMemoryUserRepository")
+@Profile("in-memory")
+public class InMemoryUserRepository implements UserRepository, AsyncUserRepository {
+
+    private static final String COLLECTION_NAME = "users";
+    private final InMemoryDocumentStore store;
+
+    public InMemoryUserRepository(InMemoryDocumentStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public User save(User user) throws ExecutionException, InterruptedException {
+        return saveAsync(user).get();
+    }
+
+    @Override
+    public Optional<User> findById(String userId) throws ExecutionException, InterruptedException {
+        return findByIdAsync(userId).get();
+    }
+
+    @Override
+    public Optional<User> findFieldsById(String userId, String... fieldPaths) throws ExecutionException, InterruptedException {
+        return findFieldsByIdAsync(userId, fieldPaths).get();
+    }
+
+    @Override
+    public List<User> findAllById(Collection<String> userIds) throws ExecutionException, InterruptedException {
+        return findAllByIdAsync(userIds).get();
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) throws ExecutionException, InterruptedException {
+        return findByEmailAsync(email).get();
+    }
+
+    @Override
+    public CompletableFuture<User> saveAsync(User user) {
+        if (user.getUserId() == null || user.getUserId().isEmpty()) {
+            throw new IllegalArgumentException("User ID cannot be null or empty when saving.");
+        }
+        user.setUpdatedAt(null);
+        return store.save(DocumentPaths.of(COLLECTION_NAME, user.getUserId()), user, User.class, "createdAt").thenApply(stored -> {
+            user.setCreatedAt(stored.getCreatedAt());
+            user.setUpdatedAt(stored.getUpdatedAt());
+            return user;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Optional<User>> findByIdAsync(String userId) {
+        return store.get(DocumentPaths.of(COLLECTION_NAME, userId), User.class);
+    }
+
+    @Override
+    public CompletableFuture<Optional<User>> findFieldsByIdAsync(String userId, String... fieldPaths) {
+        return store.getFields(DocumentPaths.of(COLLECTION_NAME, userId), User.class, fieldPaths).thenApply(user -> {
+            user.ifPresent(found -> found.setUserId(userId));
+            return user;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<User>> findAllByIdAsync(Collection<String> userIds) {
+        return store.getAll(userIds.stream().map(userId -> DocumentPaths.of(COLLECTION_NAME, userId)).toList(), User.class);
+    }
+
+    @Override
+    public CompletableFuture<Optional<User>> findByEmailAsync(String email) {
+        return store.query(DocumentQuery.collection(COLLECTION_NAME).whereEqualTo("email", email).limit(1), User.class)
+                .thenApply(users -> users.stream().findFirst());
+    }
+}
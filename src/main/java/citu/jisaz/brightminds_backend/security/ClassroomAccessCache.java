@@ -0,0 +1,122 @@
+package citu.jisaz.brightminds_backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches what a user is to a classroom, as resolved by the {@code @PreAuthorize} checks in
+ * {@code ClassroomService}. {@link Access#NONE} is cached too, with a shorter TTL, so repeated denied or
+ * non-owner checks don't go back to Firestore. Enrollment changes and classroom creation invalidate the exact
+ * (user, classroom) pair; the TTLs bound staleness for writes made by other instances.
+ * <p>
+ * A decision is resolved from reads that may predate a concurrent enrollment change, so callers take a
+ * {@link #version} before reading and {@link #put} drops the decision if the pair was invalidated since.
+ */
+@Component
+public class ClassroomAccessCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClassroomAccessCache.class);
+    private static final String CACHE_NAME = "classroomAccess";
+
+    public enum Access { OWNER, ENROLLED, NONE }
+
+    private record Key(String userId, String classroomId) {}
+
+    private final Cache<Key, Access> cache;
+    // Last invalidation per pair. Kept for the TTL, far longer than any check takes; values never repeat.
+    private final Cache<Key, Long> invalidations;
+    private final AtomicLong invalidationCount = new AtomicLong();
+    private final Counter firestoreReadsAvoided;
+
+    public ClassroomAccessCache(MeterRegistry meterRegistry,
+                                @Value("${app.security.classroom-access-cache.maximum-size:10000}") long maximumSize,
+                                @Value("${app.security.classroom-access-cache.ttl:5m}") Duration ttl,
+                                @Value("${app.security.classroom-access-cache.negative-ttl:30s}") Duration negativeTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new AccessExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+        this.invalidations = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.firestoreReadsAvoided = Counter.builder("brightminds.auth.classroom.access.firestore.reads.avoided")
+                .description("Firestore document reads skipped because a classroom access decision was cached")
+                .register(meterRegistry);
+    }
+
+    public Access getIfPresent(String userId, String classroomId) {
+        Access access = cache.getIfPresent(new Key(userId, classroomId));
+        if (access != null) {
+            // Every uncached ownership or enrollment check costs one document read.
+            firestoreReadsAvoided.increment();
+        }
+        return access;
+    }
+
+    /**
+     * To be taken before the reads a decision is resolved from, and passed to {@link #put}.
+     */
+    public long version(String userId, String classroomId) {
+        Long version = invalidations.getIfPresent(new Key(userId, classroomId));
+        return version != null ? version : 0L;
+    }
+
+    /**
+     * Caches the decision unless the pair was invalidated after {@code version} was taken.
+     */
+    public void put(String userId, String classroomId, Access access, long version) {
+        Key key = new Key(userId, classroomId);
+        // Checked and stored under the pair's lock, which invalidate takes too.
+        cache.asMap().compute(key, (k, current) -> version(userId, classroomId) == version ? access : current);
+    }
+
+    public void invalidate(String userId, String classroomId) {
+        if (userId != null && classroomId != null) {
+            Key key = new Key(userId, classroomId);
+            cache.asMap().compute(key, (k, current) -> {
+                invalidations.put(key, invalidationCount.incrementAndGet());
+                return null;
+            });
+            logger.trace("Classroom access entry invalidated for user ID: {} and classroom ID: {}", userId, classroomId);
+        }
+    }
+
+    private static final class AccessExpiry implements Expiry<Key, Access> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        private AccessExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(Key key, Access value, long currentTime) {
+            return value == Access.NONE ? negativeTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, Access value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, Access value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package citu.jisaz.brightminds_backend.security;
 
-import com.google.firebase.auth.FirebaseToken;
 import lombok.Getter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
@@ -14,10 +13,10 @@ import java.util.Objects;
 public class FirebaseAuthenticationToken extends AbstractAuthenticationToken {
 
     private final User principalUser;
-    private final FirebaseToken firebaseTokenDetails; // Storing the verified token details
+    private final IdTokenClaims firebaseTokenDetails; // Storing the verified token details
 
     public FirebaseAuthenticationToken(User principalUser,
-                                       FirebaseToken firebaseTokenDetails,
+                                       IdTokenClaims firebaseTokenDetails,
                                        Collection<? extends GrantedAuthority> authorities) {
         super(authorities != null ? Collections.unmodifiableCollection(authorities) : Collections.emptyList());
 
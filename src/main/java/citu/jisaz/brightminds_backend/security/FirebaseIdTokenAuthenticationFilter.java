@@ -3,9 +3,7 @@ package citu.jisaz.brightminds_backend.security;
 import citu.jisaz.brightminds_backend.exception.FirebaseAuthenticationException;
 import citu.jisaz.brightminds_backend.model.User;
 import citu.jisaz.brightminds_backend.repository.UserRepository;
-import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
-import com.google.firebase.auth.FirebaseToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -28,11 +26,15 @@ import java.util.concurrent.ExecutionException;
 public class FirebaseIdTokenAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(FirebaseIdTokenAuthenticationFilter.class);
-    private final FirebaseAuth firebaseAuth;
+    private final FirebaseIdTokenCache idTokenCache;
+    private final PrincipalUserCache principalUserCache;
     private final UserRepository userRepository;
 
-    public FirebaseIdTokenAuthenticationFilter(FirebaseAuth firebaseAuth, UserRepository userRepository) {
-        this.firebaseAuth = firebaseAuth;
+    public FirebaseIdTokenAuthenticationFilter(FirebaseIdTokenCache idTokenCache,
+                                               PrincipalUserCache principalUserCache,
+                                               UserRepository userRepository) {
+        this.idTokenCache = idTokenCache;
+        this.principalUserCache = principalUserCache;
         this.userRepository = userRepository;
     }
 
@@ -50,26 +52,31 @@ public class FirebaseIdTokenAuthenticationFilter extends OncePerRequestFilter {
         }
 
         try {
-            FirebaseToken decodedToken = firebaseAuth.verifyIdToken(idTokenString, true);
+            IdTokenClaims decodedToken = idTokenCache.verify(idTokenString);
             String uid = decodedToken.getUid();
 
-            User appUser = userRepository.findById(uid)
-                    .orElseThrow(() -> {
-                        logger.warn("Firebase token verified for UID {}, but no user in application DB.", uid);
-                        return new FirebaseAuthenticationException("User account not found in application records. UID: " + uid, true);
-                    });
+            User appUser = principalUserCache.getIfPresent(uid);
+            if (appUser == null) {
+                // Principals only carry the ID and role; a field-mask read skips the rest of the document.
+                appUser = userRepository.findFieldsById(uid, "role")
+                        .orElseThrow(() -> {
+                            logger.warn("Firebase token verified for UID {}, but no user in application DB.", uid);
+                            return new FirebaseAuthenticationException("User account not found in application records. UID: " + uid, true);
+                        });
+                principalUserCache.put(appUser);
+            }
 
             List<GrantedAuthority> authorities = new ArrayList<>();
             if (StringUtils.hasText(appUser.getRole())) {
                 authorities.add(new SimpleGrantedAuthority("ROLE_" + appUser.getRole().toUpperCase()));
             } else {
-                logger.warn("User {} (UID: {}) has no role defined. Application may behave unexpectedly.", appUser.getDisplayName(), uid);
+                logger.warn("User (UID: {}) has no role defined. Application may behave unexpectedly.", uid);
             }
 
             FirebaseAuthenticationToken authentication = new FirebaseAuthenticationToken(appUser, decodedToken, authorities);
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            logger.debug("User {} (UID: {}) authenticated with authorities: {}", appUser.getDisplayName(), uid, authorities);
+            logger.debug("User (UID: {}) authenticated with authorities: {}", uid, authorities);
 
         } catch (FirebaseAuthException e) {
             handleAuthException(response, "Invalid or revoked Firebase ID Token: " + e.getMessage(), e, HttpStatus.UNAUTHORIZED);
@@ -88,7 +95,7 @@ public class FirebaseIdTokenAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private String extractTokenFromRequest(HttpServletRequest request) {
+    String extractTokenFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
@@ -0,0 +1,224 @@
+package citu.jisaz.brightminds_backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.AuthErrorCode;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps verified Firebase ID tokens in memory until their {@code exp} claim, keyed by a SHA-256 hash of the raw token.
+ * Only a cache miss verifies on the request thread (via {@link FirebaseIdTokenVerifier}); revocation of cached tokens
+ * is checked in the background, right after a token was verified locally and then once per
+ * {@code app.security.token-cache.revocation-check-interval}. A token such a check finds revoked, or whose user is
+ * disabled or gone, is remembered until its {@code exp} and rejected before it is verified locally again.
+ */
+@Component
+public class FirebaseIdTokenCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirebaseIdTokenCache.class);
+    private static final String CACHE_NAME = "firebaseIdTokens";
+
+    // Error codes that mean the token must not be served from the cache any more.
+    private static final Set<AuthErrorCode> INVALIDATING_ERROR_CODES = Set.of(
+            AuthErrorCode.REVOKED_ID_TOKEN, AuthErrorCode.EXPIRED_ID_TOKEN, AuthErrorCode.INVALID_ID_TOKEN,
+            AuthErrorCode.USER_DISABLED, AuthErrorCode.USER_NOT_FOUND);
+
+    private final FirebaseAuth firebaseAuth;
+    private final FirebaseIdTokenVerifier idTokenVerifier;
+    private final long revocationCheckIntervalNanos;
+    private final Cache<String, CachedIdToken> cache;
+    private final Cache<String, RejectedIdToken> rejected;
+    private final ThreadPoolExecutor revocationCheckExecutor;
+    private final Counter revocationChecksPassed;
+    private final Counter revocationChecksRejected;
+    private final Counter revocationChecksFailed;
+
+    public FirebaseIdTokenCache(FirebaseAuth firebaseAuth,
+                                FirebaseIdTokenVerifier idTokenVerifier,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.security.token-cache.maximum-size:10000}") long maximumSize,
+                                @Value("${app.security.token-cache.revocation-check-interval:5m}") Duration revocationCheckInterval) {
+        this.firebaseAuth = firebaseAuth;
+        this.idTokenVerifier = idTokenVerifier;
+        this.revocationCheckIntervalNanos = revocationCheckInterval.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ExpireAtTokenExpiry<CachedIdToken>(cached -> cached.expiresAtMillis))
+                .recordStats()
+                .build();
+        this.rejected = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ExpireAtTokenExpiry<RejectedIdToken>(RejectedIdToken::expiresAtMillis))
+                .build();
+        this.revocationCheckExecutor = new ThreadPoolExecutor(1, 2, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1000), runnable -> {
+                    Thread thread = new Thread(runnable, "firebase-token-revocation-check");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.revocationChecksPassed = revocationCheckCounter(meterRegistry, "valid");
+        this.revocationChecksRejected = revocationCheckCounter(meterRegistry, "invalidated");
+        this.revocationChecksFailed = revocationCheckCounter(meterRegistry, "error");
+    }
+
+    /**
+     * Returns the decoded token, verifying it only on a cache miss.
+     */
+    public IdTokenClaims verify(String idToken) throws FirebaseAuthException {
+        String key = hash(idToken);
+        checkNotRejected(key);
+        CachedIdToken cached = cache.getIfPresent(key);
+        if (cached != null) {
+            scheduleRevocationCheckIfDue(key, idToken, cached);
+            return cached.token;
+        }
+
+        FirebaseIdTokenVerifier.VerifiedIdToken verified = idTokenVerifier.verify(idToken);
+        IdTokenClaims decodedToken = verified.token();
+        // A locally verified token has not been checked for revocation yet, so make its first check due immediately.
+        long lastRevocationCheckNanos = verified.revocationChecked()
+                ? System.nanoTime()
+                : System.nanoTime() - revocationCheckIntervalNanos;
+        CachedIdToken created = new CachedIdToken(decodedToken, decodedToken.getExpiresAtMillis(), lastRevocationCheckNanos);
+        cache.put(key, created);
+        // A revocation check that finished while this token was being verified must not be undone by the put.
+        if (rejected.getIfPresent(key) != null) {
+            cache.invalidate(key);
+            checkNotRejected(key);
+        }
+        scheduleRevocationCheckIfDue(key, idToken, created);
+        return decodedToken;
+    }
+
+    private void checkNotRejected(String key) throws FirebaseAuthException {
+        RejectedIdToken rejection = rejected.getIfPresent(key);
+        if (rejection != null) {
+            throw new FirebaseAuthException(ErrorCode.INVALID_ARGUMENT,
+                    "Firebase ID token was rejected by an earlier revocation check (" + rejection.errorCode() + ").",
+                    null, null, rejection.errorCode());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        revocationCheckExecutor.shutdownNow();
+    }
+
+    private void scheduleRevocationCheckIfDue(String key, String idToken, CachedIdToken cached) {
+        if (System.nanoTime() - cached.lastRevocationCheckNanos < revocationCheckIntervalNanos
+                || !cached.revocationCheckInFlight.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            revocationCheckExecutor.execute(() -> checkRevocation(key, idToken, cached));
+        } catch (RejectedExecutionException e) {
+            // Queue is full; the next request carrying this token will try again.
+            cached.revocationCheckInFlight.set(false);
+            logger.debug("Revocation check for cached token of UID {} rejected; queue is full.", cached.token.getUid());
+        }
+    }
+
+    private void checkRevocation(String key, String idToken, CachedIdToken cached) {
+        try {
+            firebaseAuth.verifyIdToken(idToken, true);
+            cached.lastRevocationCheckNanos = System.nanoTime();
+            revocationChecksPassed.increment();
+        } catch (FirebaseAuthException e) {
+            if (INVALIDATING_ERROR_CODES.contains(e.getAuthErrorCode())) {
+                rejected.put(key, new RejectedIdToken(e.getAuthErrorCode(), cached.expiresAtMillis));
+                cache.invalidate(key);
+                revocationChecksRejected.increment();
+                logger.info("Cached ID token for UID {} is no longer valid ({}). Removed from token cache.",
+                        cached.token.getUid(), e.getAuthErrorCode());
+            } else {
+                // Transient failure talking to Firebase; keep the entry and retry on a later request.
+                revocationChecksFailed.increment();
+                logger.warn("Background revocation check failed for UID {}: {}", cached.token.getUid(), e.getMessage());
+            }
+        } finally {
+            cached.revocationCheckInFlight.set(false);
+        }
+    }
+
+    private static Counter revocationCheckCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("brightminds.auth.token.revocation.checks")
+                .description("Background revocation checks of cached Firebase ID tokens")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String hash(String idToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(idToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available on this JVM.", e);
+        }
+    }
+
+    private static final class CachedIdToken {
+        private final IdTokenClaims token;
+        private final long expiresAtMillis;
+        private volatile long lastRevocationCheckNanos;
+        private final AtomicBoolean revocationCheckInFlight = new AtomicBoolean(false);
+
+        private CachedIdToken(IdTokenClaims token, long expiresAtMillis, long lastRevocationCheckNanos) {
+            this.token = token;
+            this.expiresAtMillis = expiresAtMillis;
+            this.lastRevocationCheckNanos = lastRevocationCheckNanos;
+        }
+    }
+
+    private record RejectedIdToken(AuthErrorCode errorCode, long expiresAtMillis) {}
+
+    private static final class ExpireAtTokenExpiry<V> implements Expiry<String, V> {
+
+        private final ToLongFunction<V> expiresAtMillis;
+
+        private ExpireAtTokenExpiry(ToLongFunction<V> expiresAtMillis) {
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, V value, long currentTime) {
+            long remainingMillis = expiresAtMillis.applyAsLong(value) - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, V value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
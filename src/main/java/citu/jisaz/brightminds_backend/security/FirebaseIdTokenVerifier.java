@@ -0,0 +1,168 @@
+package citu.jisaz.brightminds_backend.security;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.ImplFirebaseTrampolines;
+import com.google.firebase.auth.AuthErrorCode;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Verifies Firebase ID tokens in-process: RS256 signature against {@link FirebaseSigningKeyStore}, plus the
+ * {@code aud}, {@code iss}, {@code sub}, {@code iat}, {@code auth_time} and {@code exp} claims as documented for
+ * third-party JWT verification. When no local key matches (keys not loaded yet, or rotated since the last refresh)
+ * it falls back to {@link FirebaseAuth#verifyIdToken(String, boolean)}.
+ * <p>
+ * Local verification cannot see revocation; the returned {@link VerifiedIdToken} says whether that was checked so
+ * {@link FirebaseIdTokenCache} can schedule the check in the background.
+ */
+@Component
+public class FirebaseIdTokenVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirebaseIdTokenVerifier.class);
+    private static final String ISSUER_PREFIX = "https://securetoken.google.com/";
+    private static final TypeReference<Map<String, Object>> CLAIMS_TYPE = new TypeReference<>() {};
+
+    private final FirebaseAuth firebaseAuth;
+    private final FirebaseSigningKeyStore keyStore;
+    private final String configuredProjectId;
+    private final long clockSkewSeconds;
+    private final Clock clock;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile String projectId;
+
+    public record VerifiedIdToken(IdTokenClaims token, boolean revocationChecked) {}
+
+    @Autowired
+    public FirebaseIdTokenVerifier(FirebaseAuth firebaseAuth,
+                                   FirebaseSigningKeyStore keyStore,
+                                   @Value("${app.firebase.project-id:}") String configuredProjectId,
+                                   @Value("${app.security.id-token.clock-skew:60s}") Duration clockSkew) {
+        this(firebaseAuth, keyStore, configuredProjectId, clockSkew, Clock.systemUTC());
+    }
+
+    FirebaseIdTokenVerifier(FirebaseAuth firebaseAuth, FirebaseSigningKeyStore keyStore,
+                            String configuredProjectId, Duration clockSkew, Clock clock) {
+        this.firebaseAuth = firebaseAuth;
+        this.keyStore = keyStore;
+        this.configuredProjectId = configuredProjectId;
+        this.clockSkewSeconds = clockSkew.toSeconds();
+        this.clock = clock;
+    }
+
+    public VerifiedIdToken verify(String idToken) throws FirebaseAuthException {
+        String[] parts = idToken.split("\\.", -1);
+        if (parts.length != 3) {
+            throw invalidToken("ID token must have three dot-separated segments.", null);
+        }
+
+        Map<String, Object> header = decodeSegment(parts[0]);
+        if (!"RS256".equals(header.get("alg"))) {
+            throw invalidToken("ID token has incorrect algorithm. Expected RS256 but got " + header.get("alg") + ".", null);
+        }
+        String keyId = header.get("kid") instanceof String kid ? kid : null;
+        PublicKey key = keyStore.getKey(keyId);
+        String expectedProjectId = resolveProjectId();
+        if (key == null || expectedProjectId == null) {
+            logger.debug("No local signing key for kid {} (keys loaded: {}). Falling back to Firebase Admin SDK verification.",
+                    keyId, keyStore.hasKeys());
+            return new VerifiedIdToken(IdTokenClaims.of(firebaseAuth.verifyIdToken(idToken, true)), true);
+        }
+
+        verifySignature(parts, key);
+        Map<String, Object> claims = decodeSegment(parts[1]);
+        verifyClaims(claims, expectedProjectId);
+        return new VerifiedIdToken(new IdTokenClaims(claims), false);
+    }
+
+    private void verifySignature(String[] parts, PublicKey key) throws FirebaseAuthException {
+        try {
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initVerify(key);
+            signature.update((parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII));
+            if (!signature.verify(Base64.getUrlDecoder().decode(parts[2]))) {
+                throw invalidToken("ID token has an invalid signature.", null);
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw invalidToken("ID token signature could not be verified: " + e.getMessage(), e);
+        }
+    }
+
+    private void verifyClaims(Map<String, Object> claims, String expectedProjectId) throws FirebaseAuthException {
+        long now = clock.instant().getEpochSecond();
+
+        if (!expectedProjectId.equals(claims.get("aud"))) {
+            throw invalidToken("ID token has incorrect \"aud\" (audience) claim. Expected " + expectedProjectId
+                    + " but got " + claims.get("aud") + ".", null);
+        }
+        String expectedIssuer = ISSUER_PREFIX + expectedProjectId;
+        if (!expectedIssuer.equals(claims.get("iss"))) {
+            throw invalidToken("ID token has incorrect \"iss\" (issuer) claim. Expected " + expectedIssuer
+                    + " but got " + claims.get("iss") + ".", null);
+        }
+        if (!(claims.get("sub") instanceof String subject) || subject.isEmpty() || subject.length() > 128) {
+            throw invalidToken("ID token has an empty or invalid \"sub\" (subject) claim.", null);
+        }
+
+        long expiresAt = numericClaim(claims, "exp");
+        if (now - clockSkewSeconds >= expiresAt) {
+            throw new FirebaseAuthException(ErrorCode.INVALID_ARGUMENT, "Firebase ID token has expired.",
+                    null, null, AuthErrorCode.EXPIRED_ID_TOKEN);
+        }
+        if (numericClaim(claims, "iat") > now + clockSkewSeconds) {
+            throw invalidToken("ID token has \"iat\" (issued-at) claim in the future.", null);
+        }
+        if (claims.containsKey("auth_time") && numericClaim(claims, "auth_time") > now + clockSkewSeconds) {
+            throw invalidToken("ID token has \"auth_time\" claim in the future.", null);
+        }
+    }
+
+    private long numericClaim(Map<String, Object> claims, String name) throws FirebaseAuthException {
+        if (claims.get(name) instanceof Number value) {
+            return value.longValue();
+        }
+        throw invalidToken("ID token is missing the numeric \"" + name + "\" claim.", null);
+    }
+
+    private Map<String, Object> decodeSegment(String segment) throws FirebaseAuthException {
+        try {
+            return objectMapper.readValue(Base64.getUrlDecoder().decode(segment), CLAIMS_TYPE);
+        } catch (IOException | IllegalArgumentException e) {
+            throw invalidToken("ID token segment could not be decoded.", e);
+        }
+    }
+
+    private String resolveProjectId() {
+        if (projectId == null) {
+            if (StringUtils.hasText(configuredProjectId)) {
+                projectId = configuredProjectId;
+            } else if (!FirebaseApp.getApps().isEmpty()) {
+                projectId = ImplFirebaseTrampolines.getProjectId(FirebaseApp.getInstance());
+            }
+        }
+        return projectId;
+    }
+
+    private static FirebaseAuthException invalidToken(String message, Throwable cause) {
+        return new FirebaseAuthException(ErrorCode.INVALID_ARGUMENT, message, cause, null, AuthErrorCode.INVALID_ID_TOKEN);
+    }
+}
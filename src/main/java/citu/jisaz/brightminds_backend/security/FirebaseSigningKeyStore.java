@@ -0,0 +1,151 @@
+package citu.jisaz.brightminds_backend.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local copy of the public keys Google signs Firebase ID tokens with, fetched from the JWK endpoint and
+ * refreshed on a background thread ahead of the endpoint's {@code Cache-Control: max-age}, so request threads
+ * never wait on a key download. The last good key set is kept when a refresh fails.
+ */
+@Component
+public class FirebaseSigningKeyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirebaseSigningKeyStore.class);
+    private static final Pattern MAX_AGE_PATTERN = Pattern.compile("max-age=(\\d+)");
+
+    private final URI jwksUri;
+    private final Duration refreshAhead;
+    private final Duration retryInterval;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService scheduler;
+
+    private volatile Map<String, PublicKey> keysById = Map.of();
+
+    public FirebaseSigningKeyStore(
+            @Value("${app.security.id-token.jwks-uri:https://www.googleapis.com/service_accounts/v1/jwk/securetoken@system.gserviceaccount.com}") URI jwksUri,
+            @Value("${app.security.id-token.key-refresh-ahead:10m}") Duration refreshAhead,
+            @Value("${app.security.id-token.key-retry-interval:30s}") Duration retryInterval) {
+        this.jwksUri = jwksUri;
+        this.refreshAhead = refreshAhead;
+        this.retryInterval = retryInterval;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "firebase-signing-key-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        // Load asynchronously so startup doesn't depend on Google being reachable; until the first load
+        // completes, FirebaseIdTokenVerifier falls back to the Admin SDK.
+        scheduler.execute(this::refreshAndReschedule);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public PublicKey getKey(String keyId) {
+        return keyId == null ? null : keysById.get(keyId);
+    }
+
+    public boolean hasKeys() {
+        return !keysById.isEmpty();
+    }
+
+    /**
+     * Downloads the current key set and returns how long the endpoint says it may be cached.
+     */
+    public Duration refresh() throws IOException, InterruptedException, GeneralSecurityException {
+        HttpRequest request = HttpRequest.newBuilder(jwksUri)
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Signing key endpoint " + jwksUri + " returned HTTP " + response.statusCode());
+        }
+
+        Map<String, PublicKey> refreshedKeys = parseJwks(response.body());
+        if (refreshedKeys.isEmpty()) {
+            throw new IOException("Signing key endpoint " + jwksUri + " returned no RSA keys.");
+        }
+        keysById = Map.copyOf(refreshedKeys);
+
+        Duration maxAge = response.headers().firstValue("Cache-Control")
+                .map(MAX_AGE_PATTERN::matcher)
+                .filter(Matcher::find)
+                .map(matcher -> Duration.ofSeconds(Long.parseLong(matcher.group(1))))
+                .orElse(Duration.ofHours(1));
+        logger.info("Loaded {} Firebase signing keys from {} (max-age {}s).", refreshedKeys.size(), jwksUri, maxAge.toSeconds());
+        return maxAge;
+    }
+
+    private void refreshAndReschedule() {
+        Duration nextRefresh;
+        try {
+            Duration maxAge = refresh();
+            nextRefresh = maxAge.minus(refreshAhead);
+            if (nextRefresh.compareTo(retryInterval) < 0) {
+                nextRefresh = retryInterval;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            logger.warn("Failed to refresh Firebase signing keys from {}: {}. Keeping {} cached keys; retrying in {}s.",
+                    jwksUri, e.getMessage(), keysById.size(), retryInterval.toSeconds());
+            nextRefresh = retryInterval;
+        }
+        if (!scheduler.isShutdown()) {
+            scheduler.schedule(this::refreshAndReschedule, nextRefresh.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Map<String, PublicKey> parseJwks(String body) throws IOException, GeneralSecurityException {
+        JsonNode keys = objectMapper.readTree(body).path("keys");
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        Map<String, PublicKey> parsed = new HashMap<>();
+        for (JsonNode key : keys) {
+            if (!"RSA".equals(key.path("kty").asText()) || !key.hasNonNull("kid")) {
+                continue;
+            }
+            BigInteger modulus = new BigInteger(1, decoder.decode(key.path("n").asText()));
+            BigInteger exponent = new BigInteger(1, decoder.decode(key.path("e").asText()));
+            parsed.put(key.get("kid").asText(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+        }
+        return parsed;
+    }
+}
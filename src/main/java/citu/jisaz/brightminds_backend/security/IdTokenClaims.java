@@ -0,0 +1,36 @@
+package citu.jisaz.brightminds_backend.security;
+
+import com.google.firebase.auth.FirebaseToken;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The claims of a verified Firebase ID token, as carried through authentication. Tokens verified in-process are
+ * built straight from their claims, so nothing depends on how the Admin SDK constructs its own {@link FirebaseToken}.
+ */
+public record IdTokenClaims(Map<String, Object> claims) {
+
+    public IdTokenClaims {
+        claims = Collections.unmodifiableMap(new LinkedHashMap<>(claims));
+    }
+
+    /**
+     * For tokens verified by {@link com.google.firebase.auth.FirebaseAuth#verifyIdToken(String, boolean)}.
+     */
+    public static IdTokenClaims of(FirebaseToken token) {
+        return new IdTokenClaims(token.getClaims());
+    }
+
+    public String getUid() {
+        return claims.get("sub") instanceof String subject ? subject : null;
+    }
+
+    /**
+     * The {@code exp} claim in epoch milliseconds, or 0 if it is missing.
+     */
+    public long getExpiresAtMillis() {
+        return claims.get("exp") instanceof Number expSeconds ? expSeconds.longValue() * 1000L : 0L;
+    }
+}
@@ -0,0 +1,54 @@
+package citu.jisaz.brightminds_backend.security;
+
+import citu.jisaz.brightminds_backend.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of the {@link User} principals the authentication filter builds. They are field-mask reads
+ * holding only the user ID and role.
+ * Services that rewrite a user document call {@link #invalidate(String)} so the next request rebuilds the principal;
+ * the TTL bounds staleness for writes made by other instances.
+ */
+@Component
+public class PrincipalUserCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalUserCache.class);
+    private static final String CACHE_NAME = "principalUsers";
+
+    private final Cache<String, User> cache;
+
+    public PrincipalUserCache(MeterRegistry meterRegistry,
+                              @Value("${app.security.principal-cache.maximum-size:10000}") long maximumSize,
+                              @Value("${app.security.principal-cache.ttl:30s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public User getIfPresent(String userId) {
+        return cache.getIfPresent(userId);
+    }
+
+    public void put(User user) {
+        cache.put(user.getUserId(), user);
+    }
+
+    public void invalidate(String userId) {
+        if (userId != null) {
+            cache.invalidate(userId);
+            logger.trace("Principal cache entry invalidated for user ID: {}", userId);
+        }
+    }
+}
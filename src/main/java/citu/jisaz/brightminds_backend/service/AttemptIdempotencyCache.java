@@ -0,0 +1,97 @@
+package citu.jisaz.brightminds_backend.service;
+
+import citu.jisaz.brightminds_backend.dto.UserDTO;
+import citu.jisaz.brightminds_backend.exception.BadRequestException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Front cache for game attempt submissions carrying an {@code Idempotency-Key}. The first submission of a
+ * (student, key) pair on this instance runs; a retry arriving while it is still running waits for its result, and
+ * one arriving later gets the cached result, both without touching Firestore. A failed submission is not cached,
+ * so its retry runs again. Retries that reach another instance, or come after the entry expired, are caught by the
+ * attempt stored under the key in {@link StudentGameAttemptService}. As there, a key reused for a different assigned
+ * game is rejected rather than answered with the other game's result.
+ */
+@Component
+public class AttemptIdempotencyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttemptIdempotencyCache.class);
+    private static final String CACHE_NAME = "attemptIdempotency";
+
+    @FunctionalInterface
+    public interface Submission {
+        UserDTO process() throws ExecutionException, InterruptedException;
+    }
+
+    private record Key(String studentId, String idempotencyKey) {}
+
+    private record Submitted(String classroomId, String assignedGameId, CompletableFuture<UserDTO> result) {}
+
+    private final Cache<Key, Submitted> cache;
+    private final Counter duplicatesAbsorbed;
+
+    public AttemptIdempotencyCache(MeterRegistry meterRegistry,
+                                   @Value("${app.game-attempts.idempotency-cache.maximum-size:10000}") long maximumSize,
+                                   @Value("${app.game-attempts.idempotency-cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.duplicatesAbsorbed = Counter.builder("brightminds.game.attempts.duplicates.absorbed")
+                .description("Game attempt retries answered from the idempotency cache without a Firestore call")
+                .register(meterRegistry);
+    }
+
+    public UserDTO getOrProcess(String studentId, String idempotencyKey, String classroomId, String assignedGameId,
+                                Submission submission) throws ExecutionException, InterruptedException {
+        Key key = new Key(studentId, idempotencyKey);
+        while (true) {
+            Submitted pending = new Submitted(classroomId, assignedGameId, new CompletableFuture<>());
+            Submitted existing = cache.asMap().putIfAbsent(key, pending);
+            if (existing == null) {
+                return process(key, pending, submission);
+            }
+            try {
+                UserDTO result = existing.result().get();
+                if (!Objects.equals(existing.classroomId(), classroomId)
+                        || !Objects.equals(existing.assignedGameId(), assignedGameId)) {
+                    throw new BadRequestException("Idempotency-Key was already used for a different game attempt.");
+                }
+                duplicatesAbsorbed.increment();
+                logger.debug("Duplicate game attempt with idempotency key {} from student {} answered from cache.", idempotencyKey, studentId);
+                return result;
+            } catch (ExecutionException e) {
+                // The submission this retry duplicated failed and dropped its entry; process the retry itself.
+                logger.debug("Earlier submission with idempotency key {} from student {} failed; processing the retry.", idempotencyKey, studentId);
+            }
+        }
+    }
+
+    private UserDTO process(Key key, Submitted pending, Submission submission)
+            throws ExecutionException, InterruptedException {
+        try {
+            UserDTO result = submission.process();
+            pending.result().complete(result);
+            return result;
+        } catch (ExecutionException | InterruptedException | RuntimeException | Error e) {
+            cache.asMap().remove(key, pending);
+            pending.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+}
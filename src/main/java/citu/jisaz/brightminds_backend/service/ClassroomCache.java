@@ -0,0 +1,228 @@
+package citu.jisaz.brightminds_backend.service;
+
+import citu.jisaz.brightminds_backend.model.Classroom;
+import citu.jisaz.brightminds_backend.repository.AsyncClassroomRepository;
+import citu.jisaz.brightminds_backend.repository.ClassroomDocumentWatcher;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.cloud.firestore.ListenerRegistration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classroom documents, as last read on this instance. Each caller says how stale a copy it accepts: a copy older
+ * than that is read again. {@code ClassroomService} writes the classroom back after each of its transactions, so
+ * this instance reads its own writes.
+ * <p>
+ * A classroom read {@code app.classroom-cache.watch-after-reads} times gets a document listener, up to
+ * {@code app.classroom-cache.maximum-watched} at once, so writes from other instances are seen as they happen;
+ * while its listener is up a copy is current whatever its age. A listener ends when its entry is evicted or after a
+ * failure, and the classroom falls back to the callers' staleness limits. Entries are dropped after
+ * {@code app.classroom-cache.expire-after-access} without reads.
+ */
+@Component
+public class ClassroomCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClassroomCache.class);
+    private static final String CACHE_NAME = "classrooms";
+
+    private record Entry(Classroom classroom, long loadedNanos, boolean fromListener, AtomicInteger reads) {}
+
+    private final AsyncClassroomRepository classroomRepository;
+    private final ClassroomDocumentWatcher watcher;
+    private final int watchAfterReads;
+    private final int maximumWatched;
+    private final Cache<String, Entry> cache;
+    private final Map<String, ListenerRegistration> watches = new ConcurrentHashMap<>();
+    // Bumped by every invalidate, so a read-through that started before one does not bring the entry back.
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+
+    public ClassroomCache(AsyncClassroomRepository classroomRepository,
+                          ObjectProvider<ClassroomDocumentWatcher> watcher,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.classroom-cache.maximum-size:10000}") long maximumSize,
+                          @Value("${app.classroom-cache.expire-after-access:10m}") Duration expireAfterAccess,
+                          @Value("${app.classroom-cache.watch-after-reads:20}") int watchAfterReads,
+                          @Value("${app.classroom-cache.maximum-watched:500}") int maximumWatched) {
+        this.classroomRepository = classroomRepository;
+        this.watcher = watcher.getIfAvailable();
+        this.watchAfterReads = watchAfterReads;
+        this.maximumWatched = maximumWatched;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .removalListener((String classroomId, Entry entry, RemovalCause cause) -> {
+                    if (cause != RemovalCause.REPLACED) {
+                        unwatch(classroomId);
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.hits = requests(meterRegistry, "hit");
+        this.staleHits = requests(meterRegistry, "stale");
+        this.misses = requests(meterRegistry, "miss");
+        Gauge.builder("brightminds.classroom.cache.hit.ratio", this, ClassroomCache::hitRatio)
+                .description("Share of classroom lookups answered from the cache within the caller's staleness limit")
+                .register(meterRegistry);
+        Gauge.builder("brightminds.classroom.cache.watched", watches, Map::size)
+                .description("Classrooms followed by a document listener")
+                .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("brightminds.classroom.cache.requests")
+                .description("Classroom lookups: hit, stale (cached but older than the caller accepts) or miss")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public Optional<Classroom> get(String classroomId, Duration maxStaleness) throws ExecutionException, InterruptedException {
+        return getAsync(classroomId, maxStaleness).get();
+    }
+
+    /**
+     * The classroom, from the cache if the copy there is at most {@code maxStaleness} old or kept current by a
+     * listener, otherwise read and cached. The caller gets its own copy.
+     */
+    public CompletableFuture<Optional<Classroom>> getAsync(String classroomId, Duration maxStaleness) {
+        Entry entry = cache.getIfPresent(classroomId);
+        if (entry != null) {
+            countRead(classroomId, entry);
+            if (isFresh(classroomId, entry, maxStaleness)) {
+                hits.increment();
+                return CompletableFuture.completedFuture(Optional.of(entry.classroom().toBuilder().build()));
+            }
+            staleHits.increment();
+        } else {
+            misses.increment();
+        }
+        long readStartNanos = System.nanoTime();
+        long invalidationsAtStart = invalidations.get();
+        return classroomRepository.findByIdAsync(classroomId).thenApply(classroom -> {
+            storeLoaded(classroomId, classroom, readStartNanos, invalidationsAtStart);
+            return classroom;
+        });
+    }
+
+    /**
+     * The cached classroom if it is fresh enough, without reading Firestore otherwise.
+     */
+    public Optional<Classroom> getIfPresent(String classroomId, Duration maxStaleness) {
+        Entry entry = cache.getIfPresent(classroomId);
+        if (entry == null || !isFresh(classroomId, entry, maxStaleness)) {
+            return Optional.empty();
+        }
+        countRead(classroomId, entry);
+        hits.increment();
+        return Optional.of(entry.classroom().toBuilder().build());
+    }
+
+    /**
+     * Stores the classroom as committed. Counts applied from the counter shards must not be on it yet: the cache
+     * holds the document.
+     */
+    public void put(Classroom classroom) {
+        store(classroom.getClassroomId(), classroom, false);
+    }
+
+    public void invalidate(String classroomId) {
+        invalidations.incrementAndGet();
+        cache.invalidate(classroomId);
+    }
+
+    private void store(String classroomId, Classroom classroom, boolean fromListener) {
+        Entry stored = new Entry(classroom.toBuilder().build(), System.nanoTime(), fromListener, new AtomicInteger());
+        cache.asMap().merge(classroomId, stored, (previous, next) ->
+                new Entry(next.classroom(), next.loadedNanos(), next.fromListener(), previous.reads()));
+    }
+
+    /**
+     * Stores what a read-through returned, unless the cache learned something newer while the read was in flight:
+     * an entry written after the read started, or an invalidation. The entry is aged from the read's start.
+     */
+    private void storeLoaded(String classroomId, Optional<Classroom> classroom, long readStartNanos, long invalidationsAtStart) {
+        cache.asMap().compute(classroomId, (id, current) -> {
+            if (current != null && current.loadedNanos() - readStartNanos >= 0) {
+                return current;
+            }
+            if (current == null && invalidations.get() != invalidationsAtStart) {
+                return null;
+            }
+            return classroom
+                    // A listener that delivered the current copy keeps the loaded one current as well.
+                    .map(loaded -> new Entry(loaded.toBuilder().build(), readStartNanos, current != null && current.fromListener(),
+                            current != null ? current.reads() : new AtomicInteger()))
+                    .orElse(null);
+        });
+    }
+
+    private boolean isFresh(String classroomId, Entry entry, Duration maxStaleness) {
+        if (entry.fromListener() && watches.containsKey(classroomId)) {
+            return true;
+        }
+        return System.nanoTime() - entry.loadedNanos() <= maxStaleness.toNanos();
+    }
+
+    private void countRead(String classroomId, Entry entry) {
+        int reads = entry.reads().incrementAndGet();
+        // Retried every watchAfterReads reads, in case the limit was reached or an earlier listener failed.
+        if (watcher != null && reads % watchAfterReads == 0 && watches.size() < maximumWatched) {
+            watches.computeIfAbsent(classroomId, id -> {
+                logger.debug("Watching classroom {} after {} reads.", id, reads);
+                return watcher.watch(id, classroom -> onChange(id, classroom), error -> onError(id, error));
+            });
+        }
+    }
+
+    private void onChange(String classroomId, Optional<Classroom> classroom) {
+        if (classroom.isPresent()) {
+            store(classroomId, classroom.get(), true);
+        } else {
+            invalidate(classroomId);
+        }
+    }
+
+    private void onError(String classroomId, Throwable error) {
+        logger.warn("Classroom listener for {} failed; its cached copy now ages normally.", classroomId, error);
+        unwatch(classroomId);
+    }
+
+    private void unwatch(String classroomId) {
+        ListenerRegistration registration = watches.remove(classroomId);
+        if (registration != null) {
+            registration.remove();
+        }
+    }
+
+    private double hitRatio() {
+        double lookups = hits.count() + staleHits.count() + misses.count();
+        return lookups == 0 ? Double.NaN : hits.count() / lookups;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watches.keySet().forEach(this::unwatch);
+    }
+}
@@ -0,0 +1,116 @@
+package citu.jisaz.brightminds_backend.service;
+
+import citu.jisaz.brightminds_backend.model.Classroom;
+import citu.jisaz.brightminds_backend.repository.AsyncClassroomCounterRepository;
+import citu.jisaz.brightminds_backend.repository.ClassroomCounterRepository;
+import citu.jisaz.brightminds_backend.repository.ClassroomCounts;
+import citu.jisaz.brightminds_backend.repository.DocumentPaths;
+import citu.jisaz.brightminds_backend.repository.DocumentTransaction;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Distributed counters for a classroom's studentCount and activityCount. Each change is a blind increment of one
+ * of {@code app.classroom-counters.shards} shard documents picked at random, so concurrent enrollments neither
+ * rewrite the classroom document nor contend on a single counter document. A count is the value stored on the
+ * classroom document (its total from before the counters were sharded) plus the sum of its shards.
+ * <p>
+ * Sums are cached for {@code app.classroom-counters.cache.ttl}; changes made through this instance invalidate the
+ * classroom's entry once their transaction has committed, so counts from other instances are at most that stale.
+ */
+@Service
+public class ClassroomCounterService {
+
+    private static final String CLASSROOMS_COLLECTION = "classrooms";
+    private static final String CACHE_NAME = "classroomCounts";
+
+    private final AsyncClassroomCounterRepository counterRepository;
+    private final int shardCount;
+    private final Cache<String, ClassroomCounts> cache;
+
+    public ClassroomCounterService(AsyncClassroomCounterRepository counterRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.classroom-counters.shards:10}") int shardCount,
+                                   @Value("${app.classroom-counters.cache.maximum-size:10000}") long maximumSize,
+                                   @Value("${app.classroom-counters.cache.ttl:10s}") Duration ttl) {
+        this.counterRepository = counterRepository;
+        this.shardCount = shardCount;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public void incrementStudentCount(DocumentTransaction transaction, String classroomId, long delta) {
+        increment(transaction, classroomId, ClassroomCounterRepository.STUDENT_COUNT_FIELD, delta);
+    }
+
+    public void incrementActivityCount(DocumentTransaction transaction, String classroomId, long delta) {
+        increment(transaction, classroomId, ClassroomCounterRepository.ACTIVITY_COUNT_FIELD, delta);
+    }
+
+    private void increment(DocumentTransaction transaction, String classroomId, String field, long delta) {
+        String shardId = String.valueOf(ThreadLocalRandom.current().nextInt(shardCount));
+        transaction.increment(DocumentPaths.of(CLASSROOMS_COLLECTION, classroomId, ClassroomCounterRepository.SHARDS_SUBCOLLECTION, shardId),
+                field, delta);
+    }
+
+    /**
+     * Drops the cached sums of a classroom. Call after the transaction that changed its counters has committed.
+     */
+    public void invalidate(String classroomId) {
+        cache.invalidate(classroomId);
+    }
+
+    public Classroom applyCounts(Classroom classroom) throws ExecutionException, InterruptedException {
+        applyCounts(List.of(classroom));
+        return classroom;
+    }
+
+    /**
+     * Sets the current studentCount and activityCount on each classroom. Sums that are not cached are fetched
+     * concurrently.
+     */
+    public void applyCounts(Collection<Classroom> classrooms) throws ExecutionException, InterruptedException {
+        List<CompletableFuture<ClassroomCounts>> sums = new ArrayList<>(classrooms.size());
+        for (Classroom classroom : classrooms) {
+            sums.add(sumShards(classroom.getClassroomId()));
+        }
+        int i = 0;
+        for (Classroom classroom : classrooms) {
+            ClassroomCounts counts = sums.get(i++).get();
+            classroom.setStudentCount(total(classroom.getStudentCount(), counts.studentCount()));
+            classroom.setActivityCount(total(classroom.getActivityCount(), counts.activityCount()));
+        }
+    }
+
+    private CompletableFuture<ClassroomCounts> sumShards(String classroomId) {
+        ClassroomCounts cached = cache.getIfPresent(classroomId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return counterRepository.sumShardsAsync(classroomId).thenApply(counts -> {
+            cache.put(classroomId, counts);
+            return counts;
+        });
+    }
+
+    private static int total(Integer base, long shardSum) {
+        // A decrement can land on a different shard than the increment it undoes, so only the total is kept >= 0.
+        return (int) Math.max(0, (base != null ? base : 0) + shardSum);
+    }
+}
@@ -1,34 +1,50 @@
 package citu.jisaz.brightminds_backend.service;
 
+import citu.jisaz.brightminds_backend.config.PaginationConfig;
 import citu.jisaz.brightminds_backend.dto.*;
 import citu.jisaz.brightminds_backend.exception.BadRequestException;
 import citu.jisaz.brightminds_backend.exception.ResourceNotFoundException;
 import citu.jisaz.brightminds_backend.exception.UserNotFoundException;
 import citu.jisaz.brightminds_backend.model.AssignedGame;
 import citu.jisaz.brightminds_backend.model.Classroom;
+import citu.jisaz.brightminds_backend.model.ClassroomEnrollment;
 import citu.jisaz.brightminds_backend.model.Game;
 import citu.jisaz.brightminds_backend.model.User;
 import citu.jisaz.brightminds_backend.repository.AssignedGameRepository;
+import citu.jisaz.brightminds_backend.repository.AsyncAssignedGameRepository;
 import citu.jisaz.brightminds_backend.repository.ClassroomRepository;
+import citu.jisaz.brightminds_backend.repository.CursorPage;
+import citu.jisaz.brightminds_backend.repository.DocumentConsumer;
+import citu.jisaz.brightminds_backend.repository.DocumentPaths;
+import citu.jisaz.brightminds_backend.repository.DocumentQuery;
+import citu.jisaz.brightminds_backend.repository.DocumentUpdate;
+import citu.jisaz.brightminds_backend.repository.FirestoreUnitOfWork;
 import citu.jisaz.brightminds_backend.repository.GameRepository;
+import citu.jisaz.brightminds_backend.repository.TransactionRunner;
 import citu.jisaz.brightminds_backend.repository.UserRepository;
+import citu.jisaz.brightminds_backend.security.ClassroomAccessCache;
+import citu.jisaz.brightminds_backend.security.PrincipalUserCache;
 
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.*;
+import com.google.cloud.firestore.FieldValue;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,51 +52,75 @@ public class ClassroomService {
 
     private static final Logger logger = LoggerFactory.getLogger(ClassroomService.class);
 
-    private final Firestore db;
+    private final TransactionRunner transactionRunner;
     private final ClassroomRepository classroomRepository;
     private final UserRepository userRepository;
     private final AssignedGameRepository assignedGameRepository;
     private final GameRepository gameRepository;
+    private final PrincipalUserCache principalUserCache;
+    private final ClassroomAccessCache classroomAccessCache;
+    private final AsyncAssignedGameRepository asyncAssignedGameRepository;
+    private final PaginationConfig paginationConfig;
+    private final ClassroomCounterService classroomCounterService;
+    private final ClassroomCache classroomCache;
+    // How old a cached classroom each kind of caller accepts. Checks only look at teacherId, which never changes,
+    // and at whether the classroom exists.
+    private final Duration readMaxStaleness;
+    private final Duration checkMaxStaleness;
 
     // Collection name constants
     private static final String USERS_COLLECTION = "users";
     private static final String CLASSROOMS_COLLECTION = "classrooms";
     private static final String ASSIGNED_GAMES_SUBCOLLECTION = "assignedGames";
     private static final String ENROLLED_STUDENTS_SUBCOLLECTION = "enrolledStudents";
+    private static final int ROSTER_STREAM_BATCH_SIZE = 100;
 
 
-    public ClassroomService(Firestore db,
+    public ClassroomService(TransactionRunner transactionRunner,
                             ClassroomRepository classroomRepository,
                             UserRepository userRepository,
                             AssignedGameRepository assignedGameRepository,
-                            GameRepository gameRepository) {
-        this.db = db;
+                            GameRepository gameRepository,
+                            PrincipalUserCache principalUserCache,
+                            ClassroomAccessCache classroomAccessCache,
+                            AsyncAssignedGameRepository asyncAssignedGameRepository,
+                            PaginationConfig paginationConfig,
+                            ClassroomCounterService classroomCounterService,
+                            ClassroomCache classroomCache,
+                            @Value("${app.classroom-cache.max-staleness.read:5s}") Duration readMaxStaleness,
+                            @Value("${app.classroom-cache.max-staleness.check:5m}") Duration checkMaxStaleness) {
+        this.transactionRunner = transactionRunner;
         this.classroomRepository = classroomRepository;
         this.userRepository = userRepository;
         this.assignedGameRepository = assignedGameRepository;
         this.gameRepository = gameRepository;
+        this.principalUserCache = principalUserCache;
+        this.classroomAccessCache = classroomAccessCache;
+        this.asyncAssignedGameRepository = asyncAssignedGameRepository;
+        this.paginationConfig = paginationConfig;
+        this.classroomCounterService = classroomCounterService;
+        this.classroomCache = classroomCache;
+        this.readMaxStaleness = readMaxStaleness;
+        this.checkMaxStaleness = checkMaxStaleness;
     }
 
     public ClassroomDTO createClassroom(CreateClassroomRequestDTO createRequest, String teacherId)
             throws ExecutionException, InterruptedException {
         logger.debug("Service: Attempting to create classroom with name '{}' by teacherId: {}", createRequest.getName(), teacherId);
-        Classroom savedClassroom = db.runTransaction(transaction -> {
-            DocumentReference teacherRef = db.collection(USERS_COLLECTION).document(teacherId);
-            DocumentSnapshot teacherSnap = transaction.get(teacherRef).get();
-            if (!teacherSnap.exists()) {
+        Classroom savedClassroom = transactionRunner.run(transaction -> {
+            String teacherPath = DocumentPaths.of(USERS_COLLECTION, teacherId);
+            User teacher = transaction.get(teacherPath, User.class).orElseThrow(() -> {
                 logger.warn("Service TX: Teacher with ID: {} not found during classroom creation.", teacherId);
-                throw new UserNotFoundException("Teacher not found with ID: " + teacherId);
-            }
-            User teacher = Objects.requireNonNull(teacherSnap.toObject(User.class),
-                    "Teacher data could not be mapped for ID: " + teacherId);
+                return new UserNotFoundException("Teacher not found with ID: " + teacherId);
+            });
             if (!"TEACHER".equalsIgnoreCase(teacher.getRole())) {
                 logger.warn("Service TX: User with ID: {} is not a teacher. Role: {}", teacherId, teacher.getRole());
                 throw new BadRequestException("User with ID: " + teacherId + " is not a teacher.");
             }
 
-            DocumentReference newClassroomRef = db.collection(CLASSROOMS_COLLECTION).document();
+            String newClassroomId = transactionRunner.newDocumentId(CLASSROOMS_COLLECTION);
             Classroom classroom = Classroom.builder()
-                    .classroomId(newClassroomRef.getId())
+                    .classroomId(newClassroomId)
                     .name(createRequest.getName())
                     .description(createRequest.getDescription())
                     .iconUrl(createRequest.getIconUrl())
@@ -90,37 +130,40 @@ public class ClassroomService {
                     .studentCount(0).activityCount(0)
                     .createdAt(null).updatedAt(null)
                     .build();
-            transaction.set(newClassroomRef, classroom);
+            transaction.set(DocumentPaths.of(CLASSROOMS_COLLECTION, newClassroomId), classroom);
             logger.debug("Service TX: Classroom object set for new ID: {}", classroom.getClassroomId());
 
-            List<String> teacherClassrooms = new ArrayList<>(teacher.getTeacherOfClassrooms());
-            teacherClassrooms.add(classroom.getClassroomId());
-            teacher.setTeacherOfClassrooms(teacherClassrooms);
-            transaction.set(teacherRef, teacher);
+            transaction.update(teacherPath, DocumentUpdate.fields().arrayUnion("teacherOfClassrooms", classroom.getClassroomId()));
             logger.debug("Service TX: Teacher {}'s classroom list updated with new classroomId: {}", teacherId, classroom.getClassroomId());
             return classroom;
-        }).get();
+        });
+        FirestoreUnitOfWork.evict(DocumentPaths.of(USERS_COLLECTION, teacherId));
+        principalUserCache.invalidate(teacherId);
+        classroomAccessCache.invalidate(teacherId, savedClassroom.getClassroomId());
 
         logger.info("Service: Classroom '{}' (ID: {}) created successfully by teacher {} (ID: {}) with code: {}",
                 savedClassroom.getName(), savedClassroom.getClassroomId(), savedClassroom.getTeacherName(), teacherId, savedClassroom.getUniqueCode());
-        return convertToDTO(classroomRepository.findById(savedClassroom.getClassroomId()).orElse(savedClassroom));
+        Classroom createdClassroom = classroomRepository.findById(savedClassroom.getClassroomId()).orElse(savedClassroom);
+        classroomCache.put(createdClassroom);
+        return convertToDTO(createdClassroom);
     }
 
     public ClassroomDTO getClassroomById(String classroomId) throws ExecutionException, InterruptedException {
         logger.debug("Service: Fetching classroom by ID: {}", classroomId);
-        Classroom classroom = classroomRepository.findById(classroomId)
+        Classroom classroom = classroomCache.get(classroomId, readMaxStaleness)
                 .orElseThrow(() -> {
                     logger.warn("Service: Classroom not found with ID: {}", classroomId);
                     return new ResourceNotFoundException("Classroom", "ID", classroomId);
                 });
-        return convertToDTO(classroom);
+        return convertToDTO(classroomCounterService.applyCounts(classroom));
     }
 
-    public List<ClassroomDTO> getClassroomsByTeacherId(String teacherId) throws ExecutionException, InterruptedException {
-        logger.debug("Service: Fetching all classrooms for teacherId: {}", teacherId);
-        return classroomRepository.findAllByTeacherId(teacherId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<ClassroomDTO> getClassroomsByTeacherId(String teacherId, Integer pageSize, String pageToken)
+            throws ExecutionException, InterruptedException {
+        logger.debug("Service: Fetching a page of classrooms for teacherId: {}", teacherId);
+        CursorPage<Classroom> page = classroomRepository.findPageByTeacherId(teacherId, paginationConfig.resolvePageSize(pageSize), pageToken);
+        classroomCounterService.applyCounts(page.items());
+        return page.map(this::convertToDTO);
     }
 
     public List<ClassroomDTO> getClassroomsByStudentId(String studentId) throws ExecutionException, InterruptedException {
@@ -134,80 +177,76 @@ public class ClassroomService {
             logger.debug("Service: Student {} has no enrolled classrooms listed in User object.", studentId);
             return new ArrayList<>();
         }
-        List<ClassroomDTO> classrooms = new ArrayList<>();
-        for (String classroomIdFromList : student.getStudentOfClassrooms()) {
-            logger.trace("Service: Fetching details for student's enrolled classroomId: {} (studentId: {})", classroomIdFromList, studentId);
-            classroomRepository.findById(classroomIdFromList).ifPresent(c -> classrooms.add(convertToDTO(c)));
-        }
-        return classrooms;
+        logger.trace("Service: Fetching details for {} enrolled classrooms of studentId: {}", student.getStudentOfClassrooms().size(), studentId);
+        List<Classroom> classrooms = classroomRepository.findAllById(student.getStudentOfClassrooms());
+        classroomCounterService.applyCounts(classrooms);
+        return classrooms.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
     }
 
     public ClassroomDTO updateClassroom(String classroomId, String teacherId, UpdateClassroomRequestDTO updateRequest)
             throws ExecutionException, InterruptedException {
         logger.debug("Service: Attempting to update classroomId: {} by teacherId: {}", classroomId, teacherId);
-        Classroom updatedClassroom = db.runTransaction(transaction -> {
-            DocumentReference classroomRef = db.collection(CLASSROOMS_COLLECTION).document(classroomId);
-            DocumentSnapshot classroomSnap = transaction.get(classroomRef).get();
-            if (!classroomSnap.exists()) {
+        Classroom updatedClassroom = transactionRunner.run(transaction -> {
+            String classroomPath = DocumentPaths.of(CLASSROOMS_COLLECTION, classroomId);
+            Classroom classroom = transaction.get(classroomPath, Classroom.class).orElseThrow(() -> {
                 logger.warn("Service TX: Classroom with ID: {} not found for update operation.", classroomId);
-                throw new ResourceNotFoundException("Classroom", "ID", classroomId);
-            }
-            Classroom classroom = Objects.requireNonNull(classroomSnap.toObject(Classroom.class),
-                    "Classroom data could not be mapped for ID: " + classroomId);
+                return new ResourceNotFoundException("Classroom", "ID", classroomId);
+            });
 
             if (!Objects.equals(classroom.getTeacherId(), teacherId)) {
                 logger.warn("Service TX: TeacherId: {} is not the owner of classroomId: {}. Actual owner is: {}", teacherId, classroomId, classroom.getTeacherId());
                 throw new BadRequestException("User " + teacherId + " is not the owner of classroom " + classroomId);
             }
-            boolean needsUpdateInDb = false;
+            DocumentUpdate changes = DocumentUpdate.fields();
             if (StringUtils.hasText(updateRequest.getName()) && !Objects.equals(updateRequest.getName(), classroom.getName())) {
-                classroom.setName(updateRequest.getName()); needsUpdateInDb = true;
+                classroom.setName(updateRequest.getName()); changes = changes.set("name", classroom.getName());
             }
             if (updateRequest.getDescription() != null && !Objects.equals(updateRequest.getDescription(), classroom.getDescription())) {
-                classroom.setDescription(updateRequest.getDescription()); needsUpdateInDb = true;
+                classroom.setDescription(updateRequest.getDescription()); changes = changes.set("description", classroom.getDescription());
             }
             if (updateRequest.getIconUrl() != null && !Objects.equals(updateRequest.getIconUrl(), classroom.getIconUrl())) {
-                classroom.setIconUrl(updateRequest.getIconUrl()); needsUpdateInDb = true;
+                classroom.setIconUrl(updateRequest.getIconUrl()); changes = changes.set("iconUrl", classroom.getIconUrl());
             }
-            if (needsUpdateInDb) {
-                transaction.set(classroomRef, classroom);
+            if (!changes.isEmpty()) {
+                transaction.update(classroomPath, changes.serverTimestamp("updatedAt"));
                 logger.debug("Service TX: Classroom object updated in DB for ID: {}", classroomId);
             } else {
                 logger.debug("Service TX: No fields changed for classroom ID: {}. No DB update performed.", classroomId);
             }
             return classroom;
-        }).get();
+        });
+        // The transaction's copy lacks the server-set updatedAt, so neither it nor anything read back through this
+        // request's unit of work may be cached; read the committed document instead.
+        FirestoreUnitOfWork.evict(DocumentPaths.of(CLASSROOMS_COLLECTION, classroomId));
+        classroomCache.invalidate(classroomId);
 
         logger.info("Service: Classroom ID: {} updated successfully by teacherId: {}", classroomId, teacherId);
-        return convertToDTO(classroomRepository.findById(updatedClassroom.getClassroomId()).orElse(updatedClassroom));
+        Classroom currentClassroom = classroomCache.get(classroomId, Duration.ZERO).orElse(updatedClassroom);
+        return convertToDTO(classroomCounterService.applyCounts(currentClassroom));
     }
 
     public ClassroomDTO enrollStudentByCode(String studentId, String classroomCode)
             throws ExecutionException, InterruptedException {
         logger.debug("Service: StudentId: {} attempting enrollment with classroomCode: {}", studentId, classroomCode);
-        Classroom finalClassroomState = db.runTransaction(transaction -> {
-            DocumentReference studentRef = db.collection(USERS_COLLECTION).document(studentId);
-            DocumentSnapshot studentSnap = transaction.get(studentRef).get();
-            if (!studentSnap.exists()) {
+        Classroom finalClassroomState = transactionRunner.run(transaction -> {
+            String studentPath = DocumentPaths.of(USERS_COLLECTION, studentId);
+            User student = transaction.get(studentPath, User.class).orElseThrow(() -> {
                 logger.warn("Service TX: Student with ID: {} not found for enrollment by code.", studentId);
-                throw new UserNotFoundException("Student not found with ID: " + studentId);
-            }
-            User student = Objects.requireNonNull(studentSnap.toObject(User.class),
-                    "Student data could not be mapped for ID: " + studentId);
+                return new UserNotFoundException("Student not found with ID: " + studentId);
+            });
             if (!"STUDENT".equalsIgnoreCase(student.getRole())) {
                 logger.warn("Service TX: User with ID: {} is not a student. Role: {}", studentId, student.getRole());
                 throw new BadRequestException("User " + studentId + " is not a valid student.");
             }
 
-            Query classroomQuery = db.collection(CLASSROOMS_COLLECTION).whereEqualTo("uniqueCode", classroomCode).limit(1);
-            QuerySnapshot classroomQuerySnap = transaction.get(classroomQuery).get();
-            if (classroomQuerySnap.isEmpty()) {
+            DocumentQuery classroomQuery = DocumentQuery.collection(CLASSROOMS_COLLECTION).whereEqualTo("uniqueCode", classroomCode).limit(1);
+            Classroom classroom = transaction.query(classroomQuery, Classroom.class).stream().findFirst().orElseThrow(() -> {
                 logger.warn("Service TX: Classroom not found with code: {} for student enrollment.", classroomCode);
-                throw new ResourceNotFoundException("Classroom not found with code: " + classroomCode);
-            }
-            DocumentSnapshot classroomSnap = classroomQuerySnap.getDocuments().getFirst();
-            Classroom classroom = Objects.requireNonNull(classroomSnap.toObject(Classroom.class),
-                    "Classroom data could not be mapped for code: " + classroomCode);
+                return new ResourceNotFoundException("Classroom not found with code: " + classroomCode);
+            });
+            String classroomPath = DocumentPaths.of(CLASSROOMS_COLLECTION, classroom.getClassroomId());
 
             // Refined Log (Original line: 225, now around here)
             if (student.getStudentOfClassrooms().contains(classroom.getClassroomId())) {
@@ -216,57 +255,57 @@ public class ClassroomService {
                 return classroom;
             }
 
-            student.getStudentOfClassrooms().add(classroom.getClassroomId());
-            transaction.set(studentRef, student);
+            // arrayUnion rather than rewriting the user document with its whole classroom list.
+            transaction.update(studentPath, DocumentUpdate.fields().arrayUnion("studentOfClassrooms", classroom.getClassroomId()));
             logger.debug("Service TX: Student {} (ID: {})'s classroom list updated with classroomId: {}.", student.getDisplayName(), student.getUserId(), classroom.getClassroomId());
 
-            classroom.setStudentCount(classroom.getStudentCount() == null ? 1 : classroom.getStudentCount() + 1);
-            transaction.set(classroomSnap.getReference(), classroom);
-            logger.debug("Service TX: Classroom {} (ID: {}) student count incremented to {} after enrollment via code.", classroom.getName(), classroom.getClassroomId(), classroom.getStudentCount());
+            // A shard increment instead of rewriting the classroom, so a class joining at once doesn't contend on it.
+            classroomCounterService.incrementStudentCount(transaction, classroom.getClassroomId(), 1);
+            logger.debug("Service TX: Classroom {} (ID: {}) student count incremented after enrollment via code.", classroom.getName(), classroom.getClassroomId());
 
-            DocumentReference enrollmentRef = classroomSnap.getReference()
-                    .collection(ENROLLED_STUDENTS_SUBCOLLECTION).document(studentId);
+            String enrollmentPath = DocumentPaths.of(classroomPath, ENROLLED_STUDENTS_SUBCOLLECTION, studentId);
             Map<String, Object> enrollmentData = new HashMap<>();
             enrollmentData.put("studentName", student.getDisplayName());
             enrollmentData.put("studentEmail", student.getEmail());
             enrollmentData.put("dateEnrolled", FieldValue.serverTimestamp());
-            transaction.set(enrollmentRef, enrollmentData);
+            transaction.set(enrollmentPath, enrollmentData);
             logger.debug("Service TX: Enrollment subcollection record created for student {} in classroom {}.", studentId, classroom.getClassroomId());
             return classroom;
-        }).get();
+        });
+        FirestoreUnitOfWork.evict(DocumentPaths.of(USERS_COLLECTION, studentId));
+        principalUserCache.invalidate(studentId);
+        classroomAccessCache.invalidate(studentId, finalClassroomState.getClassroomId());
+        classroomCounterService.invalidate(finalClassroomState.getClassroomId());
+        // The classroom document itself was not written, so the copy read in the transaction is current.
+        classroomCache.put(finalClassroomState);
+        classroomCounterService.applyCounts(finalClassroomState);
 
         logger.info("Service: Student (ID: {}) successfully enrolled by code in classroom '{}' (ID: {}). New student count: {}.",
                 studentId, finalClassroomState.getName(), finalClassroomState.getClassroomId(), finalClassroomState.getStudentCount());
-        return convertToDTO(classroomRepository.findById(finalClassroomState.getClassroomId()).orElse(finalClassroomState));
+        return convertToDTO(finalClassroomState);
     }
 
     public ClassroomDTO addStudentToClassroomByEmail(String teacherId, String classroomId, String studentEmail)
             throws ExecutionException, InterruptedException {
         logger.debug("Service: TeacherId: {} adding student by email: {} to classroomId: {}", teacherId, studentEmail, classroomId);
-        Classroom finalClassroomState = db.runTransaction(transaction -> {
-            DocumentReference classroomRef = db.collection(CLASSROOMS_COLLECTION).document(classroomId);
-            DocumentSnapshot classroomSnap = transaction.get(classroomRef).get();
-            if (!classroomSnap.exists()) {
+        AtomicReference<String> enrolledStudentId = new AtomicReference<>();
+        Classroom finalClassroomState = transactionRunner.run(transaction -> {
+            String classroomPath = DocumentPaths.of(CLASSROOMS_COLLECTION, classroomId);
+            Classroom classroom = transaction.get(classroomPath, Classroom.class).orElseThrow(() -> {
                 logger.warn("Service TX: Classroom with ID: {} not found for adding student by email.", classroomId);
-                throw new ResourceNotFoundException("Classroom", "ID", classroomId);
-            }
-            Classroom classroom = Objects.requireNonNull(classroomSnap.toObject(Classroom.class),
-                    "Classroom data could not be mapped for ID: " + classroomId);
+                return new ResourceNotFoundException("Classroom", "ID", classroomId);
+            });
 
             if (!Objects.equals(classroom.getTeacherId(), teacherId)) {
                 logger.warn("Service TX: TeacherId: {} is not the owner of classroomId: {}. Actual owner: {}", teacherId, classroomId, classroom.getTeacherId());
                 throw new BadRequestException("User " + teacherId + " is not owner of classroom " + classroomId);
             }
 
-            Query studentQuery = db.collection(USERS_COLLECTION).whereEqualTo("email", studentEmail).limit(1);
-            QuerySnapshot studentQuerySnap = transaction.get(studentQuery).get();
-            if (studentQuerySnap.isEmpty()) {
+            DocumentQuery studentQuery = DocumentQuery.collection(USERS_COLLECTION).whereEqualTo("email", studentEmail).limit(1);
+            User student = transaction.query(studentQuery, User.class).stream().findFirst().orElseThrow(() -> {
                 logger.warn("Service TX: Student not found with email: {} for adding to classroom {}.", studentEmail, classroomId);
-                throw new UserNotFoundException("Student not found with email: " + studentEmail);
-            }
-            DocumentSnapshot studentSnap = studentQuerySnap.getDocuments().getFirst();
-            User student = Objects.requireNonNull(studentSnap.toObject(User.class),
-                    "Student data could not be mapped for email: " + studentEmail);
+                return new UserNotFoundException("Student not found with email: " + studentEmail);
+            });
             if (!"STUDENT".equalsIgnoreCase(student.getRole())) {
                 logger.warn("Service TX: User with email: {} is not a student. Role: {}", studentEmail, student.getRole());
                 throw new BadRequestException("User with email " + studentEmail + " is not a student.");
@@ -278,93 +317,98 @@ public class ClassroomService {
                 return classroom;
             }
 
-            student.getStudentOfClassrooms().add(classroomId);
-            transaction.set(studentSnap.getReference(), student);
+            transaction.update(DocumentPaths.of(USERS_COLLECTION, student.getUserId()),
+                    DocumentUpdate.fields().arrayUnion("studentOfClassrooms", classroomId));
+            enrolledStudentId.set(student.getUserId());
             logger.debug("Service TX: Student {} (Email: {})'s classroom list updated with classroomId: {}.", student.getDisplayName(), studentEmail, classroomId);
 
-            classroom.setStudentCount(classroom.getStudentCount() == null ? 1 : classroom.getStudentCount() + 1);
-            transaction.set(classroomRef, classroom);
-            logger.debug("Service TX: Classroom {} (ID: {}) student count incremented to {} after adding student by email.", classroom.getName(), classroomId, classroom.getStudentCount());
+            classroomCounterService.incrementStudentCount(transaction, classroomId, 1);
+            logger.debug("Service TX: Classroom {} (ID: {}) student count incremented after adding student by email.", classroom.getName(), classroomId);
 
 
-            DocumentReference enrollmentRef = classroomRef.collection(ENROLLED_STUDENTS_SUBCOLLECTION).document(student.getUserId());
+            String enrollmentPath = DocumentPaths.of(classroomPath, ENROLLED_STUDENTS_SUBCOLLECTION, student.getUserId());
             Map<String, Object> enrollmentData = new HashMap<>();
             enrollmentData.put("studentName", student.getDisplayName());
             enrollmentData.put("studentEmail", student.getEmail());
             enrollmentData.put("dateEnrolled", FieldValue.serverTimestamp());
-            transaction.set(enrollmentRef, enrollmentData);
+            transaction.set(enrollmentPath, enrollmentData);
             logger.debug("Service TX: Enrollment subcollection record created for student {} (Email: {}) in classroom {}.", student.getUserId(), studentEmail, classroomId);
             return classroom;
-        }).get();
+        });
+        if (enrolledStudentId.get() != null) {
+            FirestoreUnitOfWork.evict(DocumentPaths.of(USERS_COLLECTION, enrolledStudentId.get()));
+        }
+        principalUserCache.invalidate(enrolledStudentId.get());
+        classroomAccessCache.invalidate(enrolledStudentId.get(), classroomId);
+        classroomCounterService.invalidate(classroomId);
+        classroomCache.put(finalClassroomState);
+        classroomCounterService.applyCounts(finalClassroomState);
         logger.info("Service: Student (Email: {}) successfully added by teacher to classroom {} (ID: {}). New student count: {}",
                 studentEmail, finalClassroomState.getName(), finalClassroomState.getClassroomId(), finalClassroomState.getStudentCount());
-        return convertToDTO(classroomRepository.findById(finalClassroomState.getClassroomId()).orElse(finalClassroomState));
+        return convertToDTO(finalClassroomState);
     }
 
     public ClassroomDTO removeStudentFromClassroom(String teacherId, String classroomId, String studentIdToRemove)
             throws ExecutionException, InterruptedException {
         logger.debug("Service: TeacherId: {} removing studentId: {} from classroomId: {}", teacherId, studentIdToRemove, classroomId);
-        Classroom finalClassroomState = db.runTransaction(transaction -> {
-            DocumentReference classroomRef = db.collection(CLASSROOMS_COLLECTION).document(classroomId);
-            DocumentSnapshot classroomSnap = transaction.get(classroomRef).get();
-            if (!classroomSnap.exists()) {
+        Classroom finalClassroomState = transactionRunner.run(transaction -> {
+            String classroomPath = DocumentPaths.of(CLASSROOMS_COLLECTION, classroomId);
+            Classroom classroom = transaction.get(classroomPath, Classroom.class).orElseThrow(() -> {
                 logger.warn("Service TX: Classroom with ID: {} not found for student removal operation.", classroomId);
-                throw new ResourceNotFoundException("Classroom", "ID", classroomId);
-            }
-            Classroom classroom = Objects.requireNonNull(classroomSnap.toObject(Classroom.class),
-                    "Classroom data could not be mapped for ID: " + classroomId);
+                return new ResourceNotFoundException("Classroom", "ID", classroomId);
+            });
 
             if (!Objects.equals(classroom.getTeacherId(), teacherId)) {
                 logger.warn("Service TX: TeacherId: {} is not owner of classroomId: {}. Actual owner: {}", teacherId, classroomId, classroom.getTeacherId());
                 throw new BadRequestException("User " + teacherId + " is not owner of classroom " + classroomId);
             }
 
-            DocumentReference studentRef = db.collection(USERS_COLLECTION).document(studentIdToRemove);
-            DocumentSnapshot studentSnap = transaction.get(studentRef).get();
-            if (!studentSnap.exists()) {
-                logger.warn("Service TX: Student with ID: {} to remove not found.", studentIdToRemove);
-                throw new UserNotFoundException("Student to remove not found with ID: " + studentIdToRemove);
-            }
-            User student = Objects.requireNonNull(studentSnap.toObject(User.class),
-                    "Student data could not be mapped for ID to remove: " + studentIdToRemove);
-            // Refined Log (Original line: 318, now around here)
-            if (!student.getStudentOfClassrooms().contains(classroomId)) {
-                logger.info("Service TX: Student {} (ID: {}) for removal was not enrolled in classroom {} (ID: {}). No removal changes made.",
-                        student.getDisplayName(), studentIdToRemove, classroom.getName(), classroomId);
+            String studentPath = DocumentPaths.of(USERS_COLLECTION, studentIdToRemove);
+            String enrollmentPath = DocumentPaths.of(classroomPath, ENROLLED_STUDENTS_SUBCOLLECTION, studentIdToRemove);
+            // The enrollment record answers whether the student is enrolled, which keeps the user document, and the
+            // XP updates that write it, out of this transaction's read set.
+            Optional<ClassroomEnrollment> enrollment = transaction.get(enrollmentPath, ClassroomEnrollment.class);
+            if (enrollment.isEmpty()) {
+                if (transaction.get(studentPath, User.class).isEmpty()) {
+                    logger.warn("Service TX: Student with ID: {} to remove not found.", studentIdToRemove);
+                    throw new UserNotFoundException("Student to remove not found with ID: " + studentIdToRemove);
+                }
+                logger.info("Service TX: Student ID: {} for removal was not enrolled in classroom {} (ID: {}). No removal changes made.",
+                        studentIdToRemove, classroom.getName(), classroomId);
                 return classroom;
             }
 
-            student.getStudentOfClassrooms().remove(classroomId);
-            transaction.set(studentRef, student);
-            logger.debug("Service TX: Student {} (ID: {}) removed from classroom {} list in User object.", student.getDisplayName(), studentIdToRemove, classroomId);
+            transaction.update(studentPath, DocumentUpdate.fields().arrayRemove("studentOfClassrooms", classroomId));
+            logger.debug("Service TX: Student {} (ID: {}) removed from classroom {} list in User object.", enrollment.get().getStudentName(), studentIdToRemove, classroomId);
 
-            classroom.setStudentCount(Math.max(0, classroom.getStudentCount() == null ? 0 : classroom.getStudentCount() - 1));
-            transaction.set(classroomRef, classroom);
-            logger.debug("Service TX: Classroom {} (ID: {}) student count decremented to {} after removing student.", classroom.getName(), classroomId, classroom.getStudentCount());
+            classroomCounterService.incrementStudentCount(transaction, classroomId, -1);
+            logger.debug("Service TX: Classroom {} (ID: {}) student count decremented after removing student.", classroom.getName(), classroomId);
 
-            DocumentReference enrollmentRef = classroomRef.collection(ENROLLED_STUDENTS_SUBCOLLECTION).document(studentIdToRemove);
-            transaction.delete(enrollmentRef);
+            transaction.delete(enrollmentPath);
             logger.debug("Service TX: Enrollment subcollection record deleted for student {} in classroom {}.", studentIdToRemove, classroomId);
             return classroom;
-        }).get();
+        });
+        FirestoreUnitOfWork.evict(DocumentPaths.of(USERS_COLLECTION, studentIdToRemove));
+        principalUserCache.invalidate(studentIdToRemove);
+        classroomAccessCache.invalidate(studentIdToRemove, classroomId);
+        classroomCounterService.invalidate(classroomId);
+        classroomCache.put(finalClassroomState);
+        classroomCounterService.applyCounts(finalClassroomState);
         logger.info("Service: Student (ID: {}) successfully removed from classroom '{}' (ID: {}) by teacher. New student count: {}.",
                 studentIdToRemove, finalClassroomState.getName(), finalClassroomState.getClassroomId(), finalClassroomState.getStudentCount());
-        return convertToDTO(classroomRepository.findById(finalClassroomState.getClassroomId()).orElse(finalClassroomState));
+        return convertToDTO(finalClassroomState);
     }
 
     public AssignedGameDTO assignGameToClassroom(String teacherId, String classroomId, AssignGameRequestDTO assignRequest)
             throws ExecutionException, InterruptedException {
         logger.debug("Service: TeacherId: {} assigning game (LibID: {}) to classroomId: {} with due date: {}, maxAttempts: {}",
                 teacherId, assignRequest.getLibraryGameId(), classroomId, assignRequest.getDueDate(), assignRequest.getMaxAttemptsAllowed());
-        AssignedGame savedAssignment = db.runTransaction(transaction -> {
-            DocumentReference classroomRef = db.collection(CLASSROOMS_COLLECTION).document(classroomId);
-            DocumentSnapshot classroomSnap = transaction.get(classroomRef).get();
-            if (!classroomSnap.exists()) {
+        AssignedGame savedAssignment = transactionRunner.run(transaction -> {
+            String classroomPath = DocumentPaths.of(CLASSROOMS_COLLECTION, classroomId);
+            Classroom classroom = transaction.get(classroomPath, Classroom.class).orElseThrow(() -> {
                 logger.warn("Service TX: Classroom with ID: {} not found for game assignment.", classroomId);
-                throw new ResourceNotFoundException("Classroom", "ID", classroomId);
-            }
-            Classroom classroom = Objects.requireNonNull(classroomSnap.toObject(Classroom.class),
-                    "Classroom data could not be mapped for ID: " + classroomId);
+                return new ResourceNotFoundException("Classroom", "ID", classroomId);
+            });
 
             if (!Objects.equals(classroom.getTeacherId(), teacherId)) {
                 logger.warn("Service TX: TeacherId: {} is not owner of classroomId: {}. Actual owner: {}", teacherId, classroomId, classroom.getTeacherId());
@@ -379,9 +423,10 @@ public class ClassroomService {
                         return new ResourceNotFoundException("Game", "Library ID", assignRequest.getLibraryGameId());
                     });
 
-            DocumentReference newAssignedGameRef = classroomRef.collection(ASSIGNED_GAMES_SUBCOLLECTION).document();
+            String assignedGamesPath = DocumentPaths.of(classroomPath, ASSIGNED_GAMES_SUBCOLLECTION);
+            String newAssignedGameId = transactionRunner.newDocumentId(assignedGamesPath);
             AssignedGame.AssignedGameBuilder builder = AssignedGame.builder()
-                    .assignedGameId(newAssignedGameRef.getId())
+                    .assignedGameId(newAssignedGameId)
                     .libraryGameId(libraryGame.getLibraryGameId()).classroomId(classroomId)
                     .gameTitle(libraryGame.getTitle()).gameDescription(libraryGame.getDescription())
                     .gameUrlOrIdentifier(libraryGame.getGameUrlOrIdentifier())
@@ -394,15 +439,15 @@ public class ClassroomService {
             builder.maxAttemptsAllowed(assignRequest.getMaxAttemptsAllowed());
 
             AssignedGame newAssignment = builder.build();
-            transaction.set(newAssignedGameRef, newAssignment);
+            transaction.set(DocumentPaths.of(assignedGamesPath, newAssignedGameId), newAssignment);
             logger.debug("Service TX: New game (LibID: {}) assigned as ID: {} to classroomId: {}. MaxAttempts set to: {}",
                     libraryGame.getLibraryGameId(), newAssignment.getAssignedGameId(), classroomId, newAssignment.getMaxAttemptsAllowed());
 
-            classroom.setActivityCount(classroom.getActivityCount() == null ? 1 : classroom.getActivityCount() + 1);
-            transaction.set(classroomRef, classroom);
-            logger.debug("Service TX: Classroom {} (ID: {}) activity count incremented to {} after game assignment.", classroom.getName(), classroomId, classroom.getActivityCount());
+            classroomCounterService.incrementActivityCount(transaction, classroomId, 1);
+            logger.debug("Service TX: Classroom {} (ID: {}) activity count incremented after game assignment.", classroom.getName(), classroomId);
             return newAssignment;
-        }).get();
+        });
+        classroomCounterService.invalidate(classroomId);
         logger.info("Service: Game '{}' (LibID: {}) assigned as new ID: {} to classroomId: {} by teacherId: {}. MaxAttempts: {}.",
                 savedAssignment.getGameTitle(), savedAssignment.getLibraryGameId(), savedAssignment.getAssignedGameId(),
                 classroomId, teacherId, savedAssignment.getMaxAttemptsAllowed());
@@ -413,57 +458,120 @@ public class ClassroomService {
     public void removeGameFromClassroom(String teacherId, String classroomId, String assignedGameId)
             throws ExecutionException, InterruptedException {
         logger.debug("Service: TeacherId: {} removing assignedGameId: {} from classroomId: {}", teacherId, assignedGameId, classroomId);
-        db.runTransaction(transaction -> {
-            DocumentReference classroomRef = db.collection(CLASSROOMS_COLLECTION).document(classroomId);
-            DocumentSnapshot classroomSnap = transaction.get(classroomRef).get();
-            if (!classroomSnap.exists()) {
+        transactionRunner.run(transaction -> {
+            String classroomPath = DocumentPaths.of(CLASSROOMS_COLLECTION, classroomId);
+            Classroom classroom = transaction.get(classroomPath, Classroom.class).orElseThrow(() -> {
                 logger.warn("Service TX: Classroom with ID: {} not found for game removal.", classroomId);
-                throw new ResourceNotFoundException("Classroom", "ID", classroomId);
-            }
-            Classroom classroom = Objects.requireNonNull(classroomSnap.toObject(Classroom.class),
-                    "Classroom data could not be mapped for ID: " + classroomId);
+                return new ResourceNotFoundException("Classroom", "ID", classroomId);
+            });
 
             if (!Objects.equals(classroom.getTeacherId(), teacherId)) {
                 logger.warn("Service TX: TeacherId: {} is not owner of classroomId: {}. Actual owner: {}", teacherId, classroomId, classroom.getTeacherId());
                 throw new BadRequestException("User " + teacherId + " is not owner of classroom " + classroomId);
             }
-            DocumentReference assignedGameRef = classroomRef.collection(ASSIGNED_GAMES_SUBCOLLECTION).document(assignedGameId);
-            DocumentSnapshot assignedGameSnap = transaction.get(assignedGameRef).get();
-            if (!assignedGameSnap.exists()) {
+            String assignedGamePath = DocumentPaths.of(classroomPath, ASSIGNED_GAMES_SUBCOLLECTION, assignedGameId);
+            if (transaction.get(assignedGamePath, AssignedGame.class).isEmpty()) {
                 // Refined Log (Original line: 426, now around here)
                 logger.warn("Service TX: Assigned game (ID: {}) for removal from classroom {} was not found in subcollection.",
                         assignedGameId, classroomId);
                 throw new ResourceNotFoundException("Assigned Game", "ID", assignedGameId + " in classroom " + classroomId);
             }
-            transaction.delete(assignedGameRef);
+            transaction.delete(assignedGamePath);
             logger.debug("Service TX: Assigned game ID: {} deleted from classroomId: {} subcollection.", assignedGameId, classroomId);
 
-            classroom.setActivityCount(Math.max(0, classroom.getActivityCount() == null ? 0 : classroom.getActivityCount() - 1));
-            transaction.set(classroomRef, classroom);
-            logger.debug("Service TX: Classroom {} (ID: {}) activity count decremented to {} after game removal.", classroom.getName(), classroomId, classroom.getActivityCount());
+            classroomCounterService.incrementActivityCount(transaction, classroomId, -1);
+            logger.debug("Service TX: Classroom {} (ID: {}) activity count decremented after game removal.", classroom.getName(), classroomId);
             return null;
-        }).get();
+        });
+        classroomCounterService.invalidate(classroomId);
+        FirestoreUnitOfWork.recordDelete(DocumentPaths.of(CLASSROOMS_COLLECTION, classroomId, ASSIGNED_GAMES_SUBCOLLECTION, assignedGameId));
         logger.info("Service: Assigned game (ID: {}) successfully unassigned from classroom (ID: {}) by teacher (ID: {}).",
                 assignedGameId, classroomId, teacherId);
     }
 
-    public List<AssignedGameDTO> getAssignedGamesForClassroom(String classroomId)
+    /**
+     * A version of a classroom's assigned games that changes whenever the listing does: the newest dateAssigned,
+     * which moves when a game is assigned, and the activityCount, which moves when one is removed. Costs the
+     * classroom read, usually cached counter sums, and a one-field read of the newest assignment, instead of a page
+     * of assigned games.
+     */
+    public String getAssignedGamesVersion(String classroomId) throws ExecutionException, InterruptedException {
+        CompletableFuture<Optional<Classroom>> classroomFuture = classroomCache.getAsync(classroomId, checkMaxStaleness);
+        CompletableFuture<Optional<Date>> latestFuture = asyncAssignedGameRepository.findLatestDateAssignedAsync(classroomId);
+        Classroom classroom = classroomFuture.get()
+                .orElseThrow(() -> {
+                    logger.warn("Service: Classroom not found with ID: {} when checking its assigned games.", classroomId);
+                    return new ResourceNotFoundException("Classroom", "ID", classroomId);
+                });
+        classroomCounterService.applyCounts(classroom);
+        long latest = latestFuture.get().map(Date::getTime).orElse(0L);
+        return latest + ":" + classroom.getActivityCount();
+    }
+
+    public CursorPage<AssignedGameDTO> getAssignedGamesForClassroom(String classroomId, Integer pageSize, String pageToken)
             throws ExecutionException, InterruptedException {
-        logger.debug("Service: Fetching assigned games for classroomId: {}", classroomId);
-        classroomRepository.findById(classroomId)
+        logger.debug("Service: Fetching a page of assigned games for classroomId: {}", classroomId);
+        int resolvedPageSize = paginationConfig.resolvePageSize(pageSize);
+        // Both reads are independent; start them together and only then wait.
+        CompletableFuture<Optional<Classroom>> classroomFuture = classroomCache.getAsync(classroomId, checkMaxStaleness);
+        CompletableFuture<CursorPage<AssignedGame>> assignedGamesFuture =
+                asyncAssignedGameRepository.findPageByClassroomIdAsync(classroomId, resolvedPageSize, pageToken);
+        classroomFuture.get()
                 .orElseThrow(() -> {
                     logger.warn("Service: Classroom not found with ID: {} when fetching its assigned games.", classroomId);
                     return new ResourceNotFoundException("Classroom", "ID", classroomId);
                 });
-        return assignedGameRepository.findAllByClassroomId(classroomId).stream()
-                .map(this::convertToAssignedGameDTO)
-                .collect(Collectors.toList());
+        return assignedGamesFuture.get().map(this::convertToAssignedGameDTO);
     }
 
     public List<UserDTO> getEnrolledStudents(String classroomId, String teacherIdVerifying)
             throws ExecutionException, InterruptedException {
         logger.debug("Service: TeacherId: {} viewing enrolled students for classroomId: {}", teacherIdVerifying, classroomId);
-        Classroom classroom = classroomRepository.findById(classroomId)
+        verifyTeacherCanViewStudents(classroomId, teacherIdVerifying);
+
+        List<String> studentIds = classroomRepository.findEnrolledStudentIds(classroomId);
+
+        if (studentIds.isEmpty()) {
+            logger.debug("Service: No students found in {} subcollection for classroomId: {}", ENROLLED_STUDENTS_SUBCOLLECTION, classroomId);
+            return new ArrayList<>();
+        }
+        logger.trace("Service: Fetching user details for {} enrolled students of classroomId: {}", studentIds.size(), classroomId);
+        return userRepository.findAllById(studentIds).stream()
+                .map(this::convertToUserDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Like {@link #getEnrolledStudents}, but hands each student to {@code consumer} instead of building a list.
+     * Enrollment IDs are streamed and the user documents fetched {@value #ROSTER_STREAM_BATCH_SIZE} at a time, so
+     * memory use does not grow with the size of the class. It checks nothing: the stream runs after the response
+     * status is sent, so callers run {@link #verifyTeacherCanViewStudents} before it.
+     */
+    public void streamEnrolledStudents(String classroomId, DocumentConsumer<? super UserDTO> consumer)
+            throws ExecutionException, InterruptedException {
+        logger.debug("Service: Streaming enrolled students for classroomId: {}", classroomId);
+
+        List<String> batch = new ArrayList<>(ROSTER_STREAM_BATCH_SIZE);
+        DocumentConsumer<List<String>> flush = studentIds -> {
+            for (User student : userRepository.findAllById(studentIds)) {
+                consumer.accept(convertToUserDTO(student));
+            }
+            studentIds.clear();
+        };
+        classroomRepository.streamEnrolledStudentIds(classroomId, studentId -> {
+            batch.add(studentId);
+            if (batch.size() == ROSTER_STREAM_BATCH_SIZE) {
+                flush.accept(batch);
+            }
+        });
+        if (!batch.isEmpty()) {
+            DocumentConsumer.acceptAll(List.of(batch), flush);
+        }
+    }
+
+    public void verifyTeacherCanViewStudents(String classroomId, String teacherIdVerifying)
+            throws ExecutionException, InterruptedException {
+        Classroom classroom = classroomCache.get(classroomId, checkMaxStaleness)
                 .orElseThrow(() -> {
                     logger.warn("Service: Classroom not found with ID: {} when teacher {} viewing students.", classroomId, teacherIdVerifying);
                     return new ResourceNotFoundException("Classroom", "ID", classroomId);
@@ -473,54 +581,70 @@ public class ClassroomService {
                     teacherIdVerifying, classroomId, classroom.getTeacherId());
             throw new BadRequestException("User " + teacherIdVerifying + " is not authorized to view students for this classroom.");
         }
-
-        CollectionReference enrolledStudentsRef = db.collection(CLASSROOMS_COLLECTION).document(classroomId)
-                .collection(ENROLLED_STUDENTS_SUBCOLLECTION);
-        ApiFuture<QuerySnapshot> future = enrolledStudentsRef.get();
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-
-        List<UserDTO> students = new ArrayList<>();
-        if (documents.isEmpty()) {
-            logger.debug("Service: No students found in {} subcollection for classroomId: {}", ENROLLED_STUDENTS_SUBCOLLECTION, classroomId);
-        }
-        for (QueryDocumentSnapshot doc : documents) {
-            String studentId = doc.getId();
-            logger.trace("Service: Fetching user details for enrolled studentId: {} from subcollection of classroomId: {}", studentId, classroomId);
-            userRepository.findById(studentId).ifPresent(user -> students.add(convertToUserDTO(user)));
-        }
-        return students;
     }
 
     public boolean isTeacherOwnerOfClassroom(String teacherId, String classroomId) throws ExecutionException, InterruptedException {
         logger.trace("Service: Verifying ownership: teacherId: {} for classroomId: {}", teacherId, classroomId);
-        Classroom classroom = classroomRepository.findById(classroomId)
-                .orElseThrow(() -> {
-                    logger.warn("Service ownership check: Classroom not found with ID: {} during ownership verification.", classroomId); // Added context
-                    return new ResourceNotFoundException("Classroom", "id", classroomId);
-                });
-        boolean isOwner = classroom.getTeacherId().equals(teacherId);
+        ClassroomAccessCache.Access access = classroomAccessCache.getIfPresent(teacherId, classroomId);
+        if (access == null) {
+            long version = classroomAccessCache.version(teacherId, classroomId);
+            Optional<Classroom> cached = classroomCache.getIfPresent(classroomId, checkMaxStaleness);
+            Classroom classroom = (cached.isPresent() ? cached : classroomRepository.findFieldsById(classroomId, "teacherId"))
+                    .orElseThrow(() -> {
+                        logger.warn("Service ownership check: Classroom not found with ID: {} during ownership verification.", classroomId); // Added context
+                        return new ResourceNotFoundException("Classroom", "id", classroomId);
+                    });
+            access = Objects.equals(classroom.getTeacherId(), teacherId)
+                    ? ClassroomAccessCache.Access.OWNER
+                    : resolveEnrollment(teacherId, classroomId);
+            classroomAccessCache.put(teacherId, classroomId, access, version);
+        }
+        boolean isOwner = access == ClassroomAccessCache.Access.OWNER;
         logger.trace("Service ownership check result for teacherId: {}, classroomId: {}: isOwner={}", teacherId, classroomId, isOwner);
         return isOwner;
     }
 
     public boolean isStudentEnrolled(String studentId, String classroomId) throws ExecutionException, InterruptedException {
         logger.trace("Service: Verifying enrollment: studentId: {} in classroomId: {}", studentId, classroomId);
-        User student = userRepository.findById(studentId).orElse(null);
-        if (student == null) {
-            logger.warn("Service enrollment check: Student not found with ID: {} during enrollment verification in classroom {}.", studentId, classroomId); // Added context
-            return false;
+        ClassroomAccessCache.Access access = classroomAccessCache.getIfPresent(studentId, classroomId);
+        if (access == null) {
+            long version = classroomAccessCache.version(studentId, classroomId);
+            access = resolveEnrollment(studentId, classroomId);
+            if (access == ClassroomAccessCache.Access.NONE) {
+                // Settle ownership too, so a following isTeacherOwnerOfClassroom check for the same pair is a cache hit.
+                Optional<Classroom> cached = classroomCache.getIfPresent(classroomId, checkMaxStaleness);
+                Classroom classroom = (cached.isPresent() ? cached : classroomRepository.findFieldsById(classroomId, "teacherId")).orElse(null);
+                if (classroom == null) {
+                    return false;
+                }
+                if (Objects.equals(classroom.getTeacherId(), studentId)) {
+                    access = ClassroomAccessCache.Access.OWNER;
+                }
+            }
+            classroomAccessCache.put(studentId, classroomId, access, version);
         }
-        boolean isEnrolled = student.getStudentOfClassrooms() != null && student.getStudentOfClassrooms().contains(classroomId);
+        boolean isEnrolled = access == ClassroomAccessCache.Access.ENROLLED;
         logger.trace("Service enrollment check result for studentId: {}, classroomId: {}: isEnrolled={}", studentId, classroomId, isEnrolled);
         return isEnrolled;
     }
 
+    private ClassroomAccessCache.Access resolveEnrollment(String userId, String classroomId) throws ExecutionException, InterruptedException {
+        User user = userRepository.findFieldsById(userId, "studentOfClassrooms").orElse(null);
+        if (user == null) {
+            logger.warn("Service enrollment check: Student not found with ID: {} during enrollment verification in classroom {}.", userId, classroomId); // Added context
+            return ClassroomAccessCache.Access.NONE;
+        }
+        return user.getStudentOfClassrooms() != null && user.getStudentOfClassrooms().contains(classroomId)
+                ? ClassroomAccessCache.Access.ENROLLED
+                : ClassroomAccessCache.Access.NONE;
+    }
+
 
     private String generateUniqueClassroomCode() {
         return UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
 
-    private ClassroomDTO convertToDTO(Classroom classroom) {
+    ClassroomDTO convertToDTO(Classroom classroom) {
         if (classroom == null) return null;
         ClassroomDTO dto = new ClassroomDTO();
         dto.setClassroomId(classroom.getClassroomId());
@@ -3,15 +3,25 @@ package citu.jisaz.brightminds_backend.service;
 import citu.jisaz.brightminds_backend.dto.GameDTO;
 import citu.jisaz.brightminds_backend.exception.ResourceNotFoundException;
 import citu.jisaz.brightminds_backend.model.Game;
+import citu.jisaz.brightminds_backend.repository.GameCatalogChangedEvent;
 import citu.jisaz.brightminds_backend.repository.GameRepository;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class GameService {
@@ -19,9 +29,18 @@ public class GameService {
     private static final Logger logger = LoggerFactory.getLogger(GameService.class);
 
     private final GameRepository gameRepository;
+    private final ObjectMapper objectMapper;
+    private volatile RenderedGameCatalog renderedCatalog;
 
-    public GameService(GameRepository gameRepository) {
+    /**
+     * The library game list as response bytes, in identity and gzip encoding, with a strong entity tag for each.
+     * The tags differ because the two encodings are different representations of the same list.
+     */
+    public record RenderedGameCatalog(byte[] identity, String identityEtag, byte[] gzip, String gzipEtag) {}
+
+    public GameService(GameRepository gameRepository, ObjectMapper objectMapper) {
         this.gameRepository = gameRepository;
+        this.objectMapper = objectMapper;
     }
 
     public List<GameDTO> getAllLibraryGames() throws ExecutionException, InterruptedException {
@@ -32,6 +51,54 @@ public class GameService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * The library game list, rendered once and then again only when {@link GameCatalogChangedEvent} reports a new
+     * catalog. Without those events (the in-memory backend) the first rendering is kept.
+     */
+    public RenderedGameCatalog getRenderedLibraryGames() throws ExecutionException, InterruptedException {
+        RenderedGameCatalog rendered = renderedCatalog;
+        if (rendered != null) {
+            return rendered;
+        }
+        synchronized (this) {
+            if (renderedCatalog == null) {
+                renderedCatalog = renderLibraryGames();
+            }
+            return renderedCatalog;
+        }
+    }
+
+    @EventListener
+    public synchronized void onGameCatalogChanged(GameCatalogChangedEvent event) {
+        try {
+            renderedCatalog = renderLibraryGames();
+        } catch (ExecutionException | RuntimeException e) {
+            logger.error("Could not render the library game catalog of {} games; rendering it on the next request.", event.games(), e);
+            renderedCatalog = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            renderedCatalog = null;
+        }
+    }
+
+    private RenderedGameCatalog renderLibraryGames() throws ExecutionException, InterruptedException {
+        List<GameDTO> games = getAllLibraryGames();
+        try {
+            byte[] identity = objectMapper.writeValueAsBytes(games);
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(identity.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+                out.write(identity);
+            }
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(identity), 0, 16);
+            logger.info("Rendered library game catalog: {} games, {} bytes, {} gzipped.", games.size(), identity.length, gzip.size());
+            return new RenderedGameCatalog(identity, "\"" + hash + "\"", gzip.toByteArray(), "\"" + hash + "-gzip\"");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     public GameDTO getLibraryGameById(String libraryGameId)
             throws ExecutionException, InterruptedException {
         logger.info("Fetching library game by ID: {}", libraryGameId);
@@ -0,0 +1,104 @@
+package citu.jisaz.brightminds_backend.service;
+
+import citu.jisaz.brightminds_backend.config.GamificationConfig;
+import citu.jisaz.brightminds_backend.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Maps XP to levels with a table of the cumulative XP needed to reach each level, computed once from
+ * {@link GamificationConfig#calculateXpForNextLevel(int)}. Awarding XP is a binary search over the table however
+ * many levels it covers, instead of one {@code Math.pow} per level gained.
+ * <p>
+ * The table stops at the first level whose requirement is not positive, would overflow the cumulative total, or
+ * lies beyond {@link #MAX_LEVEL}. That level is the highest reachable one and its requirement is
+ * {@link Long#MAX_VALUE}, so XP earned there accumulates without further level-ups.
+ */
+@Component
+public class LevelingEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(LevelingEngine.class);
+
+    static final int MAX_LEVEL = 10_000;
+
+    /** {@code cumulativeXp[level - 1]} is the XP needed to get from level 1 to {@code level}. */
+    private final long[] cumulativeXp;
+
+    public LevelingEngine(GamificationConfig gamificationConfig) {
+        long[] table = new long[64];
+        int levels = 1;
+        while (levels < MAX_LEVEL) {
+            long requirement = gamificationConfig.calculateXpForNextLevel(levels);
+            if (requirement <= 0 || table[levels - 1] > Long.MAX_VALUE - requirement) {
+                break;
+            }
+            if (levels == table.length) {
+                table = Arrays.copyOf(table, table.length * 2);
+            }
+            table[levels] = table[levels - 1] + requirement;
+            levels++;
+        }
+        this.cumulativeXp = Arrays.copyOf(table, levels);
+        logger.info("Leveling table computed for {} levels.", levels);
+    }
+
+    public int maxLevel() {
+        return cumulativeXp.length;
+    }
+
+    /**
+     * The XP needed to get from {@code level} to the next one; {@link Long#MAX_VALUE} at the highest level.
+     */
+    public long xpForNextLevel(int level) {
+        if (level <= 0) {
+            level = 1;
+        }
+        return level < cumulativeXp.length ? cumulativeXp[level] - cumulativeXp[level - 1] : Long.MAX_VALUE;
+    }
+
+    /**
+     * Adds {@code xpEarned} to the user's level, currentXp and xpToNextLevel, filling in missing or invalid values
+     * first, and returns the number of levels gained. The stored xpToNextLevel is kept as the requirement of the
+     * current level, as the level-up loop this replaces did; the levels after it use the table.
+     */
+    public int applyXp(User user, long xpEarned) {
+        int level = user.getLevel() == null || user.getLevel() <= 0 ? 1 : user.getLevel();
+        long xp = user.getCurrentXp() == null || user.getCurrentXp() < 0 ? 0L : user.getCurrentXp();
+        long xpToNextLevel = user.getXpToNextLevel() == null || user.getXpToNextLevel() <= 0
+                ? xpForNextLevel(level)
+                : user.getXpToNextLevel();
+        xp = saturatedAdd(xp, Math.max(0, xpEarned));
+
+        int levelsGained = 0;
+        if (xp >= xpToNextLevel) {
+            xp -= xpToNextLevel;
+            level++;
+            levelsGained = 1;
+            if (level < cumulativeXp.length) {
+                long target = saturatedAdd(cumulativeXp[level - 1], xp);
+                int reached = highestLevelWithin(target);
+                levelsGained += reached - level;
+                xp = target - cumulativeXp[reached - 1];
+                level = reached;
+            }
+            xpToNextLevel = xpForNextLevel(level);
+        }
+        user.setLevel(level);
+        user.setCurrentXp(xp);
+        user.setXpToNextLevel(xpToNextLevel);
+        return levelsGained;
+    }
+
+    /** The highest level whose cumulative XP is at most {@code totalXp}. */
+    private int highestLevelWithin(long totalXp) {
+        int index = Arrays.binarySearch(cumulativeXp, totalXp);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        return a > Long.MAX_VALUE - b ? Long.MAX_VALUE : a + b;
+    }
+}
@@ -1,32 +1,51 @@
 package citu.jisaz.brightminds_backend.service;
 
-import citu.jisaz.brightminds_backend.config.GamificationConfig;
+import citu.jisaz.brightminds_backend.config.PaginationConfig;
+import citu.jisaz.brightminds_backend.dto.BatchGameAttemptResponseDTO;
+import citu.jisaz.brightminds_backend.dto.GameAttemptResultDTO;
 import citu.jisaz.brightminds_backend.dto.StudentGameAttemptDTO;
 import citu.jisaz.brightminds_backend.dto.UserDTO;
 import citu.jisaz.brightminds_backend.exception.BadRequestException;
 import citu.jisaz.brightminds_backend.exception.ResourceNotFoundException;
 import citu.jisaz.brightminds_backend.exception.UserNotFoundException;
 import citu.jisaz.brightminds_backend.model.AssignedGame;
+import citu.jisaz.brightminds_backend.model.AttemptSubmissionResult;
+import citu.jisaz.brightminds_backend.model.StudentAttemptSummary;
 import citu.jisaz.brightminds_backend.model.StudentGameAttempt;
 import citu.jisaz.brightminds_backend.model.User;
+import citu.jisaz.brightminds_backend.repository.AsyncStudentGameAttemptRepository;
+import citu.jisaz.brightminds_backend.repository.AsyncUserRepository;
+import citu.jisaz.brightminds_backend.repository.CursorPage;
+import citu.jisaz.brightminds_backend.repository.DocumentConsumer;
+import citu.jisaz.brightminds_backend.repository.DocumentPaths;
+import citu.jisaz.brightminds_backend.repository.DocumentQuery;
+import citu.jisaz.brightminds_backend.repository.DocumentTransaction;
+import citu.jisaz.brightminds_backend.repository.DocumentUpdate;
+import citu.jisaz.brightminds_backend.repository.FirestoreUnitOfWork;
 import citu.jisaz.brightminds_backend.repository.StudentGameAttemptRepository;
-import citu.jisaz.brightminds_backend.repository.UserRepository;
-
-import com.google.cloud.firestore.CollectionReference;
-import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.Query;
-import com.google.cloud.firestore.QuerySnapshot;
+import citu.jisaz.brightminds_backend.repository.TransactionRunner;
+import citu.jisaz.brightminds_backend.security.PrincipalUserCache;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,11 +53,15 @@ public class StudentGameAttemptService {
 
     private static final Logger logger = LoggerFactory.getLogger(StudentGameAttemptService.class);
 
-    private final Firestore db;
+    private final TransactionRunner transactionRunner;
     private final StudentGameAttemptRepository attemptRepository;
     private final UserService userService;
-    private final GamificationConfig gamificationConfig;
-    private final UserRepository userRepository;
+    private final LevelingEngine levelingEngine;
+    private final PrincipalUserCache principalUserCache;
+    private final AsyncUserRepository asyncUserRepository;
+    private final AsyncStudentGameAttemptRepository asyncAttemptRepository;
+    private final PaginationConfig paginationConfig;
+    private final AttemptIdempotencyCache idempotencyCache;
 
     // Collection name constants. Ideally, repository-specific constants like
     // STUDENT_GAME_ATTEMPTS_COLLECTION would be in the respective repository interface.
@@ -46,180 +69,520 @@ public class StudentGameAttemptService {
     private static final String USERS_COLLECTION = "users";
     private static final String CLASSROOMS_COLLECTION = "classrooms";
     private static final String ASSIGNED_GAMES_SUBCOLLECTION = "assignedGames";
+    private static final String ATTEMPT_SUMMARIES_SUBCOLLECTION = "attemptSummaries";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
 
 
     @Value("${gamification.default-max-game-attempts:3}")
     private int defaultMaxGameAttempts;
 
-    public StudentGameAttemptService(Firestore db,
+    public StudentGameAttemptService(TransactionRunner transactionRunner,
                                      StudentGameAttemptRepository attemptRepository,
                                      UserService userService,
-                                     GamificationConfig gamificationConfig,
-                                     UserRepository userRepository) {
-        this.db = db;
+                                     LevelingEngine levelingEngine,
+                                     PrincipalUserCache principalUserCache,
+                                     AsyncUserRepository asyncUserRepository,
+                                     AsyncStudentGameAttemptRepository asyncAttemptRepository,
+                                     PaginationConfig paginationConfig,
+                                     AttemptIdempotencyCache idempotencyCache) {
+        this.transactionRunner = transactionRunner;
         this.attemptRepository = attemptRepository;
         this.userService = userService;
-        this.gamificationConfig = gamificationConfig;
-        this.userRepository = userRepository;
+        this.levelingEngine = levelingEngine;
+        this.principalUserCache = principalUserCache;
+        this.asyncUserRepository = asyncUserRepository;
+        this.asyncAttemptRepository = asyncAttemptRepository;
+        this.paginationConfig = paginationConfig;
+        this.idempotencyCache = idempotencyCache;
     }
 
-    public UserDTO processGameAttempt(StudentGameAttemptDTO attemptDTO)
+    /**
+     * Records an attempt and awards its XP. With an {@code idempotencyKey}, the attempt is stored under an ID derived
+     * from the student and key, and a repeated submission with the same key returns the stored result instead of
+     * recording another attempt.
+     */
+    public UserDTO processGameAttempt(StudentGameAttemptDTO attemptDTO, String idempotencyKey)
+            throws ExecutionException, InterruptedException {
+        if (idempotencyKey == null) {
+            return recordGameAttempt(attemptDTO, null);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters.");
+        }
+        return idempotencyCache.getOrProcess(attemptDTO.getStudentId(), idempotencyKey,
+                attemptDTO.getClassroomId(), attemptDTO.getAssignedGameId(), () -> recordGameAttempt(attemptDTO, idempotencyKey));
+    }
+
+    private UserDTO recordGameAttempt(StudentGameAttemptDTO attemptDTO, String idempotencyKey)
             throws ExecutionException, InterruptedException {
 
         logger.info("Processing game attempt for student {}, classroom {}, assigned game {}",
                 attemptDTO.getStudentId(), attemptDTO.getClassroomId(), attemptDTO.getAssignedGameId());
 
-        User updatedStudentModelFromTransaction = db.runTransaction(transaction -> {
-            DocumentReference studentRef = db.collection(USERS_COLLECTION).document(attemptDTO.getStudentId());
-            DocumentSnapshot studentSnap = transaction.get(studentRef).get();
-            if (!studentSnap.exists()) {
-                throw new UserNotFoundException("Student not found with ID: " + attemptDTO.getStudentId());
-            }
-            User student = Objects.requireNonNull(studentSnap.toObject(User.class),
-                    "Student data mapping failed for ID: " + attemptDTO.getStudentId());
-            // User.role is a String "TEACHER" or "STUDENT"
-            if (!"STUDENT".equalsIgnoreCase(student.getRole())) {
-                throw new BadRequestException("User " + student.getDisplayName() + " (ID: " + student.getUserId() + ") is not a student.");
+        String idempotentAttemptId = idempotencyKey != null ? idempotentAttemptId(attemptDTO.getStudentId(), idempotencyKey) : null;
+        if (idempotentAttemptId != null) {
+            // A retry of a submission that was recorded before this instance saw it, or before its cache entry expired.
+            Optional<StudentGameAttempt> recorded = attemptRepository.findById(idempotentAttemptId);
+            if (recorded.isPresent()) {
+                User student = asyncUserRepository.findByIdAsync(attemptDTO.getStudentId()).get()
+                        .orElseThrow(() -> new UserNotFoundException("Student not found with ID: " + attemptDTO.getStudentId()));
+                return replay(recorded.get(), attemptDTO, student);
             }
+        }
 
-            DocumentReference assignedGameRef = db.collection(CLASSROOMS_COLLECTION)
-                    .document(attemptDTO.getClassroomId())
-                    .collection(ASSIGNED_GAMES_SUBCOLLECTION) // This is the subcollection for assigned games
-                    .document(attemptDTO.getAssignedGameId());
-            DocumentSnapshot assignedGameSnap = transaction.get(assignedGameRef).get();
-            if (!assignedGameSnap.exists()) {
-                throw new ResourceNotFoundException("AssignedGame not found with ID " + attemptDTO.getAssignedGameId()
-                        + " in classroom " + attemptDTO.getClassroomId());
+        AtomicReference<UserDTO> replayed = new AtomicReference<>();
+        User updatedStudentModelFromTransaction = transactionRunner.run(transaction -> {
+            replayed.set(null);
+            if (idempotentAttemptId != null) {
+                // Read in the transaction too, so concurrent duplicates on different instances record one attempt.
+                Optional<StudentGameAttempt> recorded = transaction.get(
+                        DocumentPaths.of(STUDENT_GAME_ATTEMPTS_COLLECTION, idempotentAttemptId), StudentGameAttempt.class);
+                if (recorded.isPresent()) {
+                    replayed.set(replay(recorded.get(), attemptDTO, getStudent(transaction, attemptDTO.getStudentId())));
+                    return null;
+                }
             }
-            // AssignedGame model fields are confirmed from AssignedGame.java
-            AssignedGame assignedGame = Objects.requireNonNull(assignedGameSnap.toObject(AssignedGame.class),
-                    "AssignedGame data mapping failed for ID: " + attemptDTO.getAssignedGameId());
+            User student = getStudent(transaction, attemptDTO.getStudentId());
 
-            if (assignedGame.getDueDate() != null && new Date().after(assignedGame.getDueDate())) {
-                logger.warn("Game attempt for assigned game {} by student {} is overdue. Due: {}, Submitted: {}",
-                        assignedGame.getAssignedGameId(), student.getUserId(), assignedGame.getDueDate(), new Date());
+            // AssignedGame model fields are confirmed from AssignedGame.java
+            AssignedGame assignedGame = transaction.get(assignedGamePath(attemptDTO), AssignedGame.class)
+                    .orElseThrow(() -> new ResourceNotFoundException("AssignedGame not found with ID " + attemptDTO.getAssignedGameId()
+                            + " in classroom " + attemptDTO.getClassroomId()));
+            PendingSummary summary = readSummary(transaction, student.getUserId(), attemptDTO.getClassroomId(), assignedGame.getAssignedGameId());
+            checkAttemptAllowed(student.getUserId(), assignedGame, summary.attemptCount());
+
+            String newAttemptId = idempotentAttemptId != null
+                    ? idempotentAttemptId
+                    : transactionRunner.newDocumentId(STUDENT_GAME_ATTEMPTS_COLLECTION);
+            StudentGameAttempt newAttempt = scoreAttempt(newAttemptId, student.getUserId(), attemptDTO, assignedGame, idempotencyKey);
+            summary.add(newAttempt);
+            summary.write(transaction);
+
+            boolean leveledUp = awardXp(transaction, student, newAttempt.getXpEarned());
+            if (idempotencyKey != null) {
+                newAttempt.setSubmissionResult(submissionResult(student, leveledUp));
             }
+            transaction.set(DocumentPaths.of(STUDENT_GAME_ATTEMPTS_COLLECTION, newAttemptId), newAttempt);
+            return student;
+        });
+        if (replayed.get() != null) {
+            return replayed.get();
+        }
+        FirestoreUnitOfWork.evict(DocumentPaths.of(USERS_COLLECTION, updatedStudentModelFromTransaction.getUserId()));
+        principalUserCache.invalidate(updatedStudentModelFromTransaction.getUserId());
 
-            CollectionReference attemptsCollectionRef = db.collection(STUDENT_GAME_ATTEMPTS_COLLECTION);
-            Query existingAttemptsQuery = attemptsCollectionRef
-                    .whereEqualTo("studentId", student.getUserId())
-                    .whereEqualTo("assignedGameId", assignedGame.getAssignedGameId());
+        logger.info("Game attempt processed successfully for student {}. Final Level: {}, XP: {}/{}",
+                updatedStudentModelFromTransaction.getUserId(),
+                updatedStudentModelFromTransaction.getLevel(),
+                updatedStudentModelFromTransaction.getCurrentXp(),
+                updatedStudentModelFromTransaction.getXpToNextLevel());
+        // UserService.convertToDTO confirmed from UserService.java
+        return userService.convertToDTO(updatedStudentModelFromTransaction);
+    }
 
-            QuerySnapshot existingAttemptsSnap = transaction.get(existingAttemptsQuery).get();
-            int currentAttemptCount = existingAttemptsSnap.size();
+    /**
+     * Records a batch of attempts, such as those played offline and synced together. The attempts of each student
+     * are applied in one transaction, in submission order, with a single XP award and level-up for their total.
+     * An attempt that cannot be recorded (unknown assigned game, attempt limit reached, reused idempotency key) is
+     * REJECTED without affecting the others; if the student itself is invalid, all of their attempts are.
+     */
+    public BatchGameAttemptResponseDTO processGameAttempts(List<StudentGameAttemptDTO> attempts)
+            throws ExecutionException, InterruptedException {
+        Map<String, List<Integer>> indicesByStudent = new LinkedHashMap<>();
+        for (int i = 0; i < attempts.size(); i++) {
+            StudentGameAttemptDTO attemptDTO = attempts.get(i);
+            String idempotencyKey = attemptDTO.getIdempotencyKey();
+            if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+                throw new BadRequestException("Idempotency key of attempt " + i + " must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters.");
+            }
+            indicesByStudent.computeIfAbsent(attemptDTO.getStudentId(), studentId -> new ArrayList<>()).add(i);
+        }
+        logger.info("Processing batch of {} game attempts for {} students.", attempts.size(), indicesByStudent.size());
+
+        GameAttemptResultDTO[] results = new GameAttemptResultDTO[attempts.size()];
+        List<UserDTO> students = new ArrayList<>();
+        for (Map.Entry<String, List<Integer>> group : indicesByStudent.entrySet()) {
+            try {
+                User student = recordStudentAttempts(group.getKey(), group.getValue(), attempts, results);
+                students.add(userService.convertToDTO(student));
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof BadRequestException || e.getCause() instanceof UserNotFoundException)) {
+                    throw e;
+                }
+                logger.warn("Rejected all {} batched attempts of student {}: {}", group.getValue().size(), group.getKey(), e.getCause().getMessage());
+                for (int index : group.getValue()) {
+                    results[index] = rejected(index, e.getCause().getMessage());
+                }
+            }
+        }
+        return new BatchGameAttemptResponseDTO(List.of(results), students);
+    }
 
-            int maxAttemptsAllowed = assignedGame.getMaxAttemptsAllowed() != null && assignedGame.getMaxAttemptsAllowed() >= 0
-                    ? assignedGame.getMaxAttemptsAllowed()
-                    : defaultMaxGameAttempts;
+    private User recordStudentAttempts(String studentId, List<Integer> indices, List<StudentGameAttemptDTO> attempts,
+                                       GameAttemptResultDTO[] results) throws ExecutionException, InterruptedException {
+        User student = transactionRunner.run(transaction -> {
+            // All reads first: keyed attempts already recorded, the student, then each distinct assigned game and its summary.
+            Map<String, StudentGameAttempt> recordedAttempts = new HashMap<>();
+            for (int index : indices) {
+                String idempotencyKey = attempts.get(index).getIdempotencyKey();
+                if (idempotencyKey != null) {
+                    String attemptId = idempotentAttemptId(studentId, idempotencyKey);
+                    if (!recordedAttempts.containsKey(attemptId)) {
+                        recordedAttempts.put(attemptId, transaction.get(
+                                DocumentPaths.of(STUDENT_GAME_ATTEMPTS_COLLECTION, attemptId), StudentGameAttempt.class).orElse(null));
+                    }
+                }
+            }
+            User studentInTransaction = getStudent(transaction, studentId);
+            Map<String, AssignedGame> assignedGames = new HashMap<>();
+            Map<String, PendingSummary> summaries = new HashMap<>();
+            for (int index : indices) {
+                StudentGameAttemptDTO attemptDTO = attempts.get(index);
+                String path = assignedGamePath(attemptDTO);
+                if (!assignedGames.containsKey(path)) {
+                    AssignedGame assignedGame = transaction.get(path, AssignedGame.class).orElse(null);
+                    assignedGames.put(path, assignedGame);
+                    if (assignedGame != null) {
+                        summaries.put(path, readSummary(transaction, studentId, attemptDTO.getClassroomId(), assignedGame.getAssignedGameId()));
+                    }
+                }
+            }
+
+            List<StudentGameAttempt> newAttempts = new ArrayList<>();
+            long totalXpEarned = 0;
+            for (int index : indices) {
+                StudentGameAttemptDTO attemptDTO = attempts.get(index);
+                String idempotencyKey = attemptDTO.getIdempotencyKey();
+                String attemptId = idempotencyKey != null ? idempotentAttemptId(studentId, idempotencyKey) : null;
+                StudentGameAttempt recorded = attemptId != null ? recordedAttempts.get(attemptId) : null;
+                if (recorded != null) {
+                    // Recorded by an earlier submission, or by an earlier item of this batch with the same key.
+                    boolean sameAttempt = Objects.equals(recorded.getClassroomId(), attemptDTO.getClassroomId())
+                            && Objects.equals(recorded.getAssignedGameId(), attemptDTO.getAssignedGameId());
+                    results[index] = sameAttempt
+                            ? new GameAttemptResultDTO(index, GameAttemptResultDTO.Status.DUPLICATE, recorded.getAttemptId(), recorded.getXpEarned(), null)
+                            : rejected(index, "Idempotency key was already used for a different game attempt.");
+                    continue;
+                }
+                AssignedGame assignedGame = assignedGames.get(assignedGamePath(attemptDTO));
+                if (assignedGame == null) {
+                    results[index] = rejected(index, "AssignedGame not found with ID " + attemptDTO.getAssignedGameId()
+                            + " in classroom " + attemptDTO.getClassroomId());
+                    continue;
+                }
+                PendingSummary summary = summaries.get(assignedGamePath(attemptDTO));
+                try {
+                    checkAttemptAllowed(studentId, assignedGame, summary.attemptCount());
+                } catch (BadRequestException e) {
+                    results[index] = rejected(index, e.getMessage());
+                    continue;
+                }
+                StudentGameAttempt newAttempt = scoreAttempt(
+                        attemptId != null ? attemptId : transactionRunner.newDocumentId(STUDENT_GAME_ATTEMPTS_COLLECTION),
+                        studentId, attemptDTO, assignedGame, idempotencyKey);
+                summary.add(newAttempt);
+                newAttempts.add(newAttempt);
+                if (attemptId != null) {
+                    recordedAttempts.put(attemptId, newAttempt);
+                }
+                totalXpEarned += newAttempt.getXpEarned();
+                results[index] = new GameAttemptResultDTO(index, GameAttemptResultDTO.Status.RECORDED,
+                        newAttempt.getAttemptId(), newAttempt.getXpEarned(), null);
+            }
+            if (newAttempts.isEmpty()) {
+                return studentInTransaction;
+            }
 
-            if (maxAttemptsAllowed > 0 && currentAttemptCount >= maxAttemptsAllowed) {
-                logger.warn("Student {} has reached max attempts ({}) for assigned game {}.",
-                        student.getUserId(), maxAttemptsAllowed, assignedGame.getAssignedGameId());
-                throw new BadRequestException("Maximum attempts (" + maxAttemptsAllowed + ") reached for this game.");
+            for (PendingSummary summary : summaries.values()) {
+                summary.write(transaction);
+            }
+            boolean leveledUp = awardXp(transaction, studentInTransaction, totalXpEarned);
+            AttemptSubmissionResult submissionResult = submissionResult(studentInTransaction, leveledUp);
+            for (StudentGameAttempt newAttempt : newAttempts) {
+                if (newAttempt.getIdempotencyKey() != null) {
+                    newAttempt.setSubmissionResult(submissionResult);
+                }
+                transaction.set(DocumentPaths.of(STUDENT_GAME_ATTEMPTS_COLLECTION, newAttempt.getAttemptId()), newAttempt);
             }
+            return studentInTransaction;
+        });
+        FirestoreUnitOfWork.evict(DocumentPaths.of(USERS_COLLECTION, studentId));
+        principalUserCache.invalidate(studentId);
+        logger.info("Batched game attempts processed for student {}. Final Level: {}, XP: {}/{}",
+                studentId, student.getLevel(), student.getCurrentXp(), student.getXpToNextLevel());
+        return student;
+    }
+
+    private static GameAttemptResultDTO rejected(int index, String message) {
+        return new GameAttemptResultDTO(index, GameAttemptResultDTO.Status.REJECTED, null, null, message);
+    }
+
+    private User getStudent(DocumentTransaction transaction, String studentId) throws ExecutionException, InterruptedException {
+        User student = transaction.get(DocumentPaths.of(USERS_COLLECTION, studentId), User.class)
+                .orElseThrow(() -> new UserNotFoundException("Student not found with ID: " + studentId));
+        // User.role is a String "TEACHER" or "STUDENT"
+        if (!"STUDENT".equalsIgnoreCase(student.getRole())) {
+            throw new BadRequestException("User " + student.getDisplayName() + " (ID: " + student.getUserId() + ") is not a student.");
+        }
+        return student;
+    }
+
+    private static String assignedGamePath(StudentGameAttemptDTO attemptDTO) {
+        return DocumentPaths.of(CLASSROOMS_COLLECTION, attemptDTO.getClassroomId(),
+                ASSIGNED_GAMES_SUBCOLLECTION, // This is the subcollection for assigned games
+                attemptDTO.getAssignedGameId());
+    }
+
+    private void checkAttemptAllowed(String studentId, AssignedGame assignedGame, int currentAttemptCount) {
+        if (assignedGame.getDueDate() != null && new Date().after(assignedGame.getDueDate())) {
+            logger.warn("Game attempt for assigned game {} by student {} is overdue. Due: {}, Submitted: {}",
+                    assignedGame.getAssignedGameId(), studentId, assignedGame.getDueDate(), new Date());
+        }
+
+        int maxAttemptsAllowed = assignedGame.getMaxAttemptsAllowed() != null && assignedGame.getMaxAttemptsAllowed() >= 0
+                ? assignedGame.getMaxAttemptsAllowed()
+                : defaultMaxGameAttempts;
+
+        if (maxAttemptsAllowed > 0 && currentAttemptCount >= maxAttemptsAllowed) {
+            logger.warn("Student {} has reached max attempts ({}) for assigned game {}.",
+                    studentId, maxAttemptsAllowed, assignedGame.getAssignedGameId());
+            throw new BadRequestException("Maximum attempts (" + maxAttemptsAllowed + ") reached for this game.");
+        }
+    }
+
+    /**
+     * Builds the attempt to record, with its score capped at the game's total points and its XP in proportion.
+     */
+    private StudentGameAttempt scoreAttempt(String attemptId, String studentId, StudentGameAttemptDTO attemptDTO,
+                                            AssignedGame assignedGame, String idempotencyKey) {
+        long xpEarned = 0;
+        Integer gameMaxXp = assignedGame.getMaxXpAwarded();
+        Integer gameTotalPoints = assignedGame.getTotalPointsPossible();
+        Integer studentScore = attemptDTO.getScore();
+
+        if (attemptDTO.getTotalPointsPossible() != null && !attemptDTO.getTotalPointsPossible().equals(gameTotalPoints)) {
+            logger.warn("Total points possible in DTO ({}) does not match game record ({}). Using game record value for XP calculation for game {}.",
+                    attemptDTO.getTotalPointsPossible(), gameTotalPoints, assignedGame.getAssignedGameId());
+        }
+
+        if (gameMaxXp != null && gameMaxXp > 0 &&
+                gameTotalPoints != null && gameTotalPoints > 0 &&
+                studentScore != null && studentScore >= 0) {
+            studentScore = Math.min(studentScore, gameTotalPoints); // Ensure score doesn't exceed max
+            double scorePercentage = (double) studentScore / gameTotalPoints;
+            xpEarned = Math.round(scorePercentage * gameMaxXp);
+            xpEarned = Math.max(0, Math.min(xpEarned, gameMaxXp)); // Clamp XP
+        } else {
+            logger.warn("Could not calculate XP for assigned game {} (student {}). Game MaxXP: {}, Game TotalPoints: {}, Student Score: {}",
+                    assignedGame.getAssignedGameId(), studentId, gameMaxXp, gameTotalPoints, studentScore);
+        }
+
+        // StudentGameAttempt model fields startedAt and completedAt have @ServerTimestamp
+        return StudentGameAttempt.builder()
+                .attemptId(attemptId)
+                .studentId(studentId)
+                .classroomId(attemptDTO.getClassroomId())
+                .assignedGameId(assignedGame.getAssignedGameId())
+                .libraryGameId(assignedGame.getLibraryGameId()) // From AssignedGame model
+                .score(studentScore)
+                .totalPointsPossible(gameTotalPoints) // Store authoritative total points
+                .xpEarned(xpEarned)
+                .status("COMPLETED")
+                .idempotencyKey(idempotencyKey)
+                .startedAt(null) // Firestore will set this due to @ServerTimestamp
+                .completedAt(null) // Firestore will set this due to @ServerTimestamp
+                .build();
+    }
+
+    /**
+     * Adds {@code xpEarned} to the student, levelling up as many times as it covers, and writes the leveling fields.
+     * Returns whether the student leveled up.
+     */
+    private boolean awardXp(DocumentTransaction transaction, User student, long xpEarned) {
+        if (xpEarned <= 0) {
+            return false;
+        }
+        int oldLevelForLog = student.getLevel() != null ? student.getLevel() : 1;
+        boolean leveledUpInTransaction = levelingEngine.applyXp(student, xpEarned) > 0;
+        // Only the leveling fields change, so the rest of the user document, including its classroom
+        // lists, is not rewritten.
+        transaction.update(DocumentPaths.of(USERS_COLLECTION, student.getUserId()), DocumentUpdate.fields()
+                .set("currentXp", student.getCurrentXp())
+                .set("level", student.getLevel())
+                .set("xpToNextLevel", student.getXpToNextLevel()));
+
+        if (leveledUpInTransaction) {
+            logger.info("TRANSACTION: Student {} leveled up from Lvl {} to Lvl {}. XP: {}/{}",
+                    student.getUserId(), oldLevelForLog, student.getLevel(), student.getCurrentXp(), student.getXpToNextLevel());
+        } else {
+            logger.info("TRANSACTION: Student {} awarded {} XP. New XP: {}/{}, Level: {}.",
+                    student.getUserId(), xpEarned, student.getCurrentXp(), student.getXpToNextLevel(), student.getLevel());
+        }
+        return leveledUpInTransaction;
+    }
+
+    private static AttemptSubmissionResult submissionResult(User student, boolean leveledUp) {
+        return AttemptSubmissionResult.builder()
+                .level(student.getLevel())
+                .currentXp(student.getCurrentXp())
+                .xpToNextLevel(student.getXpToNextLevel())
+                .leveledUp(leveledUp)
+                .build();
+    }
 
-            long xpEarned = 0;
-            Integer gameMaxXp = assignedGame.getMaxXpAwarded();
-            Integer gameTotalPoints = assignedGame.getTotalPointsPossible();
-            Integer studentScore = attemptDTO.getScore();
+    private PendingSummary readSummary(DocumentTransaction transaction, String studentId, String classroomId, String assignedGameId)
+            throws ExecutionException, InterruptedException {
+        // One document read instead of a query over every earlier attempt, which also keeps those attempts out
+        // of the transaction's read set.
+        String summaryPath = DocumentPaths.of(USERS_COLLECTION, studentId, ATTEMPT_SUMMARIES_SUBCOLLECTION, assignedGameId);
+        StudentAttemptSummary summary = transaction.get(summaryPath, StudentAttemptSummary.class).orElse(null);
+        if (summary != null) {
+            return new PendingSummary(summaryPath, summary, true);
+        }
+        return new PendingSummary(summaryPath, summarizeExistingAttempts(transaction, studentId, classroomId, assignedGameId), false);
+    }
+
+    /**
+     * An attempt summary read in a transaction and the attempts added to it since, written back as one update.
+     */
+    private static final class PendingSummary {
+
+        private final String path;
+        private final StudentAttemptSummary summary;
+        private final boolean stored;
+        private DocumentUpdate changes = DocumentUpdate.fields();
+        private int attemptsAdded;
+        private long xpAdded;
+
+        private PendingSummary(String path, StudentAttemptSummary summary, boolean stored) {
+            this.path = path;
+            this.summary = summary;
+            this.stored = stored;
+        }
+
+        int attemptCount() {
+            return summary.getAttemptCount();
+        }
 
-            if (attemptDTO.getTotalPointsPossible() != null && !attemptDTO.getTotalPointsPossible().equals(gameTotalPoints)) {
-                logger.warn("Total points possible in DTO ({}) does not match game record ({}). Using game record value for XP calculation for game {}.",
-                        attemptDTO.getTotalPointsPossible(), gameTotalPoints, assignedGame.getAssignedGameId());
+        void add(StudentGameAttempt attempt) {
+            attemptsAdded++;
+            xpAdded += attempt.getXpEarned();
+            summary.setAttemptCount(summary.getAttemptCount() + 1);
+            if (attempt.getScore() != null && (summary.getBestScore() == null || attempt.getScore() > summary.getBestScore())) {
+                summary.setBestScore(attempt.getScore());
+                changes = changes.set("bestScore", attempt.getScore());
             }
+            summary.setTotalXpEarned(summary.getTotalXpEarned() + attempt.getXpEarned());
+            summary.setLastAttemptId(attempt.getAttemptId());
+            summary.setUpdatedAt(null);
+        }
 
-            if (gameMaxXp != null && gameMaxXp > 0 &&
-                    gameTotalPoints != null && gameTotalPoints > 0 &&
-                    studentScore != null && studentScore >= 0) {
-                studentScore = Math.min(studentScore, gameTotalPoints); // Ensure score doesn't exceed max
-                double scorePercentage = (double) studentScore / gameTotalPoints;
-                xpEarned = Math.round(scorePercentage * gameMaxXp);
-                xpEarned = Math.max(0, Math.min(xpEarned, gameMaxXp)); // Clamp XP
+        void write(DocumentTransaction transaction) {
+            if (attemptsAdded == 0) {
+                return;
+            }
+            if (stored) {
+                transaction.update(path, changes
+                        .increment("attemptCount", attemptsAdded)
+                        .increment("totalXpEarned", xpAdded)
+                        .set("lastAttemptId", summary.getLastAttemptId())
+                        .serverTimestamp("updatedAt"));
             } else {
-                logger.warn("Could not calculate XP for assigned game {} (student {}). Game MaxXP: {}, Game TotalPoints: {}, Student Score: {}",
-                        assignedGame.getAssignedGameId(), student.getUserId(), gameMaxXp, gameTotalPoints, studentScore);
+                transaction.set(path, summary);
             }
+        }
+    }
 
-            DocumentReference newAttemptRef = attemptsCollectionRef.document();
-            // StudentGameAttempt model fields startedAt and completedAt have @ServerTimestamp
-            StudentGameAttempt newAttempt = StudentGameAttempt.builder()
-                    .attemptId(newAttemptRef.getId())
-                    .studentId(student.getUserId())
-                    .classroomId(attemptDTO.getClassroomId())
-                    .assignedGameId(assignedGame.getAssignedGameId())
-                    .libraryGameId(assignedGame.getLibraryGameId()) // From AssignedGame model
-                    .score(studentScore)
-                    .totalPointsPossible(gameTotalPoints) // Store authoritative total points
-                    .xpEarned(xpEarned)
-                    .status("COMPLETED")
-                    .startedAt(null) // Firestore will set this due to @ServerTimestamp
-                    .completedAt(null) // Firestore will set this due to @ServerTimestamp
-                    .build();
-            transaction.set(newAttemptRef, newAttempt);
-
-            if (xpEarned > 0) {
-                if (student.getCurrentXp() == null) student.setCurrentXp(0L);
-                if (student.getLevel() == null || student.getLevel() <= 0) student.setLevel(1);
-                // GamificationConfig.calculateXpForNextLevel confirmed from GamificationConfig.java
-                if (student.getXpToNextLevel() == null || student.getXpToNextLevel() <= 0) {
-                    student.setXpToNextLevel(gamificationConfig.calculateXpForNextLevel(student.getLevel()));
-                }
+    /**
+     * The response to a retried submission: the student as now, with the leveling state the submission left.
+     */
+    private UserDTO replay(StudentGameAttempt recorded, StudentGameAttemptDTO attemptDTO, User student) {
+        if (!Objects.equals(recorded.getClassroomId(), attemptDTO.getClassroomId())
+                || !Objects.equals(recorded.getAssignedGameId(), attemptDTO.getAssignedGameId())
+                || recorded.getSubmissionResult() == null) {
+            throw new BadRequestException("Idempotency-Key was already used for a different game attempt.");
+        }
+        logger.info("Game attempt {} for student {} was already recorded under this idempotency key; returning its result.",
+                recorded.getAttemptId(), recorded.getStudentId());
+        AttemptSubmissionResult result = recorded.getSubmissionResult();
+        UserDTO response = userService.convertToDTO(student);
+        response.setLevel(result.getLevel());
+        response.setCurrentXp(result.getCurrentXp());
+        response.setXpToNextLevel(result.getXpToNextLevel());
+        return response;
+    }
 
-                long newCurrentXp = student.getCurrentXp() + xpEarned;
-                student.setCurrentXp(newCurrentXp);
-                boolean leveledUpInTransaction = false;
-                int oldLevelForLog = student.getLevel();
-
-                while (student.getCurrentXp() >= student.getXpToNextLevel()) {
-                    leveledUpInTransaction = true;
-                    long xpOver = student.getCurrentXp() - student.getXpToNextLevel();
-                    student.setLevel(student.getLevel() + 1);
-                    student.setCurrentXp(xpOver);
-                    student.setXpToNextLevel(gamificationConfig.calculateXpForNextLevel(student.getLevel()));
-                }
-                // User model has updatedAt with @ServerTimestamp, so no need to set it manually.
-                // Firestore handles it if the document is updated.
-                transaction.set(studentRef, student);
-
-                if (leveledUpInTransaction) {
-                    logger.info("TRANSACTION: Student {} leveled up from Lvl {} to Lvl {}. XP: {}/{}",
-                            student.getUserId(), oldLevelForLog, student.getLevel(), student.getCurrentXp(), student.getXpToNextLevel());
-                } else {
-                    logger.info("TRANSACTION: Student {} awarded {} XP. New XP: {}/{}, Level: {}.",
-                            student.getUserId(), xpEarned, student.getCurrentXp(), student.getXpToNextLevel(), student.getLevel());
-                }
-            }
-            return student;
-        }).get();
+    /**
+     * The attempt document ID for a keyed submission: a hash of the student and key, so it is a valid document ID
+     * whatever the key contains, and keys chosen by different students never collide.
+     */
+    private static String idempotentAttemptId(String studentId, String idempotencyKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(studentId.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(idempotencyKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 
-        logger.info("Game attempt processed successfully for student {}. Final Level: {}, XP: {}/{}",
-                updatedStudentModelFromTransaction.getUserId(),
-                updatedStudentModelFromTransaction.getLevel(),
-                updatedStudentModelFromTransaction.getCurrentXp(),
-                updatedStudentModelFromTransaction.getXpToNextLevel());
-        // UserService.convertToDTO confirmed from UserService.java
-        return userService.convertToDTO(updatedStudentModelFromTransaction);
+    /**
+     * Builds the summary for a student and assigned game that has none yet, from the attempts recorded before
+     * summaries were kept. Runs once per pair; later attempts read the stored summary.
+     */
+    private StudentAttemptSummary summarizeExistingAttempts(DocumentTransaction transaction, String studentId,
+                                                            String classroomId, String assignedGameId)
+            throws ExecutionException, InterruptedException {
+        DocumentQuery existingAttemptsQuery = DocumentQuery.collection(STUDENT_GAME_ATTEMPTS_COLLECTION)
+                .whereEqualTo("studentId", studentId)
+                .whereEqualTo("assignedGameId", assignedGameId);
+        List<StudentGameAttempt> existingAttempts = transaction.query(existingAttemptsQuery, StudentGameAttempt.class);
+        if (!existingAttempts.isEmpty()) {
+            logger.info("Backfilling attempt summary for student {} and assigned game {} from {} earlier attempts.",
+                    studentId, assignedGameId, existingAttempts.size());
+        }
+        StudentAttemptSummary summary = StudentAttemptSummary.builder()
+                .assignedGameId(assignedGameId)
+                .studentId(studentId)
+                .classroomId(classroomId)
+                .attemptCount(existingAttempts.size())
+                .totalXpEarned(0L)
+                .build();
+        for (StudentGameAttempt attempt : existingAttempts) {
+            if (attempt.getScore() != null && (summary.getBestScore() == null || attempt.getScore() > summary.getBestScore())) {
+                summary.setBestScore(attempt.getScore());
+            }
+            if (attempt.getXpEarned() != null) {
+                summary.setTotalXpEarned(summary.getTotalXpEarned() + attempt.getXpEarned());
+            }
+        }
+        return summary;
     }
 
     public List<StudentGameAttemptDTO> getAttemptsForStudentInClassroom(String studentId, String classroomId)
             throws ExecutionException, InterruptedException {
-        // UserRepository.findById confirmed from UserRepository.java
-        userRepository.findById(studentId)
-                .orElseThrow(() -> new UserNotFoundException("Student not found with ID: " + studentId));
         logger.debug("Fetching attempts for student {} in classroom {}", studentId, classroomId);
-        List<StudentGameAttempt> attempts = attemptRepository.findAllByStudentIdAndClassroomId(studentId, classroomId);
-        return attempts.stream()
+        CompletableFuture<Optional<User>> studentFuture = asyncUserRepository.findByIdAsync(studentId);
+        CompletableFuture<List<StudentGameAttempt>> attemptsFuture =
+                asyncAttemptRepository.findAllByStudentIdAndClassroomIdAsync(studentId, classroomId);
+        studentFuture.get()
+                .orElseThrow(() -> new UserNotFoundException("Student not found with ID: " + studentId));
+        return attemptsFuture.get().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     public List<StudentGameAttemptDTO> getAttemptsForStudentOnAssignedGame(String studentId, String assignedGameId)
             throws ExecutionException, InterruptedException {
-        userRepository.findById(studentId)
-                .orElseThrow(() -> new UserNotFoundException("Student not found with ID: " + studentId));
         logger.debug("Fetching attempts for student {} on assigned game {}", studentId, assignedGameId);
-        List<StudentGameAttempt> attempts = attemptRepository.findAllByStudentIdAndAssignedGameId(studentId, assignedGameId);
-        return attempts.stream()
+        CompletableFuture<Optional<User>> studentFuture = asyncUserRepository.findByIdAsync(studentId);
+        CompletableFuture<List<StudentGameAttempt>> attemptsFuture =
+                asyncAttemptRepository.findAllByStudentIdAndAssignedGameIdAsync(studentId, assignedGameId);
+        studentFuture.get()
+                .orElseThrow(() -> new UserNotFoundException("Student not found with ID: " + studentId));
+        return attemptsFuture.get().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
@@ -231,14 +594,24 @@ public class StudentGameAttemptService {
         return convertToDTO(attempt);
     }
 
-    public List<StudentGameAttemptDTO> getAttemptsByClassroomIdAndAssignedGameId(String classroomId, String assignedGameId)
+    public CursorPage<StudentGameAttemptDTO> getAttemptsByClassroomIdAndAssignedGameId(String classroomId, String assignedGameId,
+                                                                                       Integer pageSize, String pageToken)
             throws ExecutionException, InterruptedException {
-        logger.debug("Fetching all attempts for assigned game {} in classroom {}", assignedGameId, classroomId);
-        // StudentGameAttemptRepository.findAllByClassroomIdAndAssignedGameId confirmed from StudentGameAttemptRepository.java
-        List<StudentGameAttempt> attempts = attemptRepository.findAllByClassroomIdAndAssignedGameId(classroomId, assignedGameId);
-        return attempts.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        logger.debug("Fetching a page of attempts for assigned game {} in classroom {}", assignedGameId, classroomId);
+        return attemptRepository.findPageByClassroomIdAndAssignedGameId(classroomId, assignedGameId,
+                        paginationConfig.resolvePageSize(pageSize), pageToken)
+                .map(this::convertToDTO);
+    }
+
+    /**
+     * Hands every attempt for the assigned game to {@code consumer} as it is read, without building a list.
+     */
+    public void streamAttemptsByClassroomIdAndAssignedGameId(String classroomId, String assignedGameId,
+                                                            DocumentConsumer<? super StudentGameAttemptDTO> consumer)
+            throws ExecutionException, InterruptedException {
+        logger.debug("Streaming all attempts for assigned game {} in classroom {}", assignedGameId, classroomId);
+        attemptRepository.streamAllByClassroomIdAndAssignedGameId(classroomId, assignedGameId,
+                attempt -> consumer.accept(convertToDTO(attempt)));
     }
 
     public StudentGameAttemptDTO convertToDTO(StudentGameAttempt attempt) {
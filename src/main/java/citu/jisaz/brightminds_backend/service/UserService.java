@@ -1,6 +1,5 @@
 package citu.jisaz.brightminds_backend.service;
 
-import citu.jisaz.brightminds_backend.config.GamificationConfig;
 import citu.jisaz.brightminds_backend.dto.CreateUserRequestDTO;
 import citu.jisaz.brightminds_backend.dto.UpdateUserRequestDTO;
 import citu.jisaz.brightminds_backend.dto.UserDTO;
@@ -9,6 +8,7 @@ import citu.jisaz.brightminds_backend.exception.UserNotFoundException;
 import citu.jisaz.brightminds_backend.exception.BadRequestException;
 import citu.jisaz.brightminds_backend.model.User;
 import citu.jisaz.brightminds_backend.repository.UserRepository;
+import citu.jisaz.brightminds_backend.security.PrincipalUserCache;
 
 import com.google.firebase.auth.AuthErrorCode;
 import com.google.firebase.auth.FirebaseAuth;
@@ -22,7 +22,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
-import java.util.Objects;
 import java.util.concurrent.ExecutionException;
 
 @Service
@@ -32,16 +31,19 @@ public class UserService {
 
     private final FirebaseAuth firebaseAuth;
     private final UserRepository userRepository;
-    private final GamificationConfig gamificationConfig;
+    private final LevelingEngine levelingEngine;
+    private final PrincipalUserCache principalUserCache;
     private final String masterTeacherEnrollmentCode;
 
     public UserService(FirebaseAuth firebaseAuth,
                        UserRepository userRepository,
-                       GamificationConfig gamificationConfig,
+                       LevelingEngine levelingEngine,
+                       PrincipalUserCache principalUserCache,
                        @Value("${brightminds.teacher.enrollment-code}") String masterTeacherEnrollmentCode) {
         this.firebaseAuth = firebaseAuth;
         this.userRepository = userRepository;
-        this.gamificationConfig = gamificationConfig;
+        this.levelingEngine = levelingEngine;
+        this.principalUserCache = principalUserCache;
         this.masterTeacherEnrollmentCode = masterTeacherEnrollmentCode;
     }
 
@@ -99,7 +101,7 @@ public class UserService {
 
         if ("STUDENT".equalsIgnoreCase(appUser.getRole())) {
             appUser.setLevel(1); appUser.setCurrentXp(0L);
-            appUser.setXpToNextLevel(gamificationConfig.calculateXpForNextLevel(1));
+            appUser.setXpToNextLevel(levelingEngine.xpForNextLevel(1));
         }
 
         User savedAppUser = userRepository.save(appUser);
@@ -160,6 +162,7 @@ public class UserService {
         }
 
         User updatedAppUser = userRepository.save(existingAppUser);
+        principalUserCache.invalidate(userId);
         logger.info("Firestore record updated for user: {}", updatedAppUser.getDisplayName());
         return convertToDTO(updatedAppUser);
     }
@@ -202,38 +205,15 @@ public class UserService {
             return convertToDTO(student); // Return DTO of the non-student user
         }
 
-        // Ensure gamification fields are initialized if null
-        student.setCurrentXp(Objects.requireNonNullElse(student.getCurrentXp(), 0L));
-        student.setLevel(Objects.requireNonNullElse(student.getLevel(), 1));
-        if (student.getLevel() <= 0) student.setLevel(1); // Ensure level is at least 1
-        student.setXpToNextLevel(Objects.requireNonNullElse(student.getXpToNextLevel(),
-                gamificationConfig.calculateXpForNextLevel(student.getLevel())));
-        if (student.getXpToNextLevel() <= 0) { // Recalculate if invalid
-            student.setXpToNextLevel(gamificationConfig.calculateXpForNextLevel(student.getLevel()));
-        }
-
-
-        long currentXpBeforeUpdate = student.getCurrentXp();
-        int currentLevelBeforeUpdate = student.getLevel();
-        long xpToNextLevelBeforeUpdate = student.getXpToNextLevel();
+        // Kept for the log line; the engine fills in missing or invalid gamification fields itself.
+        Long currentXpBeforeUpdate = student.getCurrentXp();
+        Integer currentLevelBeforeUpdate = student.getLevel();
+        Long xpToNextLevelBeforeUpdate = student.getXpToNextLevel();
 
-        student.setCurrentXp(currentXpBeforeUpdate + xpEarned);
-        boolean leveledUp = false;
-
-        while (student.getCurrentXp() >= student.getXpToNextLevel()) {
-            leveledUp = true;
-            long xpOver = student.getCurrentXp() - student.getXpToNextLevel();
-            int oldLevel = student.getLevel();
-            student.setLevel(oldLevel + 1);
-            student.setCurrentXp(xpOver); // Set to overflow XP
-            student.setXpToNextLevel(gamificationConfig.calculateXpForNextLevel(student.getLevel()));
-            if (student.getXpToNextLevel() <= 0) { // Safety check for calculateXpForNextLevel
-                logger.error("Calculated XpToNextLevel is invalid (<=0) for level {}. Setting to a default.", student.getLevel());
-                student.setXpToNextLevel(Long.MAX_VALUE); // Prevent infinite loop
-            }
-        }
+        boolean leveledUp = levelingEngine.applyXp(student, xpEarned) > 0;
 
         User updatedStudent = userRepository.save(student);
+        principalUserCache.invalidate(studentId);
 
         if (leveledUp) {
             logger.info("Student {} leveled up! Initial: Lvl {} (XP {}/{}), Awarded: {} XP. Final: Lvl {} (XP {}/{})",
@@ -0,0 +1,68 @@
+package citu.jisaz.brightminds_backend.config;
+
+import citu.jisaz.brightminds_backend.model.User;
+import citu.jisaz.brightminds_backend.repository.DocumentPaths;
+import citu.jisaz.brightminds_backend.repository.inmemory.InMemoryDocumentStore;
+import citu.jisaz.brightminds_backend.security.FirebaseIdTokenCache;
+import citu.jisaz.brightminds_backend.security.IdTokenClaims;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Health and info are public; the metrics endpoints are for users with the ADMIN role only.
+ */
+@SpringBootTest
+@ActiveProfiles("in-memory")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class ActuatorSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InMemoryDocumentStore store;
+
+    @MockitoBean
+    private FirebaseIdTokenCache idTokenCache;
+
+    private MockHttpServletRequestBuilder as(String role, MockHttpServletRequestBuilder request) throws Exception {
+        String userId = "actuator-" + role.toLowerCase();
+        store.set(DocumentPaths.of("users", userId), User.builder().userId(userId).role(role).build(), User.class).get();
+        when(idTokenCache.verify("token-" + userId)).thenReturn(new IdTokenClaims(Map.of("sub", userId)));
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer token-" + userId);
+    }
+
+    @Test
+    void healthIsPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @Test
+    void metricsNeedTheAdminRole() throws Exception {
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+        mockMvc.perform(as("TEACHER", get("/actuator/metrics/jvm.memory.used"))).andExpect(status().isForbidden());
+        mockMvc.perform(as("ADMIN", get("/actuator/metrics/jvm.memory.used"))).andExpect(status().isOk());
+    }
+
+    @Test
+    void prometheusNeedsTheAdminRole() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(as("STUDENT", get("/actuator/prometheus"))).andExpect(status().isForbidden());
+        mockMvc.perform(as("ADMIN", get("/actuator/prometheus"))).andExpect(status().isOk());
+    }
+}
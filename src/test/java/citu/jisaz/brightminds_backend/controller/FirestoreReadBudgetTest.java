@@ -0,0 +1,166 @@
+package citu.jisaz.brightminds_backend.controller;
+
+import citu.jisaz.brightminds_backend.config.FirestoreUnitOfWorkFilter;
+import citu.jisaz.brightminds_backend.model.AssignedGame;
+import citu.jisaz.brightminds_backend.model.Classroom;
+import citu.jisaz.brightminds_backend.model.ClassroomEnrollment;
+import citu.jisaz.brightminds_backend.model.User;
+import citu.jisaz.brightminds_backend.repository.DocumentPaths;
+import citu.jisaz.brightminds_backend.repository.inmemory.InMemoryDocumentStore;
+import citu.jisaz.brightminds_backend.security.FirebaseIdTokenCache;
+import citu.jisaz.brightminds_backend.security.IdTokenClaims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Read budgets per endpoint, checked against the X-Firestore-Document-Reads header on the in-memory backend. Each
+ * test seeds its own teacher and classroom, so the principal and access caches start cold and the budgets cover
+ * the authentication lookup (1 read) and the ownership check (1 read). A change that makes an endpoint read more,
+ * such as loading each student of a roster separately, fails here.
+ */
+@SpringBootTest
+@ActiveProfiles("in-memory")
+@AutoConfigureMockMvc
+class FirestoreReadBudgetTest {
+
+    private static final int STUDENTS = 25;
+    private static final int ASSIGNED_GAMES = 8;
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InMemoryDocumentStore store;
+
+    @MockitoBean
+    private FirebaseIdTokenCache idTokenCache;
+
+    private String teacherId;
+    private String classroomId;
+
+    @BeforeEach
+    void seedClassroom() throws Exception {
+        int n = SEQUENCE.incrementAndGet();
+        teacherId = "teacher-" + n;
+        classroomId = "classroom-" + n;
+        store.set(DocumentPaths.of("users", teacherId),
+                User.builder().userId(teacherId).displayName("Teacher").role("TEACHER").build(), User.class).get();
+        store.set(DocumentPaths.of("classrooms", classroomId),
+                Classroom.builder().classroomId(classroomId).name("Class").teacherId(teacherId).build(), Classroom.class).get();
+        for (int i = 0; i < STUDENTS; i++) {
+            String studentId = classroomId + "-student-" + i;
+            store.set(DocumentPaths.of("users", studentId),
+                    User.builder().userId(studentId).displayName("Student " + i).role("STUDENT").build(), User.class).get();
+            store.set(DocumentPaths.of("classrooms", classroomId, "enrolledStudents", studentId),
+                    ClassroomEnrollment.builder().studentId(studentId).studentName("Student " + i).build(),
+                    ClassroomEnrollment.class).get();
+        }
+        for (int i = 0; i < ASSIGNED_GAMES; i++) {
+            String assignedGameId = "assigned-" + i;
+            store.set(DocumentPaths.of("classrooms", classroomId, "assignedGames", assignedGameId),
+                    AssignedGame.builder().assignedGameId(assignedGameId).classroomId(classroomId).gameTitle("Game " + i).build(),
+                    AssignedGame.class).get();
+        }
+    }
+
+    private MockHttpServletRequestBuilder as(String userId, MockHttpServletRequestBuilder request) throws Exception {
+        when(idTokenCache.verify("token-" + userId)).thenReturn(new IdTokenClaims(Map.of("sub", userId)));
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer token-" + userId);
+    }
+
+    private static ResultMatcher readsAtMost(int budget) {
+        return result -> {
+            String reads = result.getResponse().getHeader(FirestoreUnitOfWorkFilter.READS_HEADER);
+            assertNotNull(reads, "missing " + FirestoreUnitOfWorkFilter.READS_HEADER + " header");
+            assertTrue(Integer.parseInt(reads) <= budget,
+                    result.getRequest().getRequestURI() + " read " + reads + " documents, over its budget of " + budget);
+        };
+    }
+
+    @Test
+    void classroomById() throws Exception {
+        // Principal, ownership check, classroom, counter shards.
+        mockMvc.perform(as(teacherId, get("/api/v1/classrooms/{classroomId}", classroomId)))
+                .andExpect(status().isOk())
+                .andExpect(readsAtMost(4));
+    }
+
+    @Test
+    void enrolledStudents() throws Exception {
+        // Principal, ownership check, classroom, then each enrollment and each student once.
+        mockMvc.perform(as(teacherId, get("/api/v1/classrooms/{classroomId}/students", classroomId)))
+                .andExpect(status().isOk())
+                .andExpect(readsAtMost(3 + 2 * STUDENTS));
+    }
+
+    @Test
+    void assignedGames() throws Exception {
+        // Principal, ownership check, then classroom, newest assignment and counter shards for the ETag, then each
+        // assigned game on the page once; the classroom comes from the classroom cache the second time.
+        mockMvc.perform(as(teacherId, get("/api/v1/classrooms/{classroomId}/games", classroomId)))
+                .andExpect(status().isOk())
+                .andExpect(readsAtMost(5 + ASSIGNED_GAMES));
+    }
+
+    @Test
+    void unchangedAssignedGamesPoll() throws Exception {
+        String etag = mockMvc.perform(as(teacherId, get("/api/v1/classrooms/{classroomId}/games", classroomId)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        // Principal, ownership check, classroom and counter sums are cached by now: only the newest assignment.
+        mockMvc.perform(as(teacherId, get("/api/v1/classrooms/{classroomId}/games", classroomId))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(readsAtMost(1));
+    }
+
+    @Test
+    void unchangedClassroomPoll() throws Exception {
+        String etag = mockMvc.perform(as(teacherId, get("/api/v1/classrooms/{classroomId}", classroomId)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        // Nothing: the classroom and its counter sums are cached by the first request.
+        mockMvc.perform(as(teacherId, get("/api/v1/classrooms/{classroomId}", classroomId))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(readsAtMost(0));
+    }
+
+    @Test
+    void classroomPollAfterAnUpdate() throws Exception {
+        String etag = mockMvc.perform(as(teacherId, get("/api/v1/classrooms/{classroomId}", classroomId)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(as(teacherId, put("/api/v1/classrooms/{classroomId}", classroomId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Renamed class\"}"))
+                .andExpect(status().isOk());
+        // The renamed classroom is a new version, even though the counts did not change.
+        mockMvc.perform(as(teacherId, get("/api/v1/classrooms/{classroomId}", classroomId))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Renamed class"))
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+}
@@ -0,0 +1,123 @@
+package citu.jisaz.brightminds_backend.controller;
+
+import citu.jisaz.brightminds_backend.model.Game;
+import citu.jisaz.brightminds_backend.model.User;
+import citu.jisaz.brightminds_backend.repository.DocumentPaths;
+import citu.jisaz.brightminds_backend.repository.GameCatalogChangedEvent;
+import citu.jisaz.brightminds_backend.repository.inmemory.InMemoryDocumentStore;
+import citu.jisaz.brightminds_backend.security.FirebaseIdTokenCache;
+import citu.jisaz.brightminds_backend.security.IdTokenClaims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The library game list is served from bytes rendered when the catalog changes, with an entity tag per encoding.
+ */
+@SpringBootTest
+@ActiveProfiles("in-memory")
+@AutoConfigureMockMvc
+class GameCatalogResponseTest {
+
+    private static final String STUDENT_ID = "catalog-student";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InMemoryDocumentStore store;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @MockitoBean
+    private FirebaseIdTokenCache idTokenCache;
+
+    @BeforeEach
+    void seedCatalog() throws Exception {
+        store.set(DocumentPaths.of("users", STUDENT_ID),
+                User.builder().userId(STUDENT_ID).displayName("Student").role("STUDENT").build(), User.class).get();
+        for (int i = 0; i < 3; i++) {
+            String gameId = "library-game-" + i;
+            store.set(DocumentPaths.of("libraryGames", gameId),
+                    Game.builder().libraryGameId(gameId).title("Game " + i).build(), Game.class).get();
+        }
+        eventPublisher.publishEvent(new GameCatalogChangedEvent(3));
+    }
+
+    private MockHttpServletRequestBuilder listGames() throws Exception {
+        when(idTokenCache.verify("token-" + STUDENT_ID)).thenReturn(new IdTokenClaims(Map.of("sub", STUDENT_ID)));
+        return get("/api/v1/games").header(HttpHeaders.AUTHORIZATION, "Bearer token-" + STUDENT_ID);
+    }
+
+    @Test
+    void unchangedCatalogIsAnsweredWithNotModified() throws Exception {
+        MvcResult first = mockMvc.perform(listGames())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andExpect(jsonPath("$[0].libraryGameId").value("library-game-0"))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(listGames().header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void gzipIsServedAsItsOwnRepresentation() throws Exception {
+        MvcResult identity = mockMvc.perform(listGames()).andExpect(status().isOk()).andReturn();
+        MvcResult gzipped = mockMvc.perform(listGames().header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        byte[] inflated;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+            inflated = in.readAllBytes();
+        }
+        assertArrayEquals(identity.getResponse().getContentAsByteArray(), inflated);
+        assertNotEquals(identity.getResponse().getHeader(HttpHeaders.ETAG), gzipped.getResponse().getHeader(HttpHeaders.ETAG));
+
+        mockMvc.perform(listGames().header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void catalogChangeChangesTheEntityTag() throws Exception {
+        String before = mockMvc.perform(listGames()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        store.set(DocumentPaths.of("libraryGames", "library-game-new"),
+                Game.builder().libraryGameId("library-game-new").title("New").build(), Game.class).get();
+        eventPublisher.publishEvent(new GameCatalogChangedEvent(4));
+
+        mockMvc.perform(listGames().header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4));
+    }
+}
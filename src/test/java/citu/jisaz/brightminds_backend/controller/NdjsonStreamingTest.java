@@ -0,0 +1,166 @@
+package citu.jisaz.brightminds_backend.controller;
+
+import citu.jisaz.brightminds_backend.model.Classroom;
+import citu.jisaz.brightminds_backend.model.ClassroomEnrollment;
+import citu.jisaz.brightminds_backend.model.StudentGameAttempt;
+import citu.jisaz.brightminds_backend.model.User;
+import citu.jisaz.brightminds_backend.repository.DocumentPaths;
+import citu.jisaz.brightminds_backend.repository.inmemory.InMemoryDocumentStore;
+import citu.jisaz.brightminds_backend.security.FirebaseIdTokenCache;
+import citu.jisaz.brightminds_backend.security.IdTokenClaims;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The NDJSON variants of the roster and attempt listings: a streamed body for the owner, and the same 404 and 403
+ * as the JSON variants otherwise, decided before anything is streamed.
+ */
+@SpringBootTest
+@ActiveProfiles("in-memory")
+@AutoConfigureMockMvc
+class NdjsonStreamingTest {
+
+    private static final int STUDENTS = 3;
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InMemoryDocumentStore store;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private FirebaseIdTokenCache idTokenCache;
+
+    private String teacherId;
+    private String otherTeacherId;
+    private String classroomId;
+
+    @BeforeEach
+    void seedClassroom() throws Exception {
+        int n = SEQUENCE.incrementAndGet();
+        teacherId = "ndjson-teacher-" + n;
+        otherTeacherId = "ndjson-other-teacher-" + n;
+        classroomId = "ndjson-classroom-" + n;
+        for (String id : new String[] {teacherId, otherTeacherId}) {
+            store.set(DocumentPaths.of("users", id), User.builder().userId(id).displayName("Teacher").role("TEACHER").build(), User.class).get();
+        }
+        store.set(DocumentPaths.of("classrooms", classroomId),
+                Classroom.builder().classroomId(classroomId).name("Class").teacherId(teacherId).build(), Classroom.class).get();
+        for (int i = 0; i < STUDENTS; i++) {
+            String studentId = classroomId + "-student-" + i;
+            store.set(DocumentPaths.of("users", studentId),
+                    User.builder().userId(studentId).displayName("Student " + i).role("STUDENT").build(), User.class).get();
+            store.set(DocumentPaths.of("classrooms", classroomId, "enrolledStudents", studentId),
+                    ClassroomEnrollment.builder().studentId(studentId).studentName("Student " + i).build(),
+                    ClassroomEnrollment.class).get();
+            store.set(DocumentPaths.of("studentGameAttempts", classroomId + "-attempt-" + i),
+                    StudentGameAttempt.builder().studentId(studentId).classroomId(classroomId).assignedGameId("assigned-1")
+                            .score(i).build(), StudentGameAttempt.class).get();
+        }
+    }
+
+    private MockHttpServletRequestBuilder ndjson(String userId, MockHttpServletRequestBuilder request) throws Exception {
+        when(idTokenCache.verify("token-" + userId)).thenReturn(new IdTokenClaims(Map.of("sub", userId)));
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer token-" + userId)
+                .accept(MediaType.APPLICATION_NDJSON);
+    }
+
+    private String streamed(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult started = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    void rosterIsStreamedOneStudentPerLine() throws Exception {
+        String body = streamed(ndjson(teacherId, get("/api/v1/classrooms/{classroomId}/students", classroomId)));
+
+        assertEquals(STUDENTS, body.lines().count());
+    }
+
+    @Test
+    void readsMadeWhileStreamingAreRecordedForTheRequest() throws Exception {
+        DistributionSummary reads = meterRegistry.summary("brightminds.firestore.request.documents",
+                "endpoint", "GET /api/v1/classrooms/{classroomId}/students", "operation", "read");
+        double before = reads.totalAmount();
+
+        streamed(ndjson(teacherId, get("/api/v1/classrooms/{classroomId}/students", classroomId)));
+
+        // At least each enrollment and each student, all of which are read after streaming started.
+        assertTrue(reads.totalAmount() - before >= 2 * STUDENTS,
+                "recorded " + (reads.totalAmount() - before) + " reads for the streamed roster");
+    }
+
+    @Test
+    void rosterIsAJsonArrayForOtherClients() throws Exception {
+        mockMvc.perform(ndjson(teacherId, get("/api/v1/classrooms/{classroomId}/students", classroomId)).accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(STUDENTS));
+    }
+
+    @Test
+    void rosterOfAMissingClassroomIsNotFound() throws Exception {
+        mockMvc.perform(ndjson(teacherId, get("/api/v1/classrooms/{classroomId}/students", "no-such-classroom")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void rosterOfAnotherTeachersClassroomIsForbidden() throws Exception {
+        mockMvc.perform(ndjson(otherTeacherId, get("/api/v1/classrooms/{classroomId}/students", classroomId)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void attemptsAreStreamedOnePerLine() throws Exception {
+        String body = streamed(ndjson(teacherId,
+                get("/api/v1/classrooms/{classroomId}/assigned-games/{assignedGameId}/attempts", classroomId, "assigned-1")));
+
+        assertEquals(STUDENTS, body.lines().count());
+    }
+
+    @Test
+    void attemptsOfAMissingClassroomAreNotFound() throws Exception {
+        mockMvc.perform(ndjson(teacherId,
+                        get("/api/v1/classrooms/{classroomId}/assigned-games/{assignedGameId}/attempts", "no-such-classroom", "assigned-1")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void attemptsInAnotherTeachersClassroomAreForbidden() throws Exception {
+        mockMvc.perform(ndjson(otherTeacherId,
+                        get("/api/v1/classrooms/{classroomId}/assigned-games/{assignedGameId}/attempts", classroomId, "assigned-1")))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,116 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import citu.jisaz.brightminds_backend.model.Game;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.EventListener;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class FirestoreGameCatalogTest {
+
+    private CollectionReference collection;
+    private ListenerRegistration registration;
+    private final List<EventListener<QuerySnapshot>> listeners = new CopyOnWriteArrayList<>();
+    private final CountDownLatch allowRelisten = new CountDownLatch(1);
+    private final CountDownLatch relistened = new CountDownLatch(1);
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private FirestoreGameCatalog catalog;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        Firestore db = mock(Firestore.class);
+        collection = mock(CollectionReference.class);
+        registration = mock(ListenerRegistration.class);
+        when(db.collection(anyString())).thenReturn(collection);
+        when(collection.addSnapshotListener(any(EventListener.class))).thenAnswer(invocation -> {
+            EventListener<QuerySnapshot> listener = invocation.getArgument(0);
+            boolean relisten = !listeners.isEmpty();
+            if (relisten) {
+                allowRelisten.await();
+            }
+            listeners.add(listener);
+            // Firestore delivers the current contents as the first event.
+            listener.onEvent(snapshot(Timestamp.now(), "g1"), null);
+            if (relisten) {
+                relistened.countDown();
+            }
+            return registration;
+        });
+        catalog = new FirestoreGameCatalog(db, new SimpleMeterRegistry(), events::add, Duration.ofSeconds(1), Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.shutdown();
+    }
+
+    private static QuerySnapshot snapshot(Timestamp readTime, String... gameIds) {
+        List<QueryDocumentSnapshot> documents = new ArrayList<>();
+        for (String gameId : gameIds) {
+            QueryDocumentSnapshot document = mock(QueryDocumentSnapshot.class);
+            when(document.getId()).thenReturn(gameId);
+            when(document.toObject(Game.class)).thenAnswer(invocation -> Game.builder().libraryGameId(gameId).build());
+            documents.add(document);
+        }
+        QuerySnapshot snapshot = mock(QuerySnapshot.class);
+        when(snapshot.getDocuments()).thenReturn(documents);
+        when(snapshot.getReadTime()).thenReturn(readTime);
+        return snapshot;
+    }
+
+    @Test
+    void lookupsAreServedFromTheLatestSnapshotWithoutFirestoreCalls() {
+        assertTrue(catalog.isLoaded());
+        assertEquals("g1", catalog.findById("g1").orElseThrow().getLibraryGameId());
+        assertNotSame(catalog.findById("g1").orElseThrow(), catalog.findById("g1").orElseThrow());
+
+        listeners.get(0).onEvent(snapshot(Timestamp.now(), "g1", "g2"), null);
+
+        assertEquals(List.of("g1", "g2"), catalog.findAll().stream().map(Game::getLibraryGameId).toList());
+        assertTrue(catalog.findById("missing").isEmpty());
+        assertEquals(List.of(new GameCatalogChangedEvent(1), new GameCatalogChangedEvent(2)), events);
+        assertEquals(0, catalog.stalenessSeconds());
+        verify(collection).addSnapshotListener(any());
+        verifyNoMoreInteractions(collection);
+    }
+
+    @Test
+    void listenerFailureKeepsServingTheLastSnapshotAndListensAgain() throws Exception {
+        listeners.get(0).onEvent(snapshot(Timestamp.ofTimeSecondsAndNanos(Timestamp.now().getSeconds() - 120, 0), "g1", "g2"), null);
+
+        listeners.get(0).onEvent(null, mock(FirestoreException.class));
+
+        assertEquals(2, catalog.findAll().size());
+        assertTrue(catalog.stalenessSeconds() >= 120);
+        verify(registration).remove();
+        allowRelisten.countDown();
+        assertTrue(relistened.await(1, TimeUnit.SECONDS));
+        assertEquals(0, catalog.stalenessSeconds());
+    }
+}
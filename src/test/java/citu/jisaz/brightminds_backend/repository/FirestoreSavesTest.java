@@ -0,0 +1,143 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import citu.jisaz.brightminds_backend.model.AssignedGame;
+import citu.jisaz.brightminds_backend.model.Classroom;
+import citu.jisaz.brightminds_backend.model.User;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteResult;
+import io.grpc.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Counts the Firestore RPCs each save issues. Before single-write saves, a user or assigned-game save cost a read
+ * and a write, and a classroom update a read, a write and a read back.
+ */
+class FirestoreSavesTest {
+
+    private static final Timestamp COMMIT_TIME = Timestamp.ofTimeSecondsAndNanos(1_746_086_400L, 0);
+    private static final Date CREATED = new Date(1_700_000_000_000L);
+
+    private Firestore db;
+    private CollectionReference collection;
+    private DocumentReference docRef;
+
+    @BeforeEach
+    void setUp() {
+        db = mock(Firestore.class);
+        collection = mock(CollectionReference.class);
+        docRef = mock(DocumentReference.class);
+        WriteResult writeResult = mock(WriteResult.class);
+        when(writeResult.getUpdateTime()).thenReturn(COMMIT_TIME);
+
+        when(db.collection(anyString())).thenReturn(collection);
+        when(collection.document()).thenReturn(docRef);
+        when(collection.document(anyString())).thenReturn(docRef);
+        when(docRef.collection(anyString())).thenReturn(collection);
+        when(docRef.getId()).thenReturn("generated-id");
+        when(docRef.getPath()).thenReturn("collection/generated-id");
+        when(docRef.set(anyMap())).thenReturn(ApiFutures.immediateFuture(writeResult));
+        when(docRef.set(anyMap(), any(SetOptions.class))).thenReturn(ApiFutures.immediateFuture(writeResult));
+        when(docRef.create(anyMap())).thenReturn(ApiFutures.immediateFuture(writeResult));
+    }
+
+    private int rpcCount() {
+        return (int) mockingDetails(docRef).getInvocations().stream()
+                .filter(invocation -> {
+                    String method = invocation.getMethod().getName();
+                    return method.equals("get") || method.equals("set") || method.equals("create");
+                })
+                .count();
+    }
+
+    @Test
+    void updatingAStoredUserIsOneSet() throws Exception {
+        User user = User.builder().userId("u1").role("STUDENT").createdAt(CREATED).build();
+
+        User saved = new FirestoreUserRepositoryImpl(db).save(user);
+
+        assertEquals(1, rpcCount());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> data = ArgumentCaptor.forClass(Map.class);
+        verify(docRef).set(data.capture());
+        assertEquals(CREATED, data.getValue().get("createdAt"));
+        assertInstanceOf(FieldValue.class, data.getValue().get("updatedAt"));
+        assertEquals(CREATED, saved.getCreatedAt());
+        assertEquals(COMMIT_TIME.toDate(), saved.getUpdatedAt());
+    }
+
+    @Test
+    void newClassroomIsOneCreateWithTimestampsFromTheWriteResult() throws Exception {
+        Classroom classroom = Classroom.builder().name("Grade 3").teacherId("t1").build();
+
+        Classroom saved = new FirestoreClassroomRepositoryImpl(db).save(classroom);
+
+        assertEquals(1, rpcCount());
+        verify(docRef).create(anyMap());
+        assertEquals("generated-id", saved.getClassroomId());
+        assertEquals(COMMIT_TIME.toDate(), saved.getCreatedAt());
+        assertEquals(COMMIT_TIME.toDate(), saved.getUpdatedAt());
+    }
+
+    @Test
+    void updatingAStoredClassroomIsOneSetWithNoReadBack() throws Exception {
+        Classroom classroom = Classroom.builder().classroomId("c1").name("Grade 3").createdAt(CREATED).build();
+
+        Classroom saved = new FirestoreClassroomRepositoryImpl(db).save(classroom);
+
+        assertEquals(1, rpcCount());
+        assertEquals(CREATED, saved.getCreatedAt());
+        assertEquals(COMMIT_TIME.toDate(), saved.getUpdatedAt());
+    }
+
+    @Test
+    void newAssignedGameIsOneCreate() throws Exception {
+        AssignedGame assignedGame = AssignedGame.builder().libraryGameId("g1").build();
+
+        AssignedGame saved = new FirestoreAssignedGameRepositoryImpl(db).save("c1", assignedGame);
+
+        assertEquals(1, rpcCount());
+        assertEquals(COMMIT_TIME.toDate(), saved.getDateAssigned());
+    }
+
+    @Test
+    void userWithoutCreatedAtThatAlreadyExistsIsMergedWithoutTouchingCreatedAt() throws Exception {
+        when(docRef.create(anyMap())).thenReturn(ApiFutures.immediateFailedFuture(
+                FirestoreException.forServerRejection(Status.ALREADY_EXISTS, "Document already exists")));
+        User user = User.builder().userId("u1").role("TEACHER").build();
+
+        User saved = new FirestoreUserRepositoryImpl(db).save(user);
+
+        assertEquals(2, rpcCount());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> data = ArgumentCaptor.forClass(Map.class);
+        verify(docRef).set(data.capture(), eq(SetOptions.merge()));
+        assertFalse(data.getValue().containsKey("createdAt"));
+        assertNull(saved.getCreatedAt());
+        assertEquals(COMMIT_TIME.toDate(), saved.getUpdatedAt());
+    }
+}
@@ -0,0 +1,118 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import citu.jisaz.brightminds_backend.model.User;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.rpc.ApiStreamObserver;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
+import com.google.cloud.firestore.Query;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FirestoreUnitOfWorkTest {
+
+    @Test
+    void fieldReadsUseAFieldMaskAndAreNotKeptInTheIdentityMap() throws Exception {
+        DocumentReference docRef = mock(DocumentReference.class);
+        DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+        when(docRef.getPath()).thenReturn("users/u1");
+        when(docRef.get(any(FieldMask.class))).thenReturn(ApiFutures.immediateFuture(snapshot));
+        when(snapshot.exists()).thenReturn(true);
+        when(snapshot.toObject(User.class)).thenReturn(User.builder().userId("u1").role("STUDENT").build());
+
+        try (FirestoreUnitOfWork unitOfWork = FirestoreUnitOfWork.begin()) {
+            Optional<User> first = FirestoreUnitOfWork.getFields(docRef, User.class, "role");
+            FirestoreUnitOfWork.getFields(docRef, User.class, "role");
+
+            assertEquals("STUDENT", first.orElseThrow().getRole());
+            verify(docRef, times(2)).get(any(FieldMask.class));
+            verify(docRef, never()).get();
+            assertEquals(2, unitOfWork.getDocumentReads());
+            assertEquals(0, unitOfWork.getIdentityMapHits());
+        }
+    }
+
+    @Test
+    void streamedDocumentsReachTheCallingThreadInOrderAndAreNotKept() throws Exception {
+        AtomicReference<Thread> producer = new AtomicReference<>();
+        Query query = streamingQuery(500, producer);
+        List<String> received = new ArrayList<>();
+        Thread caller = Thread.currentThread();
+
+        try (FirestoreUnitOfWork unitOfWork = FirestoreUnitOfWork.begin()) {
+            FirestoreUnitOfWork.stream(query, DocumentSnapshot::getId, id -> {
+                assertEquals(caller, Thread.currentThread());
+                received.add(id);
+            });
+
+            assertEquals(500, received.size());
+            assertEquals("doc0", received.getFirst());
+            assertEquals("doc499", received.getLast());
+            assertEquals(500, unitOfWork.getDocumentReads());
+        }
+        producer.get().join(5_000);
+        assertFalse(producer.get().isAlive());
+    }
+
+    @Test
+    void consumerFailureStopsTheStreamWithoutBlockingTheProducer() throws Exception {
+        AtomicReference<Thread> producer = new AtomicReference<>();
+        Query query = streamingQuery(1_000, producer);
+        List<String> received = new ArrayList<>();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () ->
+                FirestoreUnitOfWork.stream(query, DocumentSnapshot::getId, id -> {
+                    if (received.size() == 3) {
+                        throw new IOException("client went away");
+                    }
+                    received.add(id);
+                }));
+
+        assertInstanceOf(IOException.class, failure.getCause());
+        assertEquals(3, received.size());
+        producer.get().join(5_000);
+        assertFalse(producer.get().isAlive());
+    }
+
+    /**
+     * A query whose results arrive from another thread, as they do from the Firestore client.
+     */
+    @SuppressWarnings("unchecked")
+    private static Query streamingQuery(int documents, AtomicReference<Thread> producer) {
+        Query query = mock(Query.class);
+        doAnswer(invocation -> {
+            ApiStreamObserver<DocumentSnapshot> observer = invocation.getArgument(0);
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < documents; i++) {
+                    DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+                    when(snapshot.getId()).thenReturn("doc" + i);
+                    observer.onNext(snapshot);
+                }
+                observer.onCompleted();
+            });
+            producer.set(thread);
+            thread.start();
+            return null;
+        }).when(query).stream(any(ApiStreamObserver.class));
+        return query;
+    }
+}
@@ -0,0 +1,85 @@
+package citu.jisaz.brightminds_backend.repository;
+
+import citu.jisaz.brightminds_backend.model.User;
+import citu.jisaz.brightminds_backend.repository.inmemory.InMemoryDocumentStore;
+import citu.jisaz.brightminds_backend.repository.inmemory.InMemoryTransactionRunner;
+import citu.jisaz.brightminds_backend.repository.inmemory.InMemoryUserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RepositoryMetricsPostProcessorTest {
+
+    private InMemoryDocumentStore store;
+    private SimpleMeterRegistry meterRegistry;
+    private RepositoryMetricsPostProcessor postProcessor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new InMemoryDocumentStore(Duration.ZERO, Duration.ZERO, null);
+        meterRegistry = new SimpleMeterRegistry();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("firestoreMetrics", new FirestoreMetrics(meterRegistry));
+        postProcessor = new RepositoryMetricsPostProcessor(beanFactory.getBeanProvider(FirestoreMetrics.class));
+    }
+
+    private double documents(String repository, String method, String operation) {
+        var counter = meterRegistry.find(FirestoreMetrics.DOCUMENTS)
+                .tags("repository", repository, "method", method, "operation", operation, "endpoint", "none")
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Test
+    void repositoryCallsAreTimedAndTheirDocumentsCounted() throws Exception {
+        Object bean = postProcessor.postProcessAfterInitialization(new InMemoryUserRepository(store), "inMemoryUserRepository");
+        UserRepository users = assertInstanceOf(UserRepository.class, bean);
+        AsyncUserRepository asyncUsers = assertInstanceOf(AsyncUserRepository.class, bean);
+
+        users.save(User.builder().userId("s1").role("STUDENT").build());
+        users.findById("s1");
+        users.findById("missing");
+        asyncUsers.findByIdAsync("s1").get();
+
+        assertEquals(1, documents("UserRepository", "save", "write"));
+        // A lookup of a missing document counts as one too.
+        assertEquals(2, documents("UserRepository", "findById", "read"));
+        assertEquals(1, documents("UserRepository", "findByIdAsync", "read"));
+        assertEquals(2, meterRegistry.find(FirestoreMetrics.CALLS)
+                .tags("repository", "UserRepository", "method", "findById", "outcome", "SUCCESS")
+                .timer().count());
+    }
+
+    @Test
+    void transactionsCountEveryAttemptsReadsButOnlyCommittedWrites() throws Exception {
+        store.set("users/s1", User.builder().userId("s1").role("STUDENT").currentXp(0L).build(), User.class).get();
+        TransactionRunner runner = (TransactionRunner) postProcessor.postProcessAfterInitialization(
+                new InMemoryTransactionRunner(store, meterRegistry, 5, Duration.ZERO), "inMemoryTransactionRunner");
+        AtomicBoolean conflicted = new AtomicBoolean();
+
+        runner.run(transaction -> {
+            User user = transaction.get("users/s1", User.class).orElseThrow();
+            if (conflicted.compareAndSet(false, true)) {
+                // A concurrent write to the document read makes this attempt's commit fail and the transaction retry.
+                store.set("users/s1", User.builder().userId("s1").role("STUDENT").currentXp(5L).build(), User.class).get();
+            }
+            user.setCurrentXp(user.getCurrentXp() + 1);
+            transaction.set("users/s1", user);
+            return null;
+        });
+
+        assertTrue(conflicted.get());
+        assertEquals(1, meterRegistry.find(FirestoreMetrics.TRANSACTION_RETRIES).counter().count());
+        assertEquals(2, documents(FirestoreMetrics.TRANSACTION_REPOSITORY, FirestoreMetrics.TRANSACTION_METHOD, "read"));
+        assertEquals(1, documents(FirestoreMetrics.TRANSACTION_REPOSITORY, FirestoreMetrics.TRANSACTION_METHOD, "write"));
+        assertEquals(1, meterRegistry.find(FirestoreMetrics.TRANSACTIONS).tags("outcome", "SUCCESS").timer().count());
+    }
+}
@@ -0,0 +1,67 @@
+package citu.jisaz.brightminds_backend.repository.inmemory;
+
+import citu.jisaz.brightminds_backend.exception.BadRequestException;
+import citu.jisaz.brightminds_backend.model.AssignedGame;
+import citu.jisaz.brightminds_backend.repository.CursorPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InMemoryAssignedGameRepositoryTest {
+
+    private InMemoryAssignedGameRepository repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = new InMemoryAssignedGameRepository(new InMemoryDocumentStore(Duration.ZERO, Duration.ZERO, null));
+        assign("a", 1_000L);
+        assign("b", 3_000L);
+        assign("c", 2_000L);
+        assign("d", 3_000L);
+        assign("e", 4_000L);
+    }
+
+    private void assign(String assignedGameId, long dateAssignedMillis) throws Exception {
+        AssignedGame assignedGame = new AssignedGame();
+        assignedGame.setAssignedGameId(assignedGameId);
+        assignedGame.setDateAssigned(new Date(dateAssignedMillis));
+        repository.save("c1", assignedGame);
+    }
+
+    @Test
+    void pagesFollowOneAnotherNewestFirstWithoutGapsOrRepeats() throws Exception {
+        List<String> seen = new ArrayList<>();
+        String pageToken = null;
+        int pages = 0;
+        do {
+            CursorPage<AssignedGame> page = repository.findPageByClassroomId("c1", 2, pageToken);
+            page.items().forEach(assignedGame -> seen.add(assignedGame.getAssignedGameId()));
+            pageToken = page.nextPageToken();
+            pages++;
+        } while (pageToken != null);
+
+        assertEquals(List.of("e", "d", "b", "c", "a"), seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void exactlyFullLastPageHasNoNextToken() throws Exception {
+        CursorPage<AssignedGame> page = repository.findPageByClassroomId("c1", 5, null);
+
+        assertEquals(5, page.items().size());
+        assertNull(page.nextPageToken());
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertThrows(BadRequestException.class, () -> repository.findPageByClassroomId("c1", 2, "not-a-token"));
+    }
+}
@@ -0,0 +1,183 @@
+package citu.jisaz.brightminds_backend.repository.inmemory;
+
+import citu.jisaz.brightminds_backend.model.User;
+import citu.jisaz.brightminds_backend.repository.DocumentQuery;
+import citu.jisaz.brightminds_backend.repository.DocumentUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryTransactionRunnerTest {
+
+    private InMemoryDocumentStore store;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new InMemoryDocumentStore(Duration.ZERO, Duration.ZERO, null);
+        meterRegistry = new SimpleMeterRegistry();
+        store.set("users/s1", User.builder().userId("s1").role("STUDENT").currentXp(0L).build(), User.class).get();
+    }
+
+    private InMemoryTransactionRunner runner(int maxAttempts) {
+        return new InMemoryTransactionRunner(store, meterRegistry, maxAttempts, Duration.ZERO);
+    }
+
+    @Test
+    void concurrentReadModifyWritesAreSerialized() throws Exception {
+        InMemoryTransactionRunner runner = runner(1000);
+        int writers = 8;
+        int incrementsPerWriter = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < incrementsPerWriter; i++) {
+                        runner.run(transaction -> {
+                            User user = transaction.get("users/s1", User.class).orElseThrow();
+                            user.setCurrentXp(user.getCurrentXp() + 1);
+                            transaction.set("users/s1", user);
+                            return null;
+                        });
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals((long) writers * incrementsPerWriter, store.get("users/s1", User.class).get().orElseThrow().getCurrentXp());
+        assertEquals(writers * incrementsPerWriter,
+                (int) meterRegistry.get("brightminds.inmemory.transactions").tag("outcome", "committed").counter().count());
+    }
+
+    @Test
+    void blindIncrementsNeverConflict() throws Exception {
+        InMemoryTransactionRunner runner = runner(1);
+        int writers = 8;
+        int incrementsPerWriter = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < incrementsPerWriter; i++) {
+                        runner.run(transaction -> {
+                            transaction.increment("classrooms/c1/counterShards/0", "studentCount", 1);
+                            return null;
+                        });
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<?, ?> shard = store.get("classrooms/c1/counterShards/0", Map.class).get().orElseThrow();
+        assertEquals((long) writers * incrementsPerWriter, ((Number) shard.get("studentCount")).longValue());
+    }
+
+    @Test
+    void updatesChangeOnlyNamedFieldsOfExistingDocuments() throws Exception {
+        store.set("users/s1", User.builder().userId("s1").role("STUDENT").currentXp(5L)
+                .studentOfClassrooms(new ArrayList<>(List.of("c1", "c2"))).build(), User.class).get();
+
+        runner(1).run(transaction -> {
+            transaction.update("users/s1", DocumentUpdate.fields()
+                    .arrayUnion("studentOfClassrooms", "c3", "c1")
+                    .arrayRemove("studentOfClassrooms", "c2")
+                    .increment("currentXp", 10));
+            return null;
+        });
+
+        User updated = store.get("users/s1", User.class).get().orElseThrow();
+        assertEquals(List.of("c1", "c3"), updated.getStudentOfClassrooms());
+        assertEquals(15L, updated.getCurrentXp());
+        assertEquals("STUDENT", updated.getRole());
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> runner(1).run(transaction -> {
+            transaction.set("users/s2", User.builder().userId("s2").build());
+            transaction.update("users/missing", DocumentUpdate.fields().set("level", 2));
+            return null;
+        }));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertTrue(store.get("users/s2", User.class).get().isEmpty());
+    }
+
+    @Test
+    void conflictingCommitIsRetriedAndThenAborted() throws Exception {
+        InMemoryTransactionRunner runner = runner(2);
+        CountDownLatch attempts = new CountDownLatch(2);
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> runner.run(transaction -> {
+            transaction.get("users/s1", User.class).orElseThrow();
+            // Another writer commits between this transaction's read and its commit, on every attempt.
+            store.set("users/s1", User.builder().userId("s1").role("STUDENT").currentXp(attempts.getCount()).build(), User.class).get();
+            attempts.countDown();
+            transaction.set("users/s1", User.builder().userId("s1").role("STUDENT").currentXp(-1L).build());
+            return null;
+        }));
+
+        assertInstanceOf(ConcurrentModificationException.class, failure.getCause());
+        assertEquals(0, attempts.getCount());
+        assertTrue(store.get("users/s1", User.class).get().orElseThrow().getCurrentXp() >= 0);
+    }
+
+    @Test
+    void newQueryMatchInvalidatesTransaction() throws Exception {
+        InMemoryTransactionRunner runner = runner(2);
+        DocumentQuery students = DocumentQuery.collection("users").whereEqualTo("role", "STUDENT");
+        int[] calls = {0};
+
+        int seen = runner.run(transaction -> {
+            int matched = transaction.query(students, User.class).size();
+            if (calls[0]++ == 0) {
+                store.set("users/s2", User.builder().userId("s2").role("STUDENT").build(), User.class).get();
+            }
+            transaction.set("counters/students", Map.of("count", matched));
+            return matched;
+        });
+
+        assertEquals(2, calls[0]);
+        assertEquals(2, seen);
+    }
+
+    @Test
+    void serverTimestampsAreFilledAndReadsAfterWritesRejected() throws Exception {
+        User stored = store.get("users/s1", User.class).get().orElseThrow();
+        assertNotNull(stored.getCreatedAt());
+        assertNotNull(stored.getUpdatedAt());
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> runner(1).run(transaction -> {
+            transaction.set("users/s1", stored);
+            return transaction.get("users/s1", User.class);
+        }));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+}
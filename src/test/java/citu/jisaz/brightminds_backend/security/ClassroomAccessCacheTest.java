@@ -0,0 +1,37 @@
+package citu.jisaz.brightminds_backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ClassroomAccessCacheTest {
+
+    private final ClassroomAccessCache cache =
+            new ClassroomAccessCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5), Duration.ofSeconds(30));
+
+    @Test
+    void decisionResolvedBeforeAnInvalidationIsNotCached() {
+        long version = cache.version("s1", "c1");
+        // The student is enrolled while the NONE decision is being resolved from the old reads.
+        cache.invalidate("s1", "c1");
+        cache.put("s1", "c1", ClassroomAccessCache.Access.NONE, version);
+
+        assertNull(cache.getIfPresent("s1", "c1"));
+
+        cache.put("s1", "c1", ClassroomAccessCache.Access.ENROLLED, cache.version("s1", "c1"));
+        assertEquals(ClassroomAccessCache.Access.ENROLLED, cache.getIfPresent("s1", "c1"));
+    }
+
+    @Test
+    void invalidatingAnotherPairDoesNotDropTheDecision() {
+        long version = cache.version("s1", "c1");
+        cache.invalidate("s2", "c1");
+        cache.put("s1", "c1", ClassroomAccessCache.Access.ENROLLED, version);
+
+        assertEquals(ClassroomAccessCache.Access.ENROLLED, cache.getIfPresent("s1", "c1"));
+    }
+}
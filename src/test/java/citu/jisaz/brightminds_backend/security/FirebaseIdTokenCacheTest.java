@@ -0,0 +1,80 @@
+package citu.jisaz.brightminds_backend.security;
+
+import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.AuthErrorCode;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FirebaseIdTokenCacheTest {
+
+    private static final String TOKEN = "locally-verifiable-token";
+
+    private FirebaseAuth firebaseAuth;
+    private FirebaseIdTokenVerifier verifier;
+    private SimpleMeterRegistry meterRegistry;
+    private FirebaseIdTokenCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        firebaseAuth = mock(FirebaseAuth.class);
+        verifier = mock(FirebaseIdTokenVerifier.class);
+        long exp = Instant.now().plus(Duration.ofHours(1)).getEpochSecond();
+        when(verifier.verify(TOKEN)).thenReturn(new FirebaseIdTokenVerifier.VerifiedIdToken(
+                new IdTokenClaims(Map.of("sub", "student-123", "exp", exp)), false));
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new FirebaseIdTokenCache(firebaseAuth, verifier, meterRegistry, 100, Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void revokedTokenIsRejectedAfterItsBackgroundCheck() throws Exception {
+        when(firebaseAuth.verifyIdToken(TOKEN, true)).thenThrow(new FirebaseAuthException(ErrorCode.INVALID_ARGUMENT,
+                "Firebase ID token has been revoked", null, null, AuthErrorCode.REVOKED_ID_TOKEN));
+
+        // Accepted on local verification; its first revocation check runs in the background.
+        assertEquals("student-123", cache.verify(TOKEN).getUid());
+        awaitRevocationChecks("invalidated");
+
+        FirebaseAuthException e = assertThrows(FirebaseAuthException.class, () -> cache.verify(TOKEN));
+        assertEquals(AuthErrorCode.REVOKED_ID_TOKEN, e.getAuthErrorCode());
+        verify(verifier, times(1)).verify(TOKEN);
+    }
+
+    @Test
+    void validTokenIsServedFromTheCacheAfterItsCheck() throws Exception {
+        assertEquals("student-123", cache.verify(TOKEN).getUid());
+        awaitRevocationChecks("valid");
+
+        assertEquals("student-123", cache.verify(TOKEN).getUid());
+        verify(verifier, times(1)).verify(TOKEN);
+    }
+
+    private void awaitRevocationChecks(String outcome) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (meterRegistry.get("brightminds.auth.token.revocation.checks").tag("outcome", outcome).counter().count() < 1) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("No " + outcome + " revocation check within 5 seconds");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package citu.jisaz.brightminds_backend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.firebase.auth.AuthErrorCode;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FirebaseIdTokenVerifierTest {
+
+    private static final String PROJECT_ID = "brightminds-test";
+    private static final String KEY_ID = "local-key-1";
+    private static final Instant NOW = Instant.parse("2025-05-01T08:00:00Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private HttpServer keyEndpoint;
+    private KeyPair signingKeys;
+    private FirebaseAuth firebaseAuth;
+    private FirebaseIdTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        signingKeys = generator.generateKeyPair();
+
+        byte[] jwks = jwksFor(KEY_ID, (RSAPublicKey) signingKeys.getPublic());
+        keyEndpoint = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        keyEndpoint.createContext("/jwk", exchange -> {
+            exchange.getResponseHeaders().add("Cache-Control", "public, max-age=3600");
+            exchange.sendResponseHeaders(200, jwks.length);
+            exchange.getResponseBody().write(jwks);
+            exchange.close();
+        });
+        keyEndpoint.start();
+
+        URI jwksUri = URI.create("http://127.0.0.1:" + keyEndpoint.getAddress().getPort() + "/jwk");
+        FirebaseSigningKeyStore keyStore = new FirebaseSigningKeyStore(jwksUri, Duration.ofMinutes(10), Duration.ofSeconds(30));
+        assertEquals(Duration.ofHours(1), keyStore.refresh());
+
+        firebaseAuth = mock(FirebaseAuth.class);
+        verifier = new FirebaseIdTokenVerifier(firebaseAuth, keyStore, PROJECT_ID, Duration.ofSeconds(60),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        keyEndpoint.stop(0);
+    }
+
+    @Test
+    void verifiesValidTokenWithoutCallingFirebase() throws Exception {
+        FirebaseIdTokenVerifier.VerifiedIdToken verified = verifier.verify(sign(KEY_ID, validClaims()));
+
+        assertEquals("student-123", verified.token().getUid());
+        assertEquals("student@example.com", verified.token().claims().get("email"));
+        assertFalse(verified.revocationChecked());
+        verify(firebaseAuth, never()).verifyIdToken(anyString(), anyBoolean());
+    }
+
+    @Test
+    void rejectsWrongAudienceAndIssuer() {
+        Map<String, Object> wrongAudience = validClaims();
+        wrongAudience.put("aud", "some-other-project");
+        assertInvalid(sign(KEY_ID, wrongAudience), AuthErrorCode.INVALID_ID_TOKEN);
+
+        Map<String, Object> wrongIssuer = validClaims();
+        wrongIssuer.put("iss", "https://securetoken.google.com/some-other-project");
+        assertInvalid(sign(KEY_ID, wrongIssuer), AuthErrorCode.INVALID_ID_TOKEN);
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        Map<String, Object> expired = validClaims();
+        expired.put("exp", NOW.minusSeconds(120).getEpochSecond());
+        assertInvalid(sign(KEY_ID, expired), AuthErrorCode.EXPIRED_ID_TOKEN);
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        String[] parts = sign(KEY_ID, validClaims()).split("\\.");
+        Map<String, Object> escalated = validClaims();
+        escalated.put("sub", "teacher-999");
+        String tampered = parts[0] + "." + encode(escalated) + "." + parts[2];
+        assertInvalid(tampered, AuthErrorCode.INVALID_ID_TOKEN);
+    }
+
+    @Test
+    void fallsBackToFirebaseForUnknownKeyId() throws Exception {
+        String token = sign("rotated-key", validClaims());
+        FirebaseToken sdkToken = mock(FirebaseToken.class);
+        when(sdkToken.getClaims()).thenReturn(validClaims());
+        when(firebaseAuth.verifyIdToken(token, true)).thenReturn(sdkToken);
+
+        FirebaseIdTokenVerifier.VerifiedIdToken verified = verifier.verify(token);
+
+        assertEquals("student-123", verified.token().getUid());
+        assertTrue(verified.revocationChecked());
+    }
+
+    private void assertInvalid(String token, AuthErrorCode expectedCode) {
+        FirebaseAuthException e = assertThrows(FirebaseAuthException.class, () -> verifier.verify(token));
+        assertEquals(expectedCode, e.getAuthErrorCode());
+    }
+
+    private Map<String, Object> validClaims() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("iss", "https://securetoken.google.com/" + PROJECT_ID);
+        claims.put("aud", PROJECT_ID);
+        claims.put("sub", "student-123");
+        claims.put("user_id", "student-123");
+        claims.put("email", "student@example.com");
+        claims.put("auth_time", NOW.minusSeconds(600).getEpochSecond());
+        claims.put("iat", NOW.minusSeconds(60).getEpochSecond());
+        claims.put("exp", NOW.plusSeconds(3540).getEpochSecond());
+        return claims;
+    }
+
+    private String sign(String keyId, Map<String, Object> claims) {
+        try {
+            String signingInput = encode(Map.of("alg", "RS256", "kid", keyId, "typ", "JWT")) + "." + encode(claims);
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(signingKeys.getPrivate());
+            signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature.sign());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String encode(Map<String, Object> json) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(json));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] jwksFor(String keyId, RSAPublicKey publicKey) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        Map<String, Object> jwk = Map.of(
+                "kty", "RSA", "alg", "RS256", "use", "sig", "kid", keyId,
+                "n", encoder.encodeToString(publicKey.getModulus().toByteArray()),
+                "e", encoder.encodeToString(publicKey.getPublicExponent().toByteArray()));
+        return objectMapper.writeValueAsBytes(Map.of("keys", List.of(jwk)));
+    }
+}
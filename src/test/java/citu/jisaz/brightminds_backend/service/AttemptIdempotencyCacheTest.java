@@ -0,0 +1,45 @@
+package citu.jisaz.brightminds_backend.service;
+
+import citu.jisaz.brightminds_backend.dto.UserDTO;
+import citu.jisaz.brightminds_backend.exception.BadRequestException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AttemptIdempotencyCacheTest {
+
+    private final AttemptIdempotencyCache cache =
+            new AttemptIdempotencyCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+
+    @Test
+    void retryOfTheSameAttemptGetsTheFirstResult() throws Exception {
+        UserDTO first = new UserDTO();
+        AtomicInteger processed = new AtomicInteger();
+
+        cache.getOrProcess("s1", "key-1", "c1", "g1", () -> {
+            processed.incrementAndGet();
+            return first;
+        });
+        UserDTO retried = cache.getOrProcess("s1", "key-1", "c1", "g1", () -> {
+            processed.incrementAndGet();
+            return new UserDTO();
+        });
+
+        assertSame(first, retried);
+        assertEquals(1, processed.get());
+    }
+
+    @Test
+    void keyReusedForAnotherGameIsRejected() throws Exception {
+        cache.getOrProcess("s1", "key-1", "c1", "g1", UserDTO::new);
+
+        assertThrows(BadRequestException.class, () -> cache.getOrProcess("s1", "key-1", "c1", "g2", UserDTO::new));
+        assertThrows(BadRequestException.class, () -> cache.getOrProcess("s1", "key-1", "c2", "g1", UserDTO::new));
+    }
+}
@@ -0,0 +1,132 @@
+package citu.jisaz.brightminds_backend.service;
+
+import citu.jisaz.brightminds_backend.model.Classroom;
+import citu.jisaz.brightminds_backend.repository.AsyncClassroomRepository;
+import citu.jisaz.brightminds_backend.repository.ClassroomDocumentWatcher;
+import com.google.cloud.firestore.ListenerRegistration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ClassroomCacheTest {
+
+    private static final Duration CHECK = Duration.ofMinutes(5);
+
+    private AsyncClassroomRepository repository;
+    private ClassroomDocumentWatcher watcher;
+    private ListenerRegistration registration;
+    private SimpleMeterRegistry meterRegistry;
+    private ClassroomCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(AsyncClassroomRepository.class);
+        watcher = mock(ClassroomDocumentWatcher.class);
+        registration = mock(ListenerRegistration.class);
+        when(repository.findByIdAsync("c1")).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(Optional.of(classroom("Math"))));
+        when(watcher.watch(eq("c1"), any(), any())).thenReturn(registration);
+        ObjectProvider<ClassroomDocumentWatcher> watcherProvider = mock(ObjectProvider.class);
+        when(watcherProvider.getIfAvailable()).thenReturn(watcher);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ClassroomCache(repository, watcherProvider, meterRegistry, 100, Duration.ofMinutes(10), 3, 10);
+    }
+
+    private static Classroom classroom(String name) {
+        return Classroom.builder().classroomId("c1").name(name).teacherId("t1").build();
+    }
+
+    @Test
+    void eachCallerGetsACopyNoOlderThanItAccepts() throws Exception {
+        cache.get("c1", CHECK).orElseThrow().setName("changed by caller");
+
+        assertEquals("Math", cache.get("c1", CHECK).orElseThrow().getName());
+        verify(repository, times(1)).findByIdAsync("c1");
+
+        cache.get("c1", Duration.ZERO);
+        verify(repository, times(2)).findByIdAsync("c1");
+
+        cache.put(classroom("Written through"));
+        assertEquals("Written through", cache.getIfPresent("c1", CHECK).orElseThrow().getName());
+        assertEquals(0.5, meterRegistry.get("brightminds.classroom.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void hotClassroomIsKeptCurrentByItsListenerUntilItFails() throws Exception {
+        // One lookup to load it, then three that find it cached.
+        for (int i = 0; i < 4; i++) {
+            cache.get("c1", Duration.ZERO);
+        }
+        ArgumentCaptor<Consumer<Optional<Classroom>>> onChange = ArgumentCaptor.forClass(Consumer.class);
+        ArgumentCaptor<Consumer<Throwable>> onError = ArgumentCaptor.forClass(Consumer.class);
+        verify(watcher).watch(eq("c1"), onChange.capture(), onError.capture());
+
+        onChange.getValue().accept(Optional.of(classroom("Renamed elsewhere")));
+
+        assertEquals("Renamed elsewhere", cache.get("c1", Duration.ZERO).orElseThrow().getName());
+        verify(repository, times(4)).findByIdAsync("c1");
+
+        onError.getValue().accept(new IllegalStateException("listener failed"));
+
+        verify(registration).remove();
+        assertEquals("Math", cache.get("c1", Duration.ZERO).orElseThrow().getName());
+        verify(repository, times(5)).findByIdAsync("c1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deletionSeenByTheListenerDropsTheClassroom() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            cache.get("c1", CHECK);
+        }
+        ArgumentCaptor<Consumer<Optional<Classroom>>> onChange = ArgumentCaptor.forClass(Consumer.class);
+        verify(watcher).watch(eq("c1"), onChange.capture(), any());
+
+        onChange.getValue().accept(Optional.empty());
+
+        assertTrue(cache.getIfPresent("c1", CHECK).isEmpty());
+    }
+
+    @Test
+    void readThroughStartedBeforeAWriteDoesNotReplaceIt() throws Exception {
+        CompletableFuture<Optional<Classroom>> slowRead = new CompletableFuture<>();
+        when(repository.findByIdAsync("c1")).thenReturn(slowRead);
+
+        CompletableFuture<Optional<Classroom>> lookup = cache.getAsync("c1", CHECK);
+        cache.put(classroom("Written through"));
+        slowRead.complete(Optional.of(classroom("Math")));
+
+        assertEquals("Math", lookup.get().orElseThrow().getName());
+        assertEquals("Written through", cache.getIfPresent("c1", CHECK).orElseThrow().getName());
+    }
+
+    @Test
+    void readThroughStartedBeforeAnInvalidationIsNotCached() throws Exception {
+        CompletableFuture<Optional<Classroom>> slowRead = new CompletableFuture<>();
+        when(repository.findByIdAsync("c1")).thenReturn(slowRead);
+
+        cache.getAsync("c1", CHECK);
+        cache.invalidate("c1");
+        slowRead.complete(Optional.of(classroom("Math")));
+
+        assertTrue(cache.getIfPresent("c1", CHECK).isEmpty());
+    }
+}
@@ -0,0 +1,81 @@
+package citu.jisaz.brightminds_backend.service;
+
+import citu.jisaz.brightminds_backend.config.GamificationConfig;
+import citu.jisaz.brightminds_backend.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LevelingEngineTest {
+
+    private static GamificationConfig config(long baseXpForLevel2, double levelXpMultiplier) {
+        GamificationConfig config = new GamificationConfig();
+        ReflectionTestUtils.setField(config, "baseXpForLevel2", baseXpForLevel2);
+        ReflectionTestUtils.setField(config, "levelXpMultiplier", levelXpMultiplier);
+        return config;
+    }
+
+    /** The per-level loop the engine replaced, with the Long.MAX_VALUE guard. */
+    private static int loop(GamificationConfig config, User user, long xpEarned) {
+        int levelsGained = 0;
+        user.setCurrentXp(user.getCurrentXp() + xpEarned);
+        while (user.getCurrentXp() >= user.getXpToNextLevel()) {
+            levelsGained++;
+            user.setCurrentXp(user.getCurrentXp() - user.getXpToNextLevel());
+            user.setLevel(user.getLevel() + 1);
+            long next = config.calculateXpForNextLevel(user.getLevel());
+            user.setXpToNextLevel(next > 0 ? next : Long.MAX_VALUE);
+        }
+        return levelsGained;
+    }
+
+    @Test
+    void matchesPerLevelLoop() {
+        GamificationConfig config = config(100, 1.25);
+        LevelingEngine engine = new LevelingEngine(config);
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            int level = 1 + random.nextInt(40);
+            long xpToNextLevel = config.calculateXpForNextLevel(level) + (random.nextBoolean() ? 0 : random.nextInt(50));
+            long currentXp = random.nextLong(xpToNextLevel);
+            long xpEarned = random.nextInt(4) == 0 ? random.nextLong(1_000_000_000L) : random.nextInt(2_000);
+
+            User expected = User.builder().level(level).currentXp(currentXp).xpToNextLevel(xpToNextLevel).build();
+            User actual = User.builder().level(level).currentXp(currentXp).xpToNextLevel(xpToNextLevel).build();
+            int expectedLevels = loop(config, expected, xpEarned);
+
+            assertEquals(expectedLevels, engine.applyXp(actual, xpEarned));
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void fillsMissingFieldsAndStopsAtHighestLevel() {
+        LevelingEngine engine = new LevelingEngine(config(100, 1.25));
+        User fresh = new User();
+        assertEquals(1, engine.applyXp(fresh, 130));
+        assertEquals(2, fresh.getLevel());
+        assertEquals(30L, fresh.getCurrentXp());
+        assertEquals(125L, fresh.getXpToNextLevel());
+
+        User capped = User.builder().level(1).currentXp(0L).xpToNextLevel(100L).build();
+        engine.applyXp(capped, Long.MAX_VALUE);
+        assertEquals(engine.maxLevel(), capped.getLevel());
+        assertEquals(Long.MAX_VALUE, capped.getXpToNextLevel());
+    }
+
+    @Test
+    void nonPositiveRequirementEndsTheTable() {
+        LevelingEngine engine = new LevelingEngine(config(100, 0.01));
+        User user = User.builder().level(1).currentXp(0L).xpToNextLevel(100L).build();
+
+        // Level 1 needs 100 XP, level 2 needs 1 and level 3 rounds down to 0, so level 3 is the highest.
+        assertEquals(2, engine.applyXp(user, 1_000));
+        assertEquals(3, user.getLevel());
+        assertEquals(899L, user.getCurrentXp());
+        assertEquals(Long.MAX_VALUE, user.getXpToNextLevel());
+    }
+}